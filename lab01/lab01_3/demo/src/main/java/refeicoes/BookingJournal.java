@@ -0,0 +1,407 @@
+package refeicoes;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Append-only, CRC-checked binary journal of booking events. Appends only queue the
+ * record in memory; a background thread writes and fsyncs queued records in batches
+ * (group commit), and {@link #sync()} forces them out. Past the compaction threshold
+ * the journal is rotated and older files are replaced by a snapshot. Replay is
+ * idempotent, so events found in both the snapshot and a newer journal apply once.
+ *
+ * A failed write keeps its batch queued and the flusher retries it; until a flush
+ * succeeds again {@link #checkHealthy()} fails, so callers check it before changing
+ * state and appends themselves are never refused.
+ */
+public class BookingJournal implements AutoCloseable {
+    private static final byte BOOK = 1;
+    private static final byte CHECK_IN = 2;
+    private static final byte CANCEL = 3;
+    private static final int RECORD_HEADER_BYTES = 8;
+    private static final int SNAPSHOT_MAGIC = 0x4D42534E;
+    private static final String SNAPSHOT_FILE = "snapshot.bin";
+    private static final String JOURNAL_PREFIX = "journal-";
+    private static final String JOURNAL_SUFFIX = ".log";
+
+    private final Path directory;
+    private final long compactThresholdBytes;
+    private final ScheduledExecutorService flusher;
+    private final Object ioLock = new Object();
+
+    // Guarded by this
+    private ByteArrayOutputStream pending = new ByteArrayOutputStream();
+
+    // Guarded by ioLock
+    private FileChannel channel;
+    private long journalSeq;
+    private long journalBytes;
+
+    private volatile Supplier<Collection<Reservation>> snapshotSource;
+    private volatile RuntimeException failure;
+
+    public BookingJournal(Path directory) {
+        this(directory, 5, 64L * 1024 * 1024);
+    }
+
+    public BookingJournal(Path directory, long flushIntervalMillis, long compactThresholdBytes) {
+        this.directory = directory;
+        this.compactThresholdBytes = compactThresholdBytes;
+        try {
+            Files.createDirectories(directory);
+            TreeSet<Long> existing = journalSeqs();
+            this.journalSeq = existing.isEmpty() ? 1 : existing.last() + 1;
+            this.channel = openJournal(journalSeq);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        this.flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "booking-journal-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flushAndMaybeCompact,
+            flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    // Rebuilds reservations from the latest snapshot and the journals written after it
+    public Map<String, Reservation> replay() {
+        Map<String, Reservation> reservations = new LinkedHashMap<>();
+        try {
+            long fromSeq = readSnapshot(reservations);
+            for (long seq : journalSeqs()) {
+                if (seq >= fromSeq && seq < journalSeq) {
+                    replayJournal(journalPath(seq), reservations);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return reservations;
+    }
+
+    void setSnapshotSource(Supplier<Collection<Reservation>> snapshotSource) {
+        this.snapshotSource = snapshotSource;
+    }
+
+    // Throws while the last flush has failed; call before any change that will be recorded
+    void checkHealthy() {
+        if (failure != null) {
+            throw new IllegalStateException("Booking journal is not writable", failure);
+        }
+    }
+
+    public void recordBooking(Reservation reservation) {
+        LocalDateTime time = reservation.getReservationTime();
+        append(BOOK, out -> {
+            out.writeUTF(reservation.getToken());
+            out.writeUTF(reservation.getStudentId());
+            out.writeUTF(reservation.getServiceShift());
+            out.writeLong(time.toEpochSecond(ZoneOffset.UTC));
+            out.writeInt(time.getNano());
+        });
+    }
+
+    public void recordCheckIn(String token) {
+        append(CHECK_IN, out -> out.writeUTF(token));
+    }
+
+    public void recordCancel(String token) {
+        append(CANCEL, out -> out.writeUTF(token));
+    }
+
+    // Blocks until every event appended so far is on disk
+    public void sync() {
+        try {
+            synchronized (ioLock) {
+                flushLocked();
+            }
+        } catch (RuntimeException e) {
+            failure = e;
+            throw e;
+        }
+        failure = null;
+    }
+
+    // Rotates the journal and replaces every older journal file with a snapshot
+    public void compact() {
+        Supplier<Collection<Reservation>> source = snapshotSource;
+        if (source == null) {
+            return;
+        }
+        long snapshotSeq;
+        synchronized (ioLock) {
+            flushLocked();
+            try {
+                channel.close();
+                journalSeq++;
+                channel = openJournal(journalSeq);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            journalBytes = 0;
+            snapshotSeq = journalSeq;
+        }
+        try {
+            // Taken after the rotation, so it covers everything in the older journals
+            writeSnapshot(snapshotSeq, new ArrayList<>(source.get()));
+            for (long seq : journalSeqs()) {
+                if (seq < snapshotSeq) {
+                    Files.deleteIfExists(journalPath(seq));
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void close() {
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (ioLock) {
+            flushLocked();
+            try {
+                channel.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    private void append(byte type, RecordWriter writer) {
+        ByteArrayOutputStream payload = new ByteArrayOutputStream(64);
+        try (DataOutputStream out = new DataOutputStream(payload)) {
+            out.writeByte(type);
+            writer.write(out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        byte[] bytes = payload.toByteArray();
+        CRC32 crc = new CRC32();
+        crc.update(bytes);
+        ByteBuffer record = ByteBuffer.allocate(RECORD_HEADER_BYTES + bytes.length)
+            .putInt(bytes.length)
+            .putInt((int) crc.getValue())
+            .put(bytes);
+        synchronized (this) {
+            pending.write(record.array(), 0, record.capacity());
+        }
+    }
+
+    private void flushAndMaybeCompact() {
+        try {
+            boolean compactDue;
+            synchronized (ioLock) {
+                flushLocked();
+                compactDue = journalBytes >= compactThresholdBytes;
+            }
+            failure = null;
+            if (compactDue) {
+                compact();
+            }
+        } catch (RuntimeException e) {
+            // The batch stays queued; the next run retries it
+            failure = e;
+        }
+    }
+
+    private void flushLocked() {
+        byte[] batch;
+        synchronized (this) {
+            if (pending.size() == 0) {
+                return;
+            }
+            batch = pending.toByteArray();
+            pending = new ByteArrayOutputStream(batch.length);
+        }
+        long start = -1;
+        try {
+            start = channel.position();
+            ByteBuffer buffer = ByteBuffer.wrap(batch);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+        } catch (IOException e) {
+            requeue(batch, start);
+            throw new UncheckedIOException(e);
+        }
+        journalBytes += batch.length;
+    }
+
+    // Puts a failed batch back in front of newer appends and drops any part already written
+    private void requeue(byte[] batch, long start) {
+        if (start >= 0) {
+            try {
+                channel.truncate(start);
+                channel.position(start);
+            } catch (IOException e) {
+                // The channel itself is failing; the retry will report it
+            }
+        }
+        synchronized (this) {
+            ByteArrayOutputStream retry = new ByteArrayOutputStream(batch.length + pending.size());
+            retry.write(batch, 0, batch.length);
+            retry.write(pending.toByteArray(), 0, pending.size());
+            pending = retry;
+        }
+    }
+
+    private void replayJournal(Path file, Map<String, Reservation> reservations) throws IOException {
+        try (FileChannel in = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = in.map(FileChannel.MapMode.READ_ONLY, 0, in.size());
+            while (buffer.remaining() >= RECORD_HEADER_BYTES) {
+                int length = buffer.getInt();
+                int checksum = buffer.getInt();
+                if (length <= 0 || length > buffer.remaining()) {
+                    return; // torn write at the tail
+                }
+                byte[] payload = new byte[length];
+                buffer.get(payload);
+                CRC32 crc = new CRC32();
+                crc.update(payload);
+                if ((int) crc.getValue() != checksum) {
+                    return;
+                }
+                apply(new DataInputStream(new ByteArrayInputStream(payload)), reservations);
+            }
+        }
+    }
+
+    private void apply(DataInputStream in, Map<String, Reservation> reservations) throws IOException {
+        byte type = in.readByte();
+        String token = in.readUTF();
+        if (type == BOOK) {
+            String studentId = in.readUTF();
+            String serviceShift = in.readUTF();
+            LocalDateTime time = LocalDateTime.ofEpochSecond(in.readLong(), in.readInt(), ZoneOffset.UTC);
+            reservations.putIfAbsent(token, new Reservation(token, studentId, serviceShift, time));
+            return;
+        }
+        Reservation reservation = reservations.get(token);
+        if (reservation != null && type == CHECK_IN) {
+            reservation.markAsUsed();
+        } else if (reservation != null && type == CANCEL) {
+            reservation.cancel();
+        }
+    }
+
+    private void writeSnapshot(long seq, List<Reservation> reservations) throws IOException {
+        Path tmp = directory.resolve(SNAPSHOT_FILE + ".tmp");
+        try (FileOutputStream file = new FileOutputStream(tmp.toFile())) {
+            CheckedOutputStream checked = new CheckedOutputStream(new BufferedOutputStream(file), new CRC32());
+            DataOutputStream out = new DataOutputStream(checked);
+            out.writeInt(SNAPSHOT_MAGIC);
+            out.writeLong(seq);
+            out.writeInt(reservations.size());
+            for (Reservation reservation : reservations) {
+                LocalDateTime time = reservation.getReservationTime();
+                out.writeUTF(reservation.getToken());
+                out.writeUTF(reservation.getStudentId());
+                out.writeUTF(reservation.getServiceShift());
+                out.writeLong(time.toEpochSecond(ZoneOffset.UTC));
+                out.writeInt(time.getNano());
+                out.writeBoolean(reservation.isUsed());
+                out.writeBoolean(reservation.isCancelled());
+            }
+            out.writeLong(checked.getChecksum().getValue());
+            out.flush();
+            file.getFD().sync();
+        }
+        Files.move(tmp, directory.resolve(SNAPSHOT_FILE),
+            StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // Returns the first journal sequence not covered by the snapshot
+    private long readSnapshot(Map<String, Reservation> reservations) throws IOException {
+        Path file = directory.resolve(SNAPSHOT_FILE);
+        if (!Files.exists(file)) {
+            return 0;
+        }
+        try (InputStream raw = new BufferedInputStream(Files.newInputStream(file))) {
+            CheckedInputStream checked = new CheckedInputStream(raw, new CRC32());
+            DataInputStream in = new DataInputStream(checked);
+            if (in.readInt() != SNAPSHOT_MAGIC) {
+                throw new IllegalStateException("Not a booking snapshot: " + file);
+            }
+            long seq = in.readLong();
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                String token = in.readUTF();
+                Reservation reservation = new Reservation(token, in.readUTF(), in.readUTF(),
+                    LocalDateTime.ofEpochSecond(in.readLong(), in.readInt(), ZoneOffset.UTC));
+                if (in.readBoolean()) {
+                    reservation.markAsUsed();
+                }
+                if (in.readBoolean()) {
+                    reservation.cancel();
+                }
+                reservations.put(token, reservation);
+            }
+            long expected = checked.getChecksum().getValue();
+            if (new DataInputStream(raw).readLong() != expected) {
+                throw new IllegalStateException("Corrupt booking snapshot: " + file);
+            }
+            return seq;
+        }
+    }
+
+    private FileChannel openJournal(long seq) throws IOException {
+        return FileChannel.open(journalPath(seq), StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+    }
+
+    private Path journalPath(long seq) {
+        return directory.resolve(String.format("%s%020d%s", JOURNAL_PREFIX, seq, JOURNAL_SUFFIX));
+    }
+
+    private TreeSet<Long> journalSeqs() throws IOException {
+        TreeSet<Long> seqs = new TreeSet<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            files.map(path -> path.getFileName().toString())
+                .filter(name -> name.startsWith(JOURNAL_PREFIX) && name.endsWith(JOURNAL_SUFFIX))
+                .forEach(name -> seqs.add(Long.parseLong(
+                    name.substring(JOURNAL_PREFIX.length(), name.length() - JOURNAL_SUFFIX.length()))));
+        }
+        return seqs;
+    }
+
+    private interface RecordWriter {
+        void write(DataOutputStream out) throws IOException;
+    }
+}
@@ -0,0 +1,306 @@
+package refeicoes;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Reservation store laid out as parallel primitive arrays: a 64-bit token, interned
+ * student and shift ids, an epoch-second timestamp and a status byte per booking,
+ * plus an open-addressing token index. No object is kept per reservation; callers
+ * get short-lived {@link Reservation} views that read through to the arrays.
+ *
+ * Tokens come from a {@link TokenGenerator} and reservation times are kept to the
+ * second.
+ */
+public class CompactReservationStore implements ReservationStore {
+    private static final long EMPTY = 0;
+    private static final byte USED = 1;
+    private static final byte CANCELLED = 2;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final TokenGenerator tokenGenerator;
+
+    // Guarded by lock: one entry per reservation, indexed by slot
+    private long[] tokens;
+    private int[] studentIds;
+    private int[] shiftIds;
+    private long[] epochSeconds;
+    private byte[] status;
+    private int size;
+
+    // Guarded by lock: open-addressing index from token to slot
+    private long[] indexKeys;
+    private int[] indexSlots;
+
+    // Guarded by lock: interned student ids and shift names
+    private final Map<String, Integer> internIds = new HashMap<>();
+    private final List<String> interned = new ArrayList<>();
+
+    public CompactReservationStore() {
+        this(1024);
+    }
+
+    public CompactReservationStore(int initialCapacity) {
+        this(initialCapacity, new SequenceTokenGenerator());
+    }
+
+    public CompactReservationStore(int initialCapacity, TokenGenerator tokenGenerator) {
+        this.tokenGenerator = tokenGenerator;
+        int capacity = Math.max(16, Integer.highestOneBit(initialCapacity - 1) << 1);
+        tokens = new long[capacity];
+        studentIds = new int[capacity];
+        shiftIds = new int[capacity];
+        epochSeconds = new long[capacity];
+        status = new byte[capacity];
+        indexKeys = new long[capacity * 2];
+        indexSlots = new int[capacity * 2];
+    }
+
+    @Override
+    public Reservation add(String studentId, String serviceShift) {
+        long epochSecond = LocalDateTime.now().toEpochSecond(ZoneOffset.UTC);
+        lock.writeLock().lock();
+        try {
+            long token;
+            do {
+                token = tokenGenerator.nextToken();
+            } while (slotOf(token) >= 0);
+            return new View(insert(token, studentId, serviceShift, epochSecond, (byte) 0));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void restore(Reservation reservation) {
+        long token = TokenGenerator.parse(reservation.getToken());
+        if (token == EMPTY) {
+            throw new IllegalArgumentException("Not a compact reservation token: " + reservation.getToken());
+        }
+        byte flags = (byte) ((reservation.isUsed() ? USED : 0) | (reservation.isCancelled() ? CANCELLED : 0));
+        long epochSecond = reservation.getReservationTime().toEpochSecond(ZoneOffset.UTC);
+        lock.writeLock().lock();
+        try {
+            int slot = slotOf(token);
+            if (slot >= 0) {
+                status[slot] = flags;
+            } else {
+                insert(token, reservation.getStudentId(), reservation.getServiceShift(), epochSecond, flags);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public Reservation find(String token) {
+        long key = TokenGenerator.parse(token);
+        if (key == EMPTY) {
+            return null;
+        }
+        lock.readLock().lock();
+        try {
+            int slot = slotOf(key);
+            return slot < 0 ? null : new View(slot);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean markAsUsed(Reservation reservation) {
+        return transition(reservation, USED);
+    }
+
+    @Override
+    public boolean cancel(Reservation reservation) {
+        return transition(reservation, CANCELLED);
+    }
+
+    @Override
+    public Collection<Reservation> snapshot() {
+        lock.readLock().lock();
+        try {
+            List<Reservation> views = new ArrayList<>(size);
+            for (int slot = 0; slot < size; slot++) {
+                views.add(new View(slot));
+            }
+            return views;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private boolean transition(Reservation reservation, byte flag) {
+        int slot = ((View) reservation).slot;
+        lock.writeLock().lock();
+        try {
+            if (status[slot] != 0) {
+                return false;
+            }
+            status[slot] = flag;
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private int insert(long token, String studentId, String serviceShift, long epochSecond, byte flags) {
+        if (size == tokens.length) {
+            grow();
+        }
+        int slot = size++;
+        tokens[slot] = token;
+        studentIds[slot] = intern(studentId);
+        shiftIds[slot] = intern(serviceShift);
+        epochSeconds[slot] = epochSecond;
+        status[slot] = flags;
+        index(token, slot);
+        return slot;
+    }
+
+    private void grow() {
+        int capacity = tokens.length * 2;
+        tokens = Arrays.copyOf(tokens, capacity);
+        studentIds = Arrays.copyOf(studentIds, capacity);
+        shiftIds = Arrays.copyOf(shiftIds, capacity);
+        epochSeconds = Arrays.copyOf(epochSeconds, capacity);
+        status = Arrays.copyOf(status, capacity);
+
+        // Keep the index at most half full
+        indexKeys = new long[capacity * 2];
+        indexSlots = new int[capacity * 2];
+        for (int slot = 0; slot < size; slot++) {
+            index(tokens[slot], slot);
+        }
+    }
+
+    private void index(long token, int slot) {
+        int mask = indexKeys.length - 1;
+        int i = hash(token) & mask;
+        while (indexKeys[i] != EMPTY) {
+            i = (i + 1) & mask;
+        }
+        indexKeys[i] = token;
+        indexSlots[i] = slot;
+    }
+
+    private int slotOf(long token) {
+        int mask = indexKeys.length - 1;
+        for (int i = hash(token) & mask; indexKeys[i] != EMPTY; i = (i + 1) & mask) {
+            if (indexKeys[i] == token) {
+                return indexSlots[i];
+            }
+        }
+        return -1;
+    }
+
+    private static int hash(long token) {
+        long h = token * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    private int intern(String value) {
+        Integer id = internIds.get(value);
+        if (id == null) {
+            id = interned.size();
+            interned.add(value);
+            internIds.put(value, id);
+        }
+        return id;
+    }
+
+    // Flyweight over one slot; every read goes back to the arrays
+    private final class View extends Reservation {
+        private final int slot;
+
+        View(int slot) {
+            super(null, null, null, null);
+            this.slot = slot;
+        }
+
+        @Override
+        public String getToken() {
+            lock.readLock().lock();
+            try {
+                return TokenGenerator.format(tokens[slot]);
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        @Override
+        public String getStudentId() {
+            return internedAt(true);
+        }
+
+        @Override
+        public String getServiceShift() {
+            return internedAt(false);
+        }
+
+        @Override
+        public LocalDateTime getReservationTime() {
+            lock.readLock().lock();
+            try {
+                return LocalDateTime.ofEpochSecond(epochSeconds[slot], 0, ZoneOffset.UTC);
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        @Override
+        public boolean isUsed() {
+            return (status() & USED) != 0;
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return (status() & CANCELLED) != 0;
+        }
+
+        @Override
+        public void markAsUsed() {
+            CompactReservationStore.this.markAsUsed(this);
+        }
+
+        @Override
+        public void cancel() {
+            CompactReservationStore.this.cancel(this);
+        }
+
+        private String internedAt(boolean student) {
+            lock.readLock().lock();
+            try {
+                return interned.get(student ? studentIds[slot] : shiftIds[slot]);
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        private byte status() {
+            lock.readLock().lock();
+            try {
+                return status[slot];
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+    }
+}
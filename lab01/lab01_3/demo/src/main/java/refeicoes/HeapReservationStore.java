@@ -0,0 +1,67 @@
+package refeicoes;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// One Reservation object per booking, kept in a concurrent map
+public class HeapReservationStore implements ReservationStore {
+    private final Map<String, Reservation> reservationsByToken = new ConcurrentHashMap<>();
+    private final TokenGenerator tokens;
+    
+    public HeapReservationStore() {
+        this(new SequenceTokenGenerator());
+    }
+    
+    public HeapReservationStore(TokenGenerator tokens) {
+        this.tokens = tokens;
+    }
+    
+    @Override
+    public Reservation add(String studentId, String serviceShift) {
+        LocalDateTime now = LocalDateTime.now();
+        Reservation reservation;
+        do {
+            reservation = new Reservation(tokens.nextTokenString(), studentId, serviceShift, now);
+        } while (reservationsByToken.putIfAbsent(reservation.getToken(), reservation) != null);
+        return reservation;
+    }
+    
+    @Override
+    public void restore(Reservation reservation) {
+        reservationsByToken.put(reservation.getToken(), reservation);
+    }
+    
+    @Override
+    public Reservation find(String token) {
+        return reservationsByToken.get(token);
+    }
+    
+    @Override
+    public boolean markAsUsed(Reservation reservation) {
+        synchronized (reservation) {
+            if (reservation.isUsed() || reservation.isCancelled()) {
+                return false;
+            }
+            reservation.markAsUsed();
+            return true;
+        }
+    }
+    
+    @Override
+    public boolean cancel(Reservation reservation) {
+        synchronized (reservation) {
+            if (reservation.isUsed() || reservation.isCancelled()) {
+                return false;
+            }
+            reservation.cancel();
+            return true;
+        }
+    }
+    
+    @Override
+    public Collection<Reservation> snapshot() {
+        return reservationsByToken.values();
+    }
+}
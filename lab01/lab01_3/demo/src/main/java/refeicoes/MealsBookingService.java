@@ -1,88 +1,145 @@
 package refeicoes;
 
-import java.util.HashSet;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
 public class MealsBookingService {
-    private final Map<String, Reservation> reservationsByToken = new ConcurrentHashMap<>();
+    private final ReservationStore reservations;
     private final Map<String, Set<String>> studentReservationsByShift = new ConcurrentHashMap<>();
-    private final Map<String, Integer> shiftCapacity = new ConcurrentHashMap<>();
-    private final Map<String, Integer> currentBookingsPerShift = new ConcurrentHashMap<>();
+    private final Map<String, SeatAllocator> seatsByShift = new ConcurrentHashMap<>();
     private final int defaultCapacity = 100;
+    private final BookingJournal journal;
     
     public MealsBookingService() {
+        this(new HeapReservationStore(), null);
+    }
+    
+    public MealsBookingService(BookingJournal journal) {
+        this(new HeapReservationStore(), journal);
+    }
+    
+    // Restores the state recorded in the journal and keeps recording every change to it
+    public MealsBookingService(ReservationStore reservations, BookingJournal journal) {
+        this.reservations = reservations;
+        this.journal = journal;
+        
         // Initialize default capacities
-        shiftCapacity.put("lunch", defaultCapacity);
-        shiftCapacity.put("dinner", defaultCapacity);
+        seatsByShift.put("lunch", new SeatAllocator(defaultCapacity));
+        seatsByShift.put("dinner", new SeatAllocator(defaultCapacity));
+        
+        if (journal != null) {
+            journal.replay().values().forEach(this::restore);
+            journal.setSnapshotSource(reservations::snapshot);
+        }
     }
     
     public Reservation bookMeal(MealBookingRequest request) {
         validateBookingRequest(request);
         
+        String studentId = request.getStudentId();
         String shiftKey = request.getServiceShift();
-        currentBookingsPerShift.putIfAbsent(shiftKey, 0);
+        checkJournal();
+        
+        // Claim the student's slot for this shift atomically
+        Set<String> studentShifts = studentReservationsByShift
+            .computeIfAbsent(studentId, k -> ConcurrentHashMap.newKeySet());
+        if (!studentShifts.add(shiftKey)) {
+            throw new IllegalStateException("Student already has a reservation for this shift");
+        }
         
         // Check capacity
-        if (currentBookingsPerShift.get(shiftKey) >= shiftCapacity.getOrDefault(shiftKey, defaultCapacity)) {
+        if (!seatsFor(shiftKey).tryAcquire()) {
+            studentShifts.remove(shiftKey);
             throw new IllegalStateException("No available spots for this shift");
         }
         
-        // Create reservation
-        Reservation reservation = new Reservation(request.getStudentId(), request.getServiceShift());
-        
-        // Store reservation
-        reservationsByToken.put(reservation.getToken(), reservation);
-        studentReservationsByShift
-            .computeIfAbsent(request.getStudentId(), k -> new HashSet<>())
-            .add(request.getServiceShift());
-        currentBookingsPerShift.merge(shiftKey, 1, Integer::sum);
+        // Create and store reservation
+        Reservation reservation = reservations.add(studentId, shiftKey);
+        if (journal != null) {
+            journal.recordBooking(reservation);
+        }
         
         return reservation;
     }
     
     public Optional<Reservation> getReservation(String token) {
-        return Optional.ofNullable(reservationsByToken.get(token));
+        return Optional.ofNullable(reservations.find(token));
     }
     
     public boolean verifyReservation(String token) {
-        Reservation reservation = reservationsByToken.get(token);
+        Reservation reservation = reservations.find(token);
         return reservation != null && !reservation.isUsed() && !reservation.isCancelled();
     }
     
     public boolean checkIn(String token) {
-        Reservation reservation = reservationsByToken.get(token);
-        if (reservation == null || reservation.isUsed() || reservation.isCancelled()) {
+        Reservation reservation = reservations.find(token);
+        if (reservation == null) {
+            return false;
+        }
+        checkJournal();
+        if (!reservations.markAsUsed(reservation)) {
             return false;
         }
         
-        reservation.markAsUsed();
-        currentBookingsPerShift.merge(reservation.getServiceShift(), -1, Integer::sum);
+        seatsFor(reservation.getServiceShift()).release();
+        if (journal != null) {
+            journal.recordCheckIn(token);
+        }
         return true;
     }
     
     public boolean cancelReservation(String token) {
-        Reservation reservation = reservationsByToken.get(token);
-        if (reservation == null || reservation.isUsed() || reservation.isCancelled()) {
+        Reservation reservation = reservations.find(token);
+        if (reservation == null) {
+            return false;
+        }
+        checkJournal();
+        if (!reservations.cancel(reservation)) {
             return false;
         }
         
-        reservation.cancel();
         studentReservationsByShift.get(reservation.getStudentId()).remove(reservation.getServiceShift());
-        currentBookingsPerShift.merge(reservation.getServiceShift(), -1, Integer::sum);
+        seatsFor(reservation.getServiceShift()).release();
+        if (journal != null) {
+            journal.recordCancel(token);
+        }
         return true;
     }
     
     public void setShiftCapacity(String shift, int capacity) {
-        shiftCapacity.put(shift, capacity);
+        seatsByShift.computeIfAbsent(shift, k -> new SeatAllocator(capacity)).setCapacity(capacity);
     }
     
     public int getAvailableSpots(String shift) {
-        int current = currentBookingsPerShift.getOrDefault(shift, 0);
-        int capacity = shiftCapacity.getOrDefault(shift, defaultCapacity);
-        return Math.max(0, capacity - current);
+        SeatAllocator seats = seatsByShift.get(shift);
+        return seats == null ? defaultCapacity : seats.getAvailable();
+    }
+    
+    private void restore(Reservation reservation) {
+        reservations.restore(reservation);
+        if (reservation.isCancelled()) {
+            return;
+        }
+        studentReservationsByShift
+            .computeIfAbsent(reservation.getStudentId(), k -> ConcurrentHashMap.newKeySet())
+            .add(reservation.getServiceShift());
+        if (!reservation.isUsed()) {
+            seatsFor(reservation.getServiceShift()).acquireUnchecked();
+        }
+    }
+    
+    // Refuses a change up front rather than applying one the journal cannot record;
+    // once checked, the record call only queues and cannot fail
+    private void checkJournal() {
+        if (journal != null) {
+            journal.checkHealthy();
+        }
+    }
+    
+    private SeatAllocator seatsFor(String shift) {
+        return seatsByShift.computeIfAbsent(shift, k -> new SeatAllocator(defaultCapacity));
     }
     
     private void validateBookingRequest(MealBookingRequest request) {
@@ -92,11 +149,5 @@ public class MealsBookingService {
         if (request.getServiceShift() == null || request.getServiceShift().trim().isEmpty()) {
             throw new IllegalArgumentException("Service shift is required");
         }
-        
-        // Check if student already has reservation for this shift
-        Set<String> studentShifts = studentReservationsByShift.get(request.getStudentId());
-        if (studentShifts != null && studentShifts.contains(request.getServiceShift())) {
-            throw new IllegalStateException("Student already has a reservation for this shift");
-        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,225 @@
+package refeicoes;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Booking engine where every service shift is its own partition with a dedicated
+ * writer thread. All changes to a shift (bookings, check-ins, cancellations and
+ * capacity) run one at a time on that thread against plain, unshared state, so a hot
+ * shift never contends with the others and no locks or CAS loops are needed.
+ *
+ * The shifts, and so the writer threads, are fixed when the service is built; requests
+ * for any other shift are rejected, and nothing is accepted once the service is closed.
+ *
+ * Reads do not hop threads: reservations are looked up in a concurrent token index,
+ * and each partition publishes its available spots after every change. Callers always
+ * get a snapshot of a reservation, never the instance the writer thread updates.
+ */
+public class PartitionedMealsBookingService implements AutoCloseable {
+    private final Map<String, ShiftPartition> partitions;
+    private final Map<String, Reservation> reservationsByToken = new ConcurrentHashMap<>();
+    private final TokenGenerator tokens = new SequenceTokenGenerator();
+    private final int defaultCapacity = 100;
+
+    public PartitionedMealsBookingService() {
+        this(Arrays.asList("lunch", "dinner"));
+    }
+
+    public PartitionedMealsBookingService(Collection<String> shifts) {
+        Map<String, ShiftPartition> byShift = new HashMap<>();
+        for (String shift : shifts) {
+            byShift.putIfAbsent(shift, new ShiftPartition(shift));
+        }
+        this.partitions = byShift;
+    }
+
+    public Reservation bookMeal(MealBookingRequest request) {
+        validateBookingRequest(request);
+        String studentId = request.getStudentId();
+        return partitionFor(request.getServiceShift()).call(partition -> partition.book(studentId).snapshot());
+    }
+
+    public Optional<Reservation> getReservation(String token) {
+        return Optional.ofNullable(reservationsByToken.get(token)).map(Reservation::snapshot);
+    }
+
+    public boolean verifyReservation(String token) {
+        Reservation reservation = reservationsByToken.get(token);
+        return reservation != null && !reservation.isUsed() && !reservation.isCancelled();
+    }
+
+    public boolean checkIn(String token) {
+        Reservation reservation = reservationsByToken.get(token);
+        if (reservation == null) {
+            return false;
+        }
+        return partitionFor(reservation.getServiceShift()).call(partition -> partition.checkIn(reservation));
+    }
+
+    public boolean cancelReservation(String token) {
+        Reservation reservation = reservationsByToken.get(token);
+        if (reservation == null) {
+            return false;
+        }
+        return partitionFor(reservation.getServiceShift()).call(partition -> partition.cancel(reservation));
+    }
+
+    public void setShiftCapacity(String shift, int capacity) {
+        ShiftPartition partition = partitionFor(shift);
+        partition.run(() -> partition.setCapacity(capacity));
+    }
+
+    public int getAvailableSpots(String shift) {
+        return partitionFor(shift).available;
+    }
+
+    @Override
+    public void close() {
+        partitions.values().forEach(partition -> partition.writer.shutdown());
+    }
+
+    private ShiftPartition partitionFor(String shift) {
+        ShiftPartition partition = partitions.get(shift);
+        if (partition == null) {
+            throw new IllegalArgumentException("Unknown service shift: " + shift);
+        }
+        return partition;
+    }
+
+    private void validateBookingRequest(MealBookingRequest request) {
+        if (request.getStudentId() == null || request.getStudentId().trim().isEmpty()) {
+            throw new IllegalArgumentException("Student ID is required");
+        }
+        if (request.getServiceShift() == null || request.getServiceShift().trim().isEmpty()) {
+            throw new IllegalArgumentException("Service shift is required");
+        }
+    }
+
+    private interface Command<T> {
+        T run(ShiftPartition partition);
+    }
+
+    private final class ShiftPartition {
+        private final String shift;
+        private final ExecutorService writer;
+
+        // Only touched by the writer thread
+        private final Set<String> students = new HashSet<>();
+        private int capacity = defaultCapacity;
+        private int used;
+
+        // Published by the writer thread after every change
+        private volatile int available = defaultCapacity;
+
+        ShiftPartition(String shift) {
+            this.shift = shift;
+            this.writer = Executors.newSingleThreadExecutor(r -> {
+                Thread thread = new Thread(r, "booking-partition-" + shift);
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+
+        <T> T call(Command<T> command) {
+            Callable<T> task = () -> {
+                try {
+                    return command.run(this);
+                } finally {
+                    publishAvailable();
+                }
+            };
+            return await(submit(task));
+        }
+
+        void run(Runnable change) {
+            await(submit(Executors.callable(() -> {
+                try {
+                    change.run();
+                } finally {
+                    publishAvailable();
+                }
+            })));
+        }
+
+        private <T> Future<T> submit(Callable<T> task) {
+            try {
+                return writer.submit(task);
+            } catch (RejectedExecutionException e) {
+                // close() has shut the writer down
+                throw new IllegalStateException("Booking service is closed", e);
+            }
+        }
+
+        private <T> T await(Future<T> result) {
+            try {
+                return result.get();
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                throw new IllegalStateException(e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for shift " + shift, e);
+            }
+        }
+
+        private void publishAvailable() {
+            available = Math.max(0, capacity - used);
+        }
+
+        Reservation book(String studentId) {
+            if (students.contains(studentId)) {
+                throw new IllegalStateException("Student already has a reservation for this shift");
+            }
+            if (used >= capacity) {
+                throw new IllegalStateException("No available spots for this shift");
+            }
+            LocalDateTime now = LocalDateTime.now();
+            Reservation reservation;
+            do {
+                reservation = new Reservation(tokens.nextTokenString(), studentId, shift, now);
+            } while (reservationsByToken.putIfAbsent(reservation.getToken(), reservation) != null);
+            students.add(studentId);
+            used++;
+            return reservation;
+        }
+
+        boolean checkIn(Reservation reservation) {
+            if (reservation.isUsed() || reservation.isCancelled()) {
+                return false;
+            }
+            reservation.markAsUsed();
+            used--;
+            return true;
+        }
+
+        boolean cancel(Reservation reservation) {
+            if (reservation.isUsed() || reservation.isCancelled()) {
+                return false;
+            }
+            reservation.cancel();
+            students.remove(reservation.getStudentId());
+            used--;
+            return true;
+        }
+
+        void setCapacity(int capacity) {
+            this.capacity = capacity;
+        }
+    }
+}
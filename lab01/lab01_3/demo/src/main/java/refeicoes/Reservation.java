@@ -1,25 +1,39 @@
 package refeicoes;
 
 import java.time.LocalDateTime;
-import java.util.UUID;
 
 public class Reservation {
+    private static final TokenGenerator TOKENS = new SequenceTokenGenerator();
+    
     private String token;
     private String studentId;
     private String serviceShift;
     private LocalDateTime reservationTime;
-    private boolean used;
-    private boolean cancelled;
+    private volatile boolean used;
+    private volatile boolean cancelled;
     
     public Reservation(String studentId, String serviceShift) {
-        this.token = UUID.randomUUID().toString().substring(0, 8);
+        this(TOKENS.nextTokenString(), studentId, serviceShift, LocalDateTime.now());
+    }
+    
+    // Used by reservation stores and when restoring from the booking journal
+    Reservation(String token, String studentId, String serviceShift, LocalDateTime reservationTime) {
+        this.token = token;
         this.studentId = studentId;
         this.serviceShift = serviceShift;
-        this.reservationTime = LocalDateTime.now();
+        this.reservationTime = reservationTime;
         this.used = false;
         this.cancelled = false;
     }
     
+    // Detached copy for callers that must not see later changes
+    Reservation snapshot() {
+        Reservation copy = new Reservation(token, studentId, serviceShift, reservationTime);
+        copy.used = used;
+        copy.cancelled = cancelled;
+        return copy;
+    }
+    
     // Getters
     public String getToken() { return token; }
     public String getStudentId() { return studentId; }
@@ -0,0 +1,23 @@
+package refeicoes;
+
+import java.util.Collection;
+
+// Where MealsBookingService keeps its reservations, indexed by token
+public interface ReservationStore {
+    
+    // Creates and stores a new reservation with a fresh, unique token
+    Reservation add(String studentId, String serviceShift);
+    
+    // Stores a reservation recovered from the booking journal
+    void restore(Reservation reservation);
+    
+    // Returns null when there is no reservation with this token
+    Reservation find(String token);
+    
+    // Both transitions succeed only for a reservation that is neither used nor cancelled
+    boolean markAsUsed(Reservation reservation);
+    
+    boolean cancel(Reservation reservation);
+    
+    Collection<Reservation> snapshot();
+}
@@ -0,0 +1,47 @@
+package refeicoes;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Lock-free seat counter for one shift: CAS loops never let used exceed capacity
+class SeatAllocator {
+    private final AtomicInteger used = new AtomicInteger();
+    private volatile int capacity;
+    
+    SeatAllocator(int capacity) {
+        this.capacity = capacity;
+    }
+    
+    boolean tryAcquire() {
+        int current;
+        do {
+            current = used.get();
+            if (current >= capacity) {
+                return false;
+            }
+        } while (!used.compareAndSet(current, current + 1));
+        return true;
+    }
+    
+    void release() {
+        int current;
+        do {
+            current = used.get();
+            if (current == 0) {
+                return;
+            }
+        } while (!used.compareAndSet(current, current - 1));
+    }
+    
+    // Restores a seat taken before a restart, even if capacity has shrunk since
+    void acquireUnchecked() {
+        used.incrementAndGet();
+    }
+    
+    void setCapacity(int capacity) {
+        this.capacity = capacity;
+    }
+    
+    int getAvailable() {
+        return Math.max(0, capacity - used.get());
+    }
+}
@@ -0,0 +1,25 @@
+package refeicoes;
+
+import com.example.bookingtokens.KeyedTokenSequence;
+
+/**
+ * Unforgeable tokens without shared state on the hot path: per-thread counters passed
+ * through a secret-keyed PRF (see {@link KeyedTokenSequence}). Tokens can collide, very
+ * rarely, so reservation stores keep drawing until the token is new.
+ */
+public class SequenceTokenGenerator implements TokenGenerator {
+    private final KeyedTokenSequence tokens;
+    
+    public SequenceTokenGenerator() {
+        this.tokens = new KeyedTokenSequence();
+    }
+    
+    SequenceTokenGenerator(long k0, long k1, int counterBits) {
+        this.tokens = new KeyedTokenSequence(k0, k1, counterBits);
+    }
+    
+    @Override
+    public long nextToken() {
+        return tokens.next();
+    }
+}
@@ -0,0 +1,23 @@
+package refeicoes;
+
+import com.example.bookingtokens.KeyedTokenSequence;
+
+// Source of 64-bit reservation tokens, shown to students as 13 base32 characters
+public interface TokenGenerator {
+    
+    // Never returns 0
+    long nextToken();
+    
+    default String nextTokenString() {
+        return format(nextToken());
+    }
+    
+    static String format(long token) {
+        return KeyedTokenSequence.format(token);
+    }
+    
+    // Returns 0 for anything format() could not have produced
+    static long parse(String token) {
+        return KeyedTokenSequence.parse(token);
+    }
+}
@@ -5,7 +5,14 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.IntFunction;
 
 public class MealsBookingServiceTest {
     private MealsBookingService bookingService;
@@ -191,6 +198,16 @@ public class MealsBookingServiceTest {
         });
     }
     
+    @Test
+    void testStandaloneReservationGetsGeneratedToken() {
+        Reservation first = new Reservation("student123", "lunch");
+        Reservation second = new Reservation("student123", "lunch");
+        
+        assertEquals(13, first.getToken().length());
+        assertNotEquals(first.getToken(), second.getToken());
+        assertNotNull(first.getReservationTime());
+    }
+    
     @Test
     void testNonExistentReservation() {
         assertFalse(bookingService.verifyReservation("nonexistent"));
@@ -198,4 +215,90 @@ public class MealsBookingServiceTest {
         assertFalse(bookingService.cancelReservation("nonexistent"));
         assertTrue(bookingService.getReservation("nonexistent").isEmpty());
     }
-}
\ No newline at end of file
+    
+    @Test
+    void testConcurrentBookingsNeverOversell() throws Exception {
+        bookingService.setShiftCapacity("lunch", 50);
+        
+        int succeeded = bookConcurrently(2000, i -> "student" + i);
+        
+        assertEquals(50, succeeded);
+        assertEquals(0, bookingService.getAvailableSpots("lunch"));
+    }
+    
+    @Test
+    void testConcurrentDuplicateBookingsOnlyOneSucceeds() throws Exception {
+        int succeeded = bookConcurrently(500, i -> "student123");
+        
+        assertEquals(1, succeeded);
+        assertEquals(99, bookingService.getAvailableSpots("lunch"));
+    }
+    
+    @Test
+    void testConcurrentCheckInReleasesSeatOnce() throws Exception {
+        bookingService.setShiftCapacity("lunch", 2);
+        Reservation reservation = bookingService.bookMeal(new MealBookingRequest("student1", "lunch"));
+        bookingService.bookMeal(new MealBookingRequest("student2", "lunch"));
+        
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<Boolean>> results = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            results.add(executor.submit(() -> bookingService.checkIn(reservation.getToken())));
+        }
+        int succeeded = 0;
+        for (Future<Boolean> result : results) {
+            if (result.get()) {
+                succeeded++;
+            }
+        }
+        executor.shutdown();
+        
+        assertEquals(1, succeeded);
+        assertEquals(1, bookingService.getAvailableSpots("lunch"));
+    }
+    
+    @Test
+    void testCancelFreesSpotAndAllowsRebooking() {
+        bookingService.setShiftCapacity("lunch", 1);
+        Reservation reservation = bookingService.bookMeal(new MealBookingRequest("student1", "lunch"));
+        
+        assertTrue(bookingService.cancelReservation(reservation.getToken()));
+        assertEquals(1, bookingService.getAvailableSpots("lunch"));
+        assertNotNull(bookingService.bookMeal(new MealBookingRequest("student1", "lunch")));
+    }
+    
+    @Test
+    void testUnknownShiftUsesDefaultCapacity() {
+        assertEquals(100, bookingService.getAvailableSpots("breakfast"));
+        
+        bookingService.bookMeal(new MealBookingRequest("student1", "breakfast"));
+        assertEquals(99, bookingService.getAvailableSpots("breakfast"));
+    }
+    
+    private int bookConcurrently(int attempts, IntFunction<String> studentId) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Boolean>> results = new ArrayList<>();
+        for (int i = 0; i < attempts; i++) {
+            String student = studentId.apply(i);
+            results.add(executor.submit(() -> {
+                start.await();
+                try {
+                    bookingService.bookMeal(new MealBookingRequest(student, "lunch"));
+                    return true;
+                } catch (IllegalStateException e) {
+                    return false;
+                }
+            }));
+        }
+        start.countDown();
+        int succeeded = 0;
+        for (Future<Boolean> result : results) {
+            if (result.get()) {
+                succeeded++;
+            }
+        }
+        executor.shutdown();
+        return succeeded;
+    }
+}
@@ -0,0 +1,234 @@
+package refeicoes;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Field;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+public class BookingJournalTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void testRestartRestoresReservations() {
+        Reservation booked;
+        Reservation checkedIn;
+        Reservation cancelled;
+        try (BookingJournal journal = new BookingJournal(dir)) {
+            MealsBookingService service = new MealsBookingService(journal);
+            service.setShiftCapacity("lunch", 3);
+            booked = service.bookMeal(new MealBookingRequest("student1", "lunch"));
+            checkedIn = service.bookMeal(new MealBookingRequest("student2", "lunch"));
+            cancelled = service.bookMeal(new MealBookingRequest("student3", "lunch"));
+            service.checkIn(checkedIn.getToken());
+            service.cancelReservation(cancelled.getToken());
+        }
+
+        try (BookingJournal journal = new BookingJournal(dir)) {
+            MealsBookingService service = new MealsBookingService(journal);
+            service.setShiftCapacity("lunch", 3);
+
+            Reservation restored = service.getReservation(booked.getToken()).orElseThrow();
+            assertEquals("student1", restored.getStudentId());
+            assertEquals(booked.getReservationTime(), restored.getReservationTime());
+            assertTrue(service.verifyReservation(booked.getToken()));
+            assertTrue(service.getReservation(checkedIn.getToken()).orElseThrow().isUsed());
+            assertTrue(service.getReservation(cancelled.getToken()).orElseThrow().isCancelled());
+            assertEquals(2, service.getAvailableSpots("lunch"));
+
+            assertThrows(IllegalStateException.class, () -> {
+                service.bookMeal(new MealBookingRequest("student1", "lunch"));
+            });
+            assertNotNull(service.bookMeal(new MealBookingRequest("student3", "lunch")));
+        }
+    }
+
+    @Test
+    void testCompactReplacesOldJournalsWithSnapshot() throws IOException {
+        Reservation first;
+        Reservation second;
+        try (BookingJournal journal = new BookingJournal(dir)) {
+            MealsBookingService service = new MealsBookingService(journal);
+            first = service.bookMeal(new MealBookingRequest("student1", "lunch"));
+            service.checkIn(first.getToken());
+            journal.compact();
+            second = service.bookMeal(new MealBookingRequest("student2", "dinner"));
+            service.cancelReservation(second.getToken());
+        }
+
+        assertTrue(Files.exists(dir.resolve("snapshot.bin")));
+        assertEquals(1, journalFiles().size());
+
+        try (BookingJournal journal = new BookingJournal(dir)) {
+            MealsBookingService service = new MealsBookingService(journal);
+            assertTrue(service.getReservation(first.getToken()).orElseThrow().isUsed());
+            assertTrue(service.getReservation(second.getToken()).orElseThrow().isCancelled());
+            assertEquals(100, service.getAvailableSpots("dinner"));
+        }
+    }
+
+    @Test
+    void testFlusherCompactsOnceThresholdIsReached() throws Exception {
+        try (BookingJournal journal = new BookingJournal(dir, 1, 256)) {
+            MealsBookingService service = new MealsBookingService(journal);
+            for (int i = 0; i < 20; i++) {
+                service.bookMeal(new MealBookingRequest("student" + i, "lunch"));
+            }
+            long deadline = System.currentTimeMillis() + 5000;
+            while (!Files.exists(dir.resolve("snapshot.bin")) && System.currentTimeMillis() < deadline) {
+                Thread.sleep(5);
+            }
+        }
+
+        assertTrue(Files.exists(dir.resolve("snapshot.bin")));
+        try (BookingJournal journal = new BookingJournal(dir)) {
+            assertEquals(20, journal.replay().size());
+        }
+    }
+
+    @Test
+    void testSyncMakesEventsDurableWithoutClose() {
+        BookingJournal journal = new BookingJournal(dir, 60_000, Long.MAX_VALUE);
+        MealsBookingService service = new MealsBookingService(journal);
+        Reservation reservation = service.bookMeal(new MealBookingRequest("student1", "lunch"));
+        journal.sync();
+        journal.sync();
+
+        try (BookingJournal reopened = new BookingJournal(dir)) {
+            assertTrue(reopened.replay().containsKey(reservation.getToken()));
+        }
+        journal.close();
+    }
+
+    @Test
+    void testTornTailIsIgnored() throws IOException {
+        Reservation reservation;
+        try (BookingJournal journal = new BookingJournal(dir)) {
+            reservation = new MealsBookingService(journal)
+                .bookMeal(new MealBookingRequest("student1", "lunch"));
+        }
+        Files.write(journalFiles().get(0), new byte[] {0, 0, 0, 40, 1, 2, 3, 4, 5}, StandardOpenOption.APPEND);
+
+        try (BookingJournal journal = new BookingJournal(dir)) {
+            assertEquals(List.of(reservation.getToken()), List.copyOf(journal.replay().keySet()));
+        }
+    }
+
+    @Test
+    void testRecordWithBadChecksumStopsReplay() throws IOException {
+        try (BookingJournal journal = new BookingJournal(dir)) {
+            new MealsBookingService(journal).bookMeal(new MealBookingRequest("student1", "lunch"));
+        }
+        Path file = journalFiles().get(0);
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[bytes.length - 1] ^= 0x7F;
+        Files.write(file, bytes);
+
+        try (BookingJournal journal = new BookingJournal(dir)) {
+            assertTrue(journal.replay().isEmpty());
+        }
+    }
+
+    @Test
+    void testCorruptSnapshotIsRejected() throws IOException {
+        try (BookingJournal journal = new BookingJournal(dir)) {
+            new MealsBookingService(journal).bookMeal(new MealBookingRequest("student1", "lunch"));
+            journal.compact();
+        }
+        Path snapshot = dir.resolve("snapshot.bin");
+        byte[] bytes = Files.readAllBytes(snapshot);
+        bytes[20] ^= 0x7F;
+        Files.write(snapshot, bytes);
+
+        try (BookingJournal journal = new BookingJournal(dir)) {
+            assertThrows(IllegalStateException.class, journal::replay);
+        }
+    }
+
+    @Test
+    void testUnknownSnapshotFormatIsRejected() throws IOException {
+        Files.write(dir.resolve("snapshot.bin"), new byte[] {1, 2, 3, 4, 5, 6, 7, 8});
+
+        try (BookingJournal journal = new BookingJournal(dir)) {
+            assertThrows(IllegalStateException.class, journal::replay);
+        }
+    }
+
+    @Test
+    void testCompactWithoutServiceDoesNothing() throws IOException {
+        try (BookingJournal journal = new BookingJournal(dir)) {
+            journal.compact();
+        }
+
+        assertFalse(Files.exists(dir.resolve("snapshot.bin")));
+    }
+
+    @Test
+    void testFailedWriteRefusesChangesAndKeepsQueuedEvents() throws Exception {
+        BookingJournal journal = new BookingJournal(dir, 60_000, Long.MAX_VALUE);
+        MealsBookingService service = new MealsBookingService(journal);
+        service.setShiftCapacity("lunch", 2);
+        Reservation queued = service.bookMeal(new MealBookingRequest("student1", "lunch"));
+
+        // Break the journal file under the queued booking
+        Field channelField = BookingJournal.class.getDeclaredField("channel");
+        channelField.setAccessible(true);
+        FileChannel channel = (FileChannel) channelField.get(journal);
+        channel.close();
+        assertThrows(UncheckedIOException.class, journal::sync);
+
+        // Nothing changes in memory while the journal cannot record it
+        assertThrows(IllegalStateException.class, () -> {
+            service.bookMeal(new MealBookingRequest("student2", "lunch"));
+        });
+        assertThrows(IllegalStateException.class, () -> service.checkIn(queued.getToken()));
+        assertThrows(IllegalStateException.class, () -> service.cancelReservation(queued.getToken()));
+        assertEquals(1, service.getAvailableSpots("lunch"));
+        assertTrue(service.verifyReservation(queued.getToken()));
+
+        // Once writes work again the kept batch reaches disk and bookings resume
+        channelField.set(journal, FileChannel.open(allJournalFiles().get(0), StandardOpenOption.WRITE));
+        journal.sync();
+        assertNotNull(service.bookMeal(new MealBookingRequest("student2", "lunch")));
+        journal.close();
+
+        try (BookingJournal reopened = new BookingJournal(dir)) {
+            assertEquals(2, reopened.replay().size());
+            assertTrue(reopened.replay().containsKey(queued.getToken()));
+        }
+    }
+
+    private List<Path> allJournalFiles() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(path -> path.getFileName().toString().startsWith("journal-"))
+                .sorted()
+                .collect(Collectors.toList());
+        }
+    }
+
+    private List<Path> journalFiles() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(path -> path.getFileName().toString().startsWith("journal-"))
+                .filter(path -> {
+                    try {
+                        return Files.size(path) > 0;
+                    } catch (IOException e) {
+                        throw new RuntimeException(e);
+                    }
+                })
+                .sorted()
+                .collect(Collectors.toList());
+        }
+    }
+}
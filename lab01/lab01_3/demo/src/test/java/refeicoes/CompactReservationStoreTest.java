@@ -0,0 +1,167 @@
+package refeicoes;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+public class CompactReservationStoreTest {
+    private CompactReservationStore store;
+
+    @TempDir
+    Path dir;
+
+    @BeforeEach
+    void setUp() {
+        store = new CompactReservationStore(16);
+    }
+
+    @Test
+    void testAddedReservationCanBeFoundByToken() {
+        Reservation reservation = store.add("student123", "lunch");
+
+        Reservation found = store.find(reservation.getToken());
+
+        assertNotNull(found);
+        assertEquals(13, found.getToken().length());
+        assertEquals(reservation.getToken(), found.getToken());
+        assertEquals("student123", found.getStudentId());
+        assertEquals("lunch", found.getServiceShift());
+        assertNotNull(found.getReservationTime());
+        assertFalse(found.isUsed());
+        assertFalse(found.isCancelled());
+    }
+
+    @Test
+    void testUnknownOrMalformedTokensAreNotFound() {
+        store.add("student123", "lunch");
+
+        assertNull(store.find(null));
+        assertNull(store.find("abc"));
+        assertNull(store.find("0000000000000"));
+        assertNull(store.find("000000000000u"));
+        assertNull(store.find("00000000000é0"));
+        assertNull(store.find("z000000000000"));
+        assertNull(store.find(TokenGenerator.format(42)));
+    }
+
+    @Test
+    void testTransitionsOnlyApplyToActiveReservations() {
+        Reservation used = store.add("student1", "lunch");
+        Reservation cancelled = store.add("student2", "lunch");
+
+        assertTrue(store.markAsUsed(used));
+        assertFalse(store.markAsUsed(used));
+        assertFalse(store.cancel(used));
+        assertTrue(store.cancel(cancelled));
+        assertFalse(store.markAsUsed(cancelled));
+
+        assertTrue(store.find(used.getToken()).isUsed());
+        assertTrue(store.find(cancelled.getToken()).isCancelled());
+        assertFalse(store.find(cancelled.getToken()).isUsed());
+    }
+
+    @Test
+    void testViewMutatorsWriteThroughToStore() {
+        Reservation first = store.add("student1", "lunch");
+        Reservation second = store.add("student2", "dinner");
+
+        first.markAsUsed();
+        second.cancel();
+
+        assertTrue(store.find(first.getToken()).isUsed());
+        assertTrue(store.find(second.getToken()).isCancelled());
+    }
+
+    @Test
+    void testStoreGrowsPastInitialCapacity() {
+        List<String> tokens = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            tokens.add(store.add("student" + i, i % 2 == 0 ? "lunch" : "dinner").getToken());
+        }
+
+        assertEquals(5000, store.size());
+        assertEquals(5000, store.snapshot().size());
+        for (int i = 0; i < tokens.size(); i++) {
+            assertEquals("student" + i, store.find(tokens.get(i)).getStudentId());
+        }
+    }
+
+    @Test
+    void testRestoreInsertsOrUpdatesReservation() {
+        String token = TokenGenerator.format(0x1234_5678_9abc_def0L);
+        LocalDateTime time = LocalDateTime.of(2025, 10, 1, 12, 30, 15);
+        Reservation recovered = new Reservation(token, "student1", "lunch", time);
+
+        store.restore(recovered);
+        Reservation restored = store.find(token);
+        assertEquals("student1", restored.getStudentId());
+        assertEquals(time, restored.getReservationTime());
+        assertFalse(restored.isUsed());
+
+        recovered.markAsUsed();
+        store.restore(recovered);
+        assertTrue(store.find(token).isUsed());
+        assertEquals(1, store.size());
+    }
+
+    @Test
+    void testRestoreRejectsForeignTokens() {
+        Reservation foreign = new Reservation("a1b2c3d4", "student1", "lunch", LocalDateTime.now());
+
+        assertThrows(IllegalArgumentException.class, () -> store.restore(foreign));
+    }
+
+    @Test
+    void testTokenClashesAreRetried() {
+        long[] sequence = {5, 5, 7};
+        int[] next = {0};
+        CompactReservationStore clashing = new CompactReservationStore(16, () -> sequence[next[0]++]);
+
+        Reservation first = clashing.add("student1", "lunch");
+        Reservation second = clashing.add("student2", "lunch");
+
+        assertEquals(TokenGenerator.format(5), first.getToken());
+        assertEquals(TokenGenerator.format(7), second.getToken());
+    }
+
+    @Test
+    void testBookingServiceRunsOnCompactStore() {
+        MealsBookingService service = new MealsBookingService(new CompactReservationStore(), null);
+        service.setShiftCapacity("lunch", 2);
+
+        Reservation reservation = service.bookMeal(new MealBookingRequest("student1", "lunch"));
+        service.bookMeal(new MealBookingRequest("student2", "lunch"));
+
+        assertTrue(service.verifyReservation(reservation.getToken()));
+        assertThrows(IllegalStateException.class, () -> {
+            service.bookMeal(new MealBookingRequest("student3", "lunch"));
+        });
+        assertTrue(service.checkIn(reservation.getToken()));
+        assertFalse(service.checkIn(reservation.getToken()));
+        assertTrue(reservation.isUsed());
+        assertEquals(1, service.getAvailableSpots("lunch"));
+    }
+
+    @Test
+    void testCompactStoreSurvivesRestartThroughJournal() {
+        Reservation reservation;
+        try (BookingJournal journal = new BookingJournal(dir)) {
+            MealsBookingService service = new MealsBookingService(new CompactReservationStore(), journal);
+            reservation = service.bookMeal(new MealBookingRequest("student1", "lunch"));
+            service.cancelReservation(reservation.getToken());
+            journal.compact();
+        }
+
+        try (BookingJournal journal = new BookingJournal(dir)) {
+            MealsBookingService service = new MealsBookingService(new CompactReservationStore(), journal);
+            assertTrue(service.getReservation(reservation.getToken()).orElseThrow().isCancelled());
+            assertNotNull(service.bookMeal(new MealBookingRequest("student1", "lunch")));
+        }
+    }
+}
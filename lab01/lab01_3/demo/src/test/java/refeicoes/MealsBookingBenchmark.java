@@ -0,0 +1,70 @@
+package refeicoes;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Booking throughput at 1, 8 and 32 threads.
+ * Run with: mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=refeicoes.MealsBookingBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MealsBookingBenchmark {
+    private static final String[] SHIFTS = {"lunch", "dinner"};
+    
+    private final AtomicLong studentIds = new AtomicLong();
+    private MealsBookingService service;
+    private SeatAllocator seats;
+    
+    @Setup(Level.Iteration)
+    public void setUp() {
+        service = new MealsBookingService();
+        for (String shift : SHIFTS) {
+            service.setShiftCapacity(shift, Integer.MAX_VALUE);
+        }
+        seats = new SeatAllocator(Integer.MAX_VALUE);
+    }
+    
+    @Benchmark
+    public Reservation bookMeal() {
+        long id = studentIds.incrementAndGet();
+        return service.bookMeal(new MealBookingRequest("student" + id, SHIFTS[(int) (id & 1)]));
+    }
+    
+    @Benchmark
+    public boolean acquireAndReleaseSeat() {
+        boolean acquired = seats.tryAcquire();
+        seats.release();
+        return acquired;
+    }
+    
+    public static void main(String[] args) throws RunnerException {
+        for (int threads : new int[] {1, 8, 32}) {
+            Options options = new OptionsBuilder()
+                .include(MealsBookingBenchmark.class.getSimpleName())
+                .threads(threads)
+                .build();
+            new Runner(options).run();
+        }
+    }
+}
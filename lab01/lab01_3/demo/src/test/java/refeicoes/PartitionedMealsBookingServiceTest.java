@@ -0,0 +1,187 @@
+package refeicoes;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class PartitionedMealsBookingServiceTest {
+    private PartitionedMealsBookingService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new PartitionedMealsBookingService();
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.close();
+    }
+
+    @Test
+    void testBookingCanBeVerifiedAndCheckedIn() {
+        Reservation reservation = service.bookMeal(new MealBookingRequest("student123", "lunch"));
+
+        assertEquals(13, reservation.getToken().length());
+        assertEquals(reservation.getStudentId(), service.getReservation(reservation.getToken()).orElseThrow().getStudentId());
+        assertTrue(service.verifyReservation(reservation.getToken()));
+        assertEquals(99, service.getAvailableSpots("lunch"));
+
+        assertTrue(service.checkIn(reservation.getToken()));
+        assertFalse(service.checkIn(reservation.getToken()));
+        assertFalse(service.cancelReservation(reservation.getToken()));
+        assertFalse(service.verifyReservation(reservation.getToken()));
+        assertTrue(service.getReservation(reservation.getToken()).orElseThrow().isUsed());
+        assertEquals(100, service.getAvailableSpots("lunch"));
+    }
+
+    @Test
+    void testCancelFreesSpotAndAllowsRebooking() {
+        Reservation reservation = service.bookMeal(new MealBookingRequest("student123", "lunch"));
+
+        assertThrows(IllegalStateException.class, () -> {
+            service.bookMeal(new MealBookingRequest("student123", "lunch"));
+        });
+        assertTrue(service.cancelReservation(reservation.getToken()));
+        assertFalse(service.cancelReservation(reservation.getToken()));
+        assertFalse(service.checkIn(reservation.getToken()));
+        assertTrue(service.getReservation(reservation.getToken()).orElseThrow().isCancelled());
+        assertEquals(100, service.getAvailableSpots("lunch"));
+        assertNotNull(service.bookMeal(new MealBookingRequest("student123", "lunch")));
+    }
+
+    @Test
+    void testUnknownTokensAndShifts() {
+        assertTrue(service.getReservation("unknown").isEmpty());
+        assertFalse(service.verifyReservation("unknown"));
+        assertFalse(service.checkIn("unknown"));
+        assertFalse(service.cancelReservation("unknown"));
+        assertEquals(100, service.getAvailableSpots("dinner"));
+        assertThrows(IllegalArgumentException.class, () -> {
+            service.bookMeal(new MealBookingRequest("student123", "breakfast"));
+        });
+        assertThrows(IllegalArgumentException.class, () -> {
+            service.setShiftCapacity("breakfast", 10);
+        });
+        assertThrows(IllegalArgumentException.class, () -> {
+            service.getAvailableSpots("breakfast");
+        });
+    }
+
+    @Test
+    void testReadsReturnSnapshots() {
+        Reservation booked = service.bookMeal(new MealBookingRequest("student123", "lunch"));
+        Reservation before = service.getReservation(booked.getToken()).orElseThrow();
+
+        assertTrue(service.checkIn(booked.getToken()));
+
+        assertNotSame(before, service.getReservation(booked.getToken()).orElseThrow());
+        assertFalse(booked.isUsed());
+        assertFalse(before.isUsed());
+        assertTrue(service.getReservation(booked.getToken()).orElseThrow().isUsed());
+    }
+
+    @Test
+    void testInvalidRequestsAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> {
+            service.bookMeal(new MealBookingRequest(null, "lunch"));
+        });
+        assertThrows(IllegalArgumentException.class, () -> {
+            service.bookMeal(new MealBookingRequest(" ", "lunch"));
+        });
+        assertThrows(IllegalArgumentException.class, () -> {
+            service.bookMeal(new MealBookingRequest("student123", null));
+        });
+        assertThrows(IllegalArgumentException.class, () -> {
+            service.bookMeal(new MealBookingRequest("student123", ""));
+        });
+    }
+
+    @Test
+    void testShiftsHaveIndependentCapacity() {
+        service.setShiftCapacity("lunch", 1);
+        service.setShiftCapacity("dinner", 2);
+
+        service.bookMeal(new MealBookingRequest("student1", "lunch"));
+        service.bookMeal(new MealBookingRequest("student1", "dinner"));
+
+        assertThrows(IllegalStateException.class, () -> {
+            service.bookMeal(new MealBookingRequest("student2", "lunch"));
+        });
+        assertNotNull(service.bookMeal(new MealBookingRequest("student2", "dinner")));
+        assertEquals(0, service.getAvailableSpots("lunch"));
+        assertEquals(0, service.getAvailableSpots("dinner"));
+    }
+
+    @Test
+    void testLoweringCapacityBelowUsedReportsNoSpots() {
+        service.bookMeal(new MealBookingRequest("student1", "lunch"));
+        service.bookMeal(new MealBookingRequest("student2", "lunch"));
+
+        service.setShiftCapacity("lunch", 1);
+
+        assertEquals(0, service.getAvailableSpots("lunch"));
+    }
+
+    @Test
+    void testConcurrentBookingsAcrossShiftsNeverOversell() throws Exception {
+        String[] shifts = {"breakfast", "lunch", "dinner", "supper"};
+        service.close();
+        service = new PartitionedMealsBookingService(Arrays.asList(shifts));
+        for (String shift : shifts) {
+            service.setShiftCapacity(shift, 50);
+        }
+        AtomicInteger booked = new AtomicInteger();
+        ExecutorService clients = Executors.newFixedThreadPool(16);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < 800; i++) {
+                String studentId = "student" + i;
+                String shift = shifts[i % shifts.length];
+                futures.add(clients.submit(() -> {
+                    try {
+                        service.bookMeal(new MealBookingRequest(studentId, shift));
+                        booked.incrementAndGet();
+                    } catch (IllegalStateException e) {
+                        // shift full
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            clients.shutdown();
+        }
+
+        assertEquals(200, booked.get());
+        for (String shift : shifts) {
+            assertEquals(0, service.getAvailableSpots(shift));
+        }
+    }
+
+    @Test
+    void testClosedServiceRejectsWrites() {
+        Reservation reservation = service.bookMeal(new MealBookingRequest("student1", "lunch"));
+        service.close();
+
+        assertThrows(IllegalStateException.class, () -> {
+            service.bookMeal(new MealBookingRequest("student2", "lunch"));
+        });
+        assertThrows(IllegalStateException.class, () -> {
+            service.checkIn(reservation.getToken());
+        });
+        assertThrows(IllegalStateException.class, () -> {
+            service.setShiftCapacity("dinner", 10);
+        });
+        assertTrue(service.verifyReservation(reservation.getToken()));
+    }
+}
@@ -0,0 +1,42 @@
+package refeicoes;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SeatAllocatorTest {
+    
+    @Test
+    void testAcquireUpToCapacity() {
+        SeatAllocator seats = new SeatAllocator(2);
+        
+        assertTrue(seats.tryAcquire());
+        assertTrue(seats.tryAcquire());
+        assertFalse(seats.tryAcquire());
+        assertEquals(0, seats.getAvailable());
+    }
+    
+    @Test
+    void testReleaseNeverGoesBelowZero() {
+        SeatAllocator seats = new SeatAllocator(2);
+        
+        seats.release();
+        assertEquals(2, seats.getAvailable());
+        
+        seats.tryAcquire();
+        seats.release();
+        seats.release();
+        assertEquals(2, seats.getAvailable());
+    }
+    
+    @Test
+    void testShrinkingCapacityBelowUsedReportsNoSpots() {
+        SeatAllocator seats = new SeatAllocator(3);
+        seats.tryAcquire();
+        seats.tryAcquire();
+        
+        seats.setCapacity(1);
+        
+        assertEquals(0, seats.getAvailable());
+        assertFalse(seats.tryAcquire());
+    }
+}
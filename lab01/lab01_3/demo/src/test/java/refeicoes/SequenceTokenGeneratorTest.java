@@ -0,0 +1,95 @@
+package refeicoes;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.example.bookingtokens.KeyedTokenSequence;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+public class SequenceTokenGeneratorTest {
+    
+    @Test
+    void testTokensAreUniqueAcrossThreads() throws Exception {
+        SequenceTokenGenerator generator = new SequenceTokenGenerator();
+        Set<Long> tokens = ConcurrentHashMap.newKeySet();
+        
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        for (int t = 0; t < 8; t++) {
+            executor.submit(() -> {
+                for (int i = 0; i < 50_000; i++) {
+                    tokens.add(generator.nextToken());
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+        
+        assertEquals(400_000, tokens.size());
+        assertFalse(tokens.contains(0L));
+    }
+    
+    @Test
+    void testExhaustedThreadSequenceMovesToFreshPrefix() {
+        SequenceTokenGenerator generator = new SequenceTokenGenerator(42, 43, 3);
+        Set<Long> tokens = new HashSet<>();
+        
+        for (int i = 0; i < 1000; i++) {
+            tokens.add(generator.nextToken());
+        }
+        
+        assertEquals(1000, tokens.size());
+    }
+    
+    @Test
+    void testSipHashMatchesReferenceVector() {
+        // Key 00..0f and message 00..07 from the SipHash paper's test vectors
+        long k0 = 0x0706050403020100L;
+        long k1 = 0x0f0e0d0c0b0a0908L;
+        
+        assertEquals(0x93f5f5799a932462L, KeyedTokenSequence.sipHash24(k0, k1, 0x0706050403020100L));
+    }
+    
+    @Test
+    void testTokensDependOnTheSecretKey() {
+        // Same prefixes and counters, keys one bit apart: no token in common
+        SequenceTokenGenerator first = new SequenceTokenGenerator(1, 2, 40);
+        SequenceTokenGenerator second = new SequenceTokenGenerator(1, 3, 40);
+        Set<Long> tokens = new HashSet<>();
+        
+        for (int i = 0; i < 1000; i++) {
+            tokens.add(first.nextToken());
+            tokens.add(second.nextToken());
+        }
+        
+        assertEquals(2000, tokens.size());
+    }
+    
+    @Test
+    void testTokenStringsAreThirteenBase32Characters() {
+        String token = new SequenceTokenGenerator().nextTokenString();
+        
+        assertTrue(token.matches("[0-9a-hjkmnp-tv-z]{13}"), token);
+    }
+    
+    @Test
+    void testFormatAndParseRoundTrip() {
+        for (long value : new long[] {1, -1, Long.MIN_VALUE, Long.MAX_VALUE, 0x0123_4567_89ab_cdefL}) {
+            assertEquals(value, TokenGenerator.parse(TokenGenerator.format(value)));
+        }
+    }
+    
+    @Test
+    void testParseRejectsMalformedTokens() {
+        assertEquals(0, TokenGenerator.parse(null));
+        assertEquals(0, TokenGenerator.parse("abc"));
+        assertEquals(0, TokenGenerator.parse("000000000000u"));
+        assertEquals(0, TokenGenerator.parse("00000000000é0"));
+        assertEquals(0, TokenGenerator.parse("z000000000000"));
+    }
+}
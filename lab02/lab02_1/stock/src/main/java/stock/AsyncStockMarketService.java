@@ -0,0 +1,9 @@
+package stock;
+
+import java.util.concurrent.CompletableFuture;
+
+// Variante assíncrona do serviço de mercado: a cotação chega quando o futuro completar
+public interface AsyncStockMarketService {
+
+    CompletableFuture<Double> getPriceAsync(String symbol);
+}
@@ -0,0 +1,79 @@
+package stock;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Torna assíncrono um serviço de mercado bloqueante: cada cotação é pedida numa virtual
+ * thread, com no máximo maxConcurrency pedidos em simultâneo ao serviço e um tempo
+ * limite por pedido (contado a partir do momento em que o pedido arranca, não da espera
+ * na fila). Um pedido que exceda o limite completa com TimeoutException e a sua thread
+ * é interrompida.
+ */
+public class BoundedAsyncQuoteFetcher implements AsyncStockMarketService, AutoCloseable {
+    private final IStockMarketService market;
+    private final Semaphore permits;
+    private final long timeoutNanos;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    public BoundedAsyncQuoteFetcher(IStockMarketService market, int maxConcurrency, Duration timeout) {
+        if (market == null) {
+            throw new IllegalArgumentException("StockMarketService cannot be null");
+        }
+        if (maxConcurrency <= 0) {
+            throw new IllegalArgumentException("maxConcurrency must be positive");
+        }
+        if (timeout.isNegative() || timeout.isZero()) {
+            throw new IllegalArgumentException("timeout must be positive");
+        }
+        this.market = market;
+        this.permits = new Semaphore(maxConcurrency);
+        this.timeoutNanos = timeout.toNanos();
+    }
+
+    @Override
+    public CompletableFuture<Double> getPriceAsync(String symbol) {
+        CompletableFuture<Double> price = new CompletableFuture<>();
+        executor.execute(() -> fetch(symbol, price));
+        return price;
+    }
+
+    private void fetch(String symbol, CompletableFuture<Double> price) {
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            price.completeExceptionally(e);
+            return;
+        }
+        try {
+            if (price.isDone()) {
+                return; // cancelado enquanto esperava
+            }
+            Thread worker = Thread.currentThread();
+            price.orTimeout(timeoutNanos, TimeUnit.NANOSECONDS)
+                    .whenComplete((value, error) -> {
+                        // timeout ou cancelamento: não vale a pena continuar à espera do serviço
+                        if (error != null) {
+                            worker.interrupt();
+                        }
+                    });
+            price.complete(market.getPrice(symbol));
+        } catch (RuntimeException | Error e) {
+            price.completeExceptionally(e);
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * Deixa de aceitar pedidos e interrompe os que estão em curso
+     */
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+}
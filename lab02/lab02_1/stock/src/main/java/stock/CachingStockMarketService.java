@@ -0,0 +1,203 @@
+package stock;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.LongSupplier;
+
+/**
+ * Decorador de cache para o serviço de mercado.
+ *
+ * - Cada símbolo expira ao fim do seu TTL (o TTL por omissão pode ser alterado por símbolo).
+ * - Pedidos concorrentes para o mesmo símbolo em falta partilham uma única chamada ao serviço;
+ *   em {@link #getPrices} os símbolos em falta seguem para o serviço num só lote.
+ * - Depois de expirar, a cotação antiga continua a ser devolvida durante a janela
+ *   "stale-while-revalidate" enquanto é atualizada em segundo plano.
+ */
+public class CachingStockMarketService implements IStockMarketService {
+    private final IStockMarketService upstream;
+    private final long ttlNanos;
+    private final long staleNanos;
+    private final LongSupplier nanoClock;
+    private final Executor refresher;
+
+    private final Map<String, Long> ttlBySymbol = new ConcurrentHashMap<>();
+    private final Map<String, Quote> quotes = new ConcurrentHashMap<>();
+    private final Map<String, CompletableFuture<Double>> inFlight = new ConcurrentHashMap<>();
+
+    public CachingStockMarketService(IStockMarketService upstream, Duration ttl, Duration staleWhileRevalidate) {
+        this(upstream, ttl, staleWhileRevalidate, System::nanoTime, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Construtor com relógio e executor injetáveis (usado nos testes)
+     */
+    public CachingStockMarketService(IStockMarketService upstream, Duration ttl, Duration staleWhileRevalidate,
+                                     LongSupplier nanoClock, Executor refresher) {
+        if (upstream == null) {
+            throw new IllegalArgumentException("StockMarketService cannot be null");
+        }
+        if (ttl.isNegative() || staleWhileRevalidate.isNegative()) {
+            throw new IllegalArgumentException("Durations cannot be negative");
+        }
+        this.upstream = upstream;
+        this.ttlNanos = ttl.toNanos();
+        this.staleNanos = staleWhileRevalidate.toNanos();
+        this.nanoClock = nanoClock;
+        this.refresher = refresher;
+    }
+
+    /**
+     * Define um TTL próprio para um símbolo (por exemplo, mais curto para ações voláteis)
+     */
+    public void setTtl(String symbol, Duration ttl) {
+        if (ttl.isNegative()) {
+            throw new IllegalArgumentException("Durations cannot be negative");
+        }
+        ttlBySymbol.put(symbol, ttl.toNanos());
+    }
+
+    @Override
+    public double getPrice(String symbol) {
+        Double cached = cachedPrice(symbol);
+        if (cached != null) {
+            return cached;
+        }
+        CompletableFuture<Double> mine = new CompletableFuture<>();
+        CompletableFuture<Double> running = inFlight.putIfAbsent(symbol, mine);
+        if (running == null) {
+            load(symbol, mine);
+            running = mine;
+        }
+        return join(running);
+    }
+
+    /**
+     * Serve da cache o que puder e pede os símbolos em falta num único lote ao serviço.
+     * Símbolos que outro pedido já está a obter não são pedidos outra vez.
+     */
+    @Override
+    public Map<String, Double> getPrices(Collection<String> symbols) {
+        Map<String, Double> prices = new HashMap<>();
+        Map<String, CompletableFuture<Double>> owned = new LinkedHashMap<>();
+        Map<String, CompletableFuture<Double>> joined = new HashMap<>();
+        for (String symbol : new LinkedHashSet<>(symbols)) {
+            Double cached = cachedPrice(symbol);
+            if (cached != null) {
+                prices.put(symbol, cached);
+                continue;
+            }
+            CompletableFuture<Double> mine = new CompletableFuture<>();
+            CompletableFuture<Double> running = inFlight.putIfAbsent(symbol, mine);
+            if (running == null) {
+                owned.put(symbol, mine);
+            } else {
+                joined.put(symbol, running);
+            }
+        }
+        if (!owned.isEmpty()) {
+            loadAll(owned);
+        }
+        owned.forEach((symbol, price) -> prices.put(symbol, join(price)));
+        joined.forEach((symbol, price) -> prices.put(symbol, join(price)));
+        return prices;
+    }
+
+    /**
+     * Preço em cache se ainda servir (fresco, ou dentro da janela stale-while-revalidate),
+     * ou null se tiver de ser pedido ao serviço
+     */
+    private Double cachedPrice(String symbol) {
+        Quote quote = quotes.get(symbol);
+        if (quote == null) {
+            return null;
+        }
+        long age = nanoClock.getAsLong() - quote.fetchedAt;
+        long ttl = ttlBySymbol.getOrDefault(symbol, ttlNanos);
+        if (age < ttl) {
+            return quote.price;
+        }
+        if (age < ttl + staleNanos) {
+            refreshInBackground(symbol);
+            return quote.price;
+        }
+        return null;
+    }
+
+    private static double join(CompletableFuture<Double> price) {
+        try {
+            return price.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    private void refreshInBackground(String symbol) {
+        CompletableFuture<Double> mine = new CompletableFuture<>();
+        if (inFlight.putIfAbsent(symbol, mine) != null) {
+            return; // já há uma atualização em curso
+        }
+        try {
+            refresher.execute(() -> load(symbol, mine));
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(symbol, mine);
+            mine.completeExceptionally(e);
+        }
+    }
+
+    private void load(String symbol, CompletableFuture<Double> result) {
+        try {
+            double price = upstream.getPrice(symbol);
+            quotes.put(symbol, new Quote(price, nanoClock.getAsLong()));
+            result.complete(price);
+        } catch (RuntimeException | Error e) {
+            // numa atualização em segundo plano a cotação antiga mantém-se até sair da janela
+            result.completeExceptionally(e);
+        } finally {
+            inFlight.remove(symbol, result);
+        }
+    }
+
+    private void loadAll(Map<String, CompletableFuture<Double>> owned) {
+        try {
+            Map<String, Double> prices = upstream.getPrices(List.copyOf(owned.keySet()));
+            long now = nanoClock.getAsLong();
+            owned.forEach((symbol, result) -> {
+                Double price = prices.get(symbol);
+                if (price == null) {
+                    result.completeExceptionally(new IllegalStateException("No price for symbol " + symbol));
+                } else {
+                    quotes.put(symbol, new Quote(price, now));
+                    result.complete(price);
+                }
+            });
+        } catch (RuntimeException | Error e) {
+            owned.values().forEach(result -> result.completeExceptionally(e));
+        } finally {
+            owned.forEach(inFlight::remove);
+        }
+    }
+
+    private static final class Quote {
+        private final double price;
+        private final long fetchedAt;
+
+        Quote(double price, long fetchedAt) {
+            this.price = price;
+            this.fetchedAt = fetchedAt;
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package stock;
+
+/**
+ * O que fazer numa valorização assíncrona quando a cotação de um símbolo falha
+ */
+public enum FailedQuotePolicy {
+    // a valorização falha com o primeiro erro, e os pedidos que faltam são cancelados
+    FAIL,
+    // as posições sem cotação ficam de fora do total e são indicadas no resultado
+    SKIP
+}
@@ -1,7 +1,23 @@
 package stock;
 
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
 // Interface para o serviço de mercado de ações
 public interface IStockMarketService {
  
     double getPrice(String symbol);
+
+    /**
+     * Cotações de vários símbolos num só pedido. Serviços com uma API de consulta em lote
+     * devem reimplementar este método; por omissão consulta cada símbolo distinto uma vez.
+     */
+    default Map<String, Double> getPrices(Collection<String> symbols) {
+        Map<String, Double> prices = new HashMap<>();
+        for (String symbol : symbols) {
+            prices.computeIfAbsent(symbol, this::getPrice);
+        }
+        return prices;
+    }
 }
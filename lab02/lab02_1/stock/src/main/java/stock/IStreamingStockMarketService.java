@@ -0,0 +1,22 @@
+package stock;
+
+// Serviço de mercado que, além das consultas, envia as novas cotações à medida que mudam
+public interface IStreamingStockMarketService extends IStockMarketService {
+
+    /**
+     * Regista o listener para as atualizações de preço de um símbolo,
+     * até a subscrição devolvida ser fechada
+     */
+    Subscription subscribe(String symbol, PriceListener listener);
+
+    @FunctionalInterface
+    interface PriceListener {
+        void onPrice(String symbol, double price);
+    }
+
+    @FunctionalInterface
+    interface Subscription extends AutoCloseable {
+        @Override
+        void close();
+    }
+}
@@ -0,0 +1,216 @@
+package stock;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+
+/**
+ * Valorização de um portfólio mantida ao ritmo das cotações de um serviço em streaming.
+ * Cada tick custa O(log n): ajusta o total acumulado e reposiciona o símbolo no ranking.
+ * O total e o topo do ranking leem-se sem consultar o serviço.
+ *
+ * Todo o estado é protegido pelo monitor da instância, pelo que compras, vendas e ticks
+ * são serializados. A subscrição e a primeira cotação de um símbolo novo são pedidas fora
+ * do monitor. Os empates no ranking ficam pela ordem de chegada dos símbolos.
+ */
+final class LiveValuation implements IStreamingStockMarketService.PriceListener {
+    // de tantos em tantos ticks o total é recalculado, para não acumular erros de arredondamento
+    static final int RESYNC_TICKS = 1 << 20;
+
+    private static final Comparator<Position> BY_VALUE_DESC = Comparator
+            .comparingDouble((Position position) -> position.value).reversed()
+            .thenComparingInt(position -> position.order);
+
+    private final IStreamingStockMarketService market;
+    private final Map<String, Position> positions = new HashMap<>();
+    private final NavigableSet<Position> ranking = new TreeSet<>(BY_VALUE_DESC);
+    private final Map<String, IStreamingStockMarketService.Subscription> subscriptions = new HashMap<>();
+    private double total;
+    private int ticksSinceResync;
+    private int nextOrder;
+    private boolean closed;
+
+    LiveValuation(IStreamingStockMarketService market) {
+        this.market = market;
+    }
+
+    /**
+     * Soma a quantidade à posição do símbolo. Um símbolo novo é subscrito e recebe logo a
+     * cotação atual; se esta falhar, a posição não é criada. Quem compra um símbolo cuja
+     * primeira cotação ainda está a ser obtida espera por ela, para não somar a uma
+     * posição que pode vir a ser descartada.
+     */
+    void add(String symbol, int quantity) {
+        Position position;
+        synchronized (this) {
+            position = settled(symbol);
+            if (position != null) {
+                if (position.quantity > Integer.MAX_VALUE - quantity) {
+                    throw new IllegalArgumentException("Position cannot exceed " + Integer.MAX_VALUE + " shares");
+                }
+                update(position, position.quantity + quantity, position.price);
+                return;
+            }
+            // fica pendente até ter preço: os ticks que cheguem entretanto são guardados à parte
+            position = new Position(symbol, nextOrder++);
+            positions.put(symbol, position);
+        }
+        IStreamingStockMarketService.Subscription subscription;
+        double price;
+        try {
+            subscription = market.subscribe(symbol, this);
+            try {
+                price = market.getPrice(symbol);
+            } catch (RuntimeException e) {
+                subscription.close();
+                throw e;
+            }
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                positions.remove(symbol);
+                notifyAll();
+            }
+            throw e;
+        }
+        synchronized (this) {
+            position.pending = false;
+            notifyAll();
+            if (closed) {
+                // o close() já passou por aqui: esta subscrição nunca seria cancelada
+                subscription.close();
+            } else {
+                subscriptions.put(symbol, subscription);
+            }
+            update(position, quantity, Double.isNaN(position.pendingPrice) ? price : position.pendingPrice);
+        }
+    }
+
+    /**
+     * Retira a quantidade à posição do símbolo; a posição que chega a zero deixa o
+     * ranking e a sua subscrição é cancelada
+     */
+    synchronized void remove(String symbol, int quantity) {
+        Position position = settled(symbol);
+        if (position == null) {
+            return;
+        }
+        long remaining = position.quantity - quantity;
+        if (remaining > 0) {
+            update(position, remaining, position.price);
+            return;
+        }
+        update(position, 0, Double.NaN);
+        positions.remove(symbol);
+        IStreamingStockMarketService.Subscription subscription = subscriptions.remove(symbol);
+        if (subscription != null) {
+            subscription.close();
+        }
+    }
+
+    @Override
+    public synchronized void onPrice(String symbol, double price) {
+        Position position = positions.get(symbol);
+        if (position == null) {
+            return;
+        }
+        if (position.pending) {
+            position.pendingPrice = price;
+            return;
+        }
+        update(position, position.quantity, price);
+        if (++ticksSinceResync == RESYNC_TICKS) {
+            resync();
+        }
+    }
+
+    synchronized double total() {
+        return total;
+    }
+
+    /**
+     * As n posições mais valiosas, já agregadas por símbolo
+     */
+    synchronized List<Stock> top(int n) {
+        List<Stock> top = new ArrayList<>(Math.min(n, ranking.size()));
+        Iterator<Position> it = ranking.iterator();
+        while (top.size() < n && it.hasNext()) {
+            Position position = it.next();
+            // o add não deixa passar de Integer.MAX_VALUE
+            top.add(new Stock(position.symbol, (int) position.quantity));
+        }
+        return top;
+    }
+
+    synchronized void close() {
+        closed = true;
+        subscriptions.values().forEach(IStreamingStockMarketService.Subscription::close);
+        subscriptions.clear();
+    }
+
+    /**
+     * A posição do símbolo depois de ter a primeira cotação, ou null se não existir
+     * (ou se a primeira cotação falhou). Tem de ser chamado com o monitor adquirido.
+     */
+    private Position settled(String symbol) {
+        Position position = positions.get(symbol);
+        while (position != null && position.pending) {
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for the price of " + symbol, e);
+            }
+            position = positions.get(symbol);
+        }
+        return position;
+    }
+
+    private void update(Position position, long quantity, double price) {
+        if (position.isPriced()) {
+            ranking.remove(position);
+            total -= position.value;
+        }
+        position.quantity = quantity;
+        position.price = price;
+        if (position.isPriced()) {
+            position.value = price * quantity;
+            total += position.value;
+            ranking.add(position);
+        }
+    }
+
+    private void resync() {
+        double exact = 0.0;
+        for (Position position : ranking) {
+            exact += position.value;
+        }
+        total = exact;
+        ticksSinceResync = 0;
+    }
+
+    private static final class Position {
+        private final String symbol;
+        // ordem de chegada do símbolo, para desempatar no ranking
+        private final int order;
+        private long quantity;
+        private double price = Double.NaN;
+        private double value;
+        // sem preço ainda: fora do ranking e do total, à espera da primeira cotação
+        private boolean pending = true;
+        private double pendingPrice = Double.NaN;
+
+        Position(String symbol, int order) {
+            this.symbol = symbol;
+            this.order = order;
+        }
+
+        boolean isPriced() {
+            return !Double.isNaN(price);
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package stock;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Resultado de uma valorização assíncrona: o total das posições com cotação e, para
+ * cada símbolo que ficou de fora, o erro que o impediu
+ */
+public class PortfolioValuation {
+    private final double total;
+    private final Map<String, Throwable> failures;
+
+    public PortfolioValuation(double total, Map<String, Throwable> failures) {
+        this.total = total;
+        this.failures = Collections.unmodifiableMap(failures);
+    }
+
+    public double getTotal() {
+        return total;
+    }
+
+    public Map<String, Throwable> getFailures() {
+        return failures;
+    }
+
+    public boolean isComplete() {
+        return failures.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("PortfolioValuation{total=%s, failed=%s}", total, failures.keySet());
+    }
+}
@@ -0,0 +1,124 @@
+package stock;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Quantidade detida por símbolo, partilhável entre threads sem locks: cada símbolo tem o
+ * seu contador atómico, atualizado com compare-and-set, pelo que operações sobre símbolos
+ * diferentes nunca se bloqueiam.
+ *
+ * As leituras usam um snapshot imutável, reconstruído só quando houve escritas desde o
+ * último; enquanto o livro não muda, ler é O(1). O snapshot lista as posições pela ordem
+ * em que cada símbolo foi comprado pela primeira vez; um símbolo vendido na totalidade e
+ * comprado de novo passa para o fim.
+ *
+ * Uma posição nunca passa de {@link Integer#MAX_VALUE} ações, o máximo de um {@link Stock}.
+ */
+final class PositionBook {
+    // marca um contador que chegou a zero e está a ser retirado do mapa
+    private static final long REMOVED = Long.MIN_VALUE;
+
+    private static final Comparator<Map.Entry<String, Counter>> BY_ARRIVAL =
+            Comparator.comparingLong(entry -> entry.getValue().arrival);
+
+    private final ConcurrentHashMap<String, Counter> quantities = new ConcurrentHashMap<>();
+    private final AtomicLong arrivals = new AtomicLong();
+    private final AtomicLong version = new AtomicLong();
+    private volatile Snapshot snapshot = new Snapshot(0, Map.of(), List.of());
+
+    void add(String symbol, long quantity) {
+        while (true) {
+            Counter counter = quantities.computeIfAbsent(symbol, s -> new Counter(arrivals.incrementAndGet()));
+            long held = counter.get();
+            if (held == REMOVED) {
+                // outra thread está a retirar este contador: ajudar e tentar com um novo
+                quantities.remove(symbol, counter);
+            } else if (held > Integer.MAX_VALUE - quantity) {
+                throw new IllegalArgumentException("Position cannot exceed " + Integer.MAX_VALUE + " shares");
+            } else if (counter.compareAndSet(held, held + quantity)) {
+                version.incrementAndGet();
+                return;
+            }
+        }
+    }
+
+    void remove(String symbol, long quantity) {
+        while (true) {
+            Counter counter = quantities.get(symbol);
+            long held = counter == null ? 0 : counter.get();
+            if (held == REMOVED || held < quantity) {
+                throw new IllegalArgumentException("Cannot remove more shares than held");
+            }
+            if (held > quantity) {
+                if (counter.compareAndSet(held, held - quantity)) {
+                    version.incrementAndGet();
+                    return;
+                }
+            } else if (counter.compareAndSet(held, REMOVED)) {
+                quantities.remove(symbol, counter);
+                version.incrementAndGet();
+                return;
+            }
+        }
+    }
+
+    long quantityOf(String symbol) {
+        Counter counter = quantities.get(symbol);
+        long held = counter == null ? 0 : counter.get();
+        return held == REMOVED ? 0 : held;
+    }
+
+    Snapshot snapshot() {
+        // a versão é lida antes dos contadores: um snapshot nunca parece mais recente do que é
+        long current = version.get();
+        Snapshot cached = snapshot;
+        if (cached.version == current) {
+            return cached;
+        }
+        List<Map.Entry<String, Counter>> entries = new ArrayList<>(quantities.entrySet());
+        entries.sort(BY_ARRIVAL);
+        Map<String, Long> held = new LinkedHashMap<>();
+        List<Stock> stocks = new ArrayList<>(entries.size());
+        for (Map.Entry<String, Counter> entry : entries) {
+            long quantity = entry.getValue().get();
+            if (quantity > 0) {
+                held.put(entry.getKey(), quantity);
+                // o add não deixa passar de Integer.MAX_VALUE
+                stocks.add(new Stock(entry.getKey(), (int) quantity));
+            }
+        }
+        Snapshot fresh = new Snapshot(current, Collections.unmodifiableMap(held), Collections.unmodifiableList(stocks));
+        snapshot = fresh;
+        return fresh;
+    }
+
+    /**
+     * Contador de um símbolo, com a ordem em que o símbolo entrou no livro
+     */
+    private static final class Counter extends AtomicLong {
+        private final long arrival;
+
+        Counter(long arrival) {
+            this.arrival = arrival;
+        }
+    }
+
+    static final class Snapshot {
+        private final long version;
+        final Map<String, Long> quantities;
+        final List<Stock> stocks;
+
+        Snapshot(long version, Map<String, Long> quantities, List<Stock> stocks) {
+            this.version = version;
+            this.quantities = quantities;
+            this.stocks = stocks;
+        }
+    }
+}
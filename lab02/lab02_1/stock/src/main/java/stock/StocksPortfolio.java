@@ -1,12 +1,35 @@
 package stock;
 
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
 
-public class StocksPortfolio {
-    private final List<Stock> stocks;
+/**
+ * Portfólio de ações. As posições são agregadas por símbolo: a valorização e o ranking
+ * contam uma posição por símbolo, com a soma das quantidades.
+ *
+ * Pode ser usado por várias threads ao mesmo tempo. As quantidades são atualizadas sem
+ * locks, e as leituras trabalham sobre um snapshot imutável das posições. Uma posição não
+ * pode passar de {@link Integer#MAX_VALUE} ações.
+ *
+ * Com um {@link IStreamingStockMarketService} o portfólio subscreve as cotações dos seus
+ * símbolos e mantém o total e o ranking atualizados a cada tick; totalValue e
+ * mostValuableStocks deixam então de consultar o serviço. Nesse caso addStock, removeStock
+ * e os ticks passam também por um único monitor, e quem compra um símbolo cuja primeira
+ * cotação ainda está a ser pedida espera por ela.
+ *
+ * Em mostValuableStocks, posições com o mesmo valor ficam pela ordem de getStocks.
+ */
+public class StocksPortfolio implements AutoCloseable {
     private final IStockMarketService stockMarketService;
+    private final PositionBook book;
+    // só com um serviço em streaming
+    private final LiveValuation live;
     
     /**
      * Construtor que aceita o serviço de mercado (Dependency Injection)
@@ -16,48 +39,188 @@ public class StocksPortfolio {
             throw new IllegalArgumentException("StockMarketService cannot be null");
         }
         
-        this.stocks = new ArrayList<>();
         this.stockMarketService = stockMarketService;
+        this.book = new PositionBook();
+        this.live = stockMarketService instanceof IStreamingStockMarketService
+                ? new LiveValuation((IStreamingStockMarketService) stockMarketService)
+                : null;
     }
     
 
+    /**
+     * Compra ações; a quantidade soma-se à posição do símbolo, que não pode passar de
+     * {@link Integer#MAX_VALUE}
+     */
     public void addStock(Stock stock) {
         if (stock == null) {
             throw new IllegalArgumentException("Stock cannot be null");
         }
-        stocks.add(stock);
+        if (live != null) {
+            live.add(stock.getSymbol(), stock.getQuantity());
+        }
+        book.add(stock.getSymbol(), stock.getQuantity());
+    }
+
+    /**
+     * Vende parte (ou a totalidade) de uma posição
+     */
+    public void removeStock(Stock stock) {
+        if (stock == null) {
+            throw new IllegalArgumentException("Stock cannot be null");
+        }
+        book.remove(stock.getSymbol(), stock.getQuantity());
+        if (live != null) {
+            live.remove(stock.getSymbol(), stock.getQuantity());
+        }
+    }
+
+    /**
+     * Quantidade detida de um símbolo (0 se não houver posição)
+     */
+    public long getQuantity(String symbol) {
+        return book.quantityOf(symbol);
     }
     
    
     public double totalValue() {
-        return stocks.stream()
-                .mapToDouble(stock -> {
-                    double price = stockMarketService.getPrice(stock.getSymbol());
-                    return price * stock.getQuantity();
-                })
-                .sum();
+        if (live != null) {
+            return live.total();
+        }
+        double[] values = valuesOf(book.snapshot());
+        double total = 0.0;
+        for (double value : values) {
+            total += value;
+        }
+        return total;
     }
     
    
     public List<Stock> mostValuableStocks(int topN) {
+        validateTopN(topN);
+        if (live != null) {
+            return live.top(topN);
+        }
+        // o valor de cada posição é calculado uma vez; só os topN maiores são ordenados
+        PositionBook.Snapshot positions = book.snapshot();
+        return positionsAt(positions, TopNSelector.select(valuesOf(positions), topN));
+    }
+
+    /**
+     * Variante paralela (fork/join) de {@link #mostValuableStocks(int)} para portfólios muito grandes
+     */
+    public List<Stock> mostValuableStocks(int topN, ForkJoinPool pool) {
+        validateTopN(topN);
+        if (live != null) {
+            return live.top(topN);
+        }
+        PositionBook.Snapshot positions = book.snapshot();
+        return positionsAt(positions, TopNSelector.select(valuesOf(positions), topN, pool));
+    }
+
+    /**
+     * Valorização assíncrona: pede ao mesmo tempo a cotação de cada símbolo e completa
+     * quando todas tiverem chegado. As cotações que falhem (ou excedam o tempo limite do
+     * serviço) são tratadas segundo a política indicada.
+     */
+    public CompletableFuture<PortfolioValuation> totalValueAsync(AsyncStockMarketService quotes,
+                                                                 FailedQuotePolicy policy) {
+        if (quotes == null || policy == null) {
+            throw new IllegalArgumentException("Quote service and policy are required");
+        }
+        Map<String, Long> positions = book.snapshot().quantities;
+        Map<String, CompletableFuture<Double>> prices = new LinkedHashMap<>();
+        for (String symbol : positions.keySet()) {
+            prices.put(symbol, quotes.getPriceAsync(symbol));
+        }
+
+        CompletableFuture<PortfolioValuation> valuation = new CompletableFuture<>();
+        if (policy == FailedQuotePolicy.FAIL) {
+            prices.values().forEach(price -> price.whenComplete((value, error) -> {
+                if (error != null && valuation.completeExceptionally(unwrap(error))) {
+                    prices.values().forEach(other -> other.cancel(true));
+                }
+            }));
+        }
+        CompletableFuture.allOf(prices.values().toArray(new CompletableFuture<?>[0]))
+                .whenComplete((ignored, error) -> {
+                    double total = 0.0;
+                    Map<String, Throwable> failures = new LinkedHashMap<>();
+                    for (Map.Entry<String, CompletableFuture<Double>> entry : prices.entrySet()) {
+                        try {
+                            total += entry.getValue().join() * positions.get(entry.getKey());
+                        } catch (CompletionException | CancellationException e) {
+                            failures.put(entry.getKey(), unwrap(e));
+                        }
+                    }
+                    valuation.complete(new PortfolioValuation(total, failures));
+                });
+        return valuation;
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+
+    /**
+     * Cancela as subscrições de cotações (só relevante com um serviço em streaming)
+     */
+    @Override
+    public void close() {
+        if (live != null) {
+            live.close();
+        }
+    }
+
+    private void validateTopN(int topN) {
         if (topN <= 0) {
             throw new IllegalArgumentException("topN must be positive");
         }
-        
-        return stocks.stream()
-                .sorted((stock1, stock2) -> {
-                    double value1 = stockMarketService.getPrice(stock1.getSymbol()) * stock1.getQuantity();
-                    double value2 = stockMarketService.getPrice(stock2.getSymbol()) * stock2.getQuantity();
-                    return Double.compare(value2, value1); // Ordem decrescente
-                })
-                .limit(topN)
-                .collect(Collectors.toList());
+    }
+
+    private List<Stock> positionsAt(PositionBook.Snapshot positions, int[] indexes) {
+        List<Stock> selected = new ArrayList<>(indexes.length);
+        for (int index : indexes) {
+            selected.add(positions.stocks.get(index));
+        }
+        return selected;
+    }
+
+    /**
+     * Valor de cada posição (preço * quantidade), pela ordem do snapshot. Os preços são
+     * pedidos ao serviço num único lote; o cálculo é feito sobre arrays primitivos, sem boxing.
+     */
+    private double[] valuesOf(PositionBook.Snapshot positions) {
+        int n = positions.stocks.size();
+        double[] values = new double[n];
+        if (n == 0) {
+            return values;
+        }
+        Map<String, Double> quotes = stockMarketService.getPrices(positions.quantities.keySet());
+
+        double[] prices = new double[n];
+        int[] quantities = new int[n];
+        for (int i = 0; i < n; i++) {
+            Stock stock = positions.stocks.get(i);
+            Double price = quotes.get(stock.getSymbol());
+            if (price == null) {
+                throw new IllegalStateException("No price for symbol " + stock.getSymbol());
+            }
+            prices[i] = price;
+            quantities[i] = stock.getQuantity();
+        }
+        for (int i = 0; i < n; i++) {
+            values[i] = prices[i] * quantities[i];
+        }
+        return values;
     }
     
     /**
-     * Retorna todas as ações do portfólio
+     * Retorna todas as posições do portfólio, uma por símbolo, pela ordem em que cada
+     * símbolo foi comprado pela primeira vez (um símbolo vendido na totalidade e comprado
+     * de novo passa para o fim). A lista é imutável e só é reconstruída depois de o
+     * portfólio mudar.
      */
     public List<Stock> getStocks() {
-        return new ArrayList<>(stocks); 
+        return book.snapshot().stocks;
     }
 }
@@ -0,0 +1,142 @@
+package stock;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Seleção dos N maiores valores sem ordenar o array inteiro: um min-heap de tamanho N
+ * percorre os valores uma única vez, em O(n log N). Em caso de empate fica à frente o
+ * índice menor, tal como numa ordenação estável: quem chama decide o desempate pela
+ * ordem em que passa os valores.
+ */
+public final class TopNSelector {
+    // abaixo deste tamanho a variante fork/join já não divide o trabalho
+    static final int SEQUENTIAL_THRESHOLD = 1 << 14;
+
+    private TopNSelector() {
+    }
+
+    /**
+     * Índices dos n maiores valores, por ordem decrescente de valor
+     */
+    public static int[] select(double[] values, int n) {
+        checkN(n);
+        return select(values, 0, values.length, n);
+    }
+
+    /**
+     * Variante fork/join: cada tarefa seleciona os n maiores do seu intervalo e os
+     * resultados parciais são fundidos dois a dois
+     */
+    public static int[] select(double[] values, int n, ForkJoinPool pool) {
+        checkN(n);
+        return pool.invoke(new SelectTask(values, 0, values.length, n));
+    }
+
+    private static void checkN(int n) {
+        if (n < 0) {
+            throw new IllegalArgumentException("n cannot be negative");
+        }
+    }
+
+    private static int[] select(double[] values, int from, int to, int n) {
+        int size = Math.min(n, to - from);
+        int[] heap = new int[size];
+        int count = 0;
+        for (int i = from; i < to; i++) {
+            if (count < size) {
+                heap[count] = i;
+                siftUp(values, heap, count++);
+            } else if (size > 0 && ranksBefore(values, i, heap[0])) {
+                heap[0] = i;
+                siftDown(values, heap, 0, size);
+            }
+        }
+        // heapsort: o pior vai sendo trocado para o fim, o que deixa o array por ordem decrescente
+        for (int end = size - 1; end > 0; end--) {
+            swap(heap, 0, end);
+            siftDown(values, heap, 0, end);
+        }
+        return heap;
+    }
+
+    private static int[] merge(double[] values, int[] left, int[] right, int n) {
+        int[] merged = new int[Math.min(n, left.length + right.length)];
+        int l = 0;
+        int r = 0;
+        for (int k = 0; k < merged.length; k++) {
+            if (r == right.length || (l < left.length && ranksBefore(values, left[l], right[r]))) {
+                merged[k] = left[l++];
+            } else {
+                merged[k] = right[r++];
+            }
+        }
+        return merged;
+    }
+
+    private static boolean ranksBefore(double[] values, int a, int b) {
+        int comparison = Double.compare(values[a], values[b]);
+        return comparison > 0 || (comparison == 0 && a < b);
+    }
+
+    // no topo do heap fica sempre o índice que ordena em último lugar
+    private static void siftUp(double[] values, int[] heap, int k) {
+        while (k > 0) {
+            int parent = (k - 1) / 2;
+            if (!ranksBefore(values, heap[parent], heap[k])) {
+                return;
+            }
+            swap(heap, parent, k);
+            k = parent;
+        }
+    }
+
+    private static void siftDown(double[] values, int[] heap, int k, int size) {
+        while (true) {
+            int child = 2 * k + 1;
+            if (child >= size) {
+                return;
+            }
+            if (child + 1 < size && ranksBefore(values, heap[child], heap[child + 1])) {
+                child++;
+            }
+            if (!ranksBefore(values, heap[k], heap[child])) {
+                return;
+            }
+            swap(heap, k, child);
+            k = child;
+        }
+    }
+
+    private static void swap(int[] heap, int i, int j) {
+        int tmp = heap[i];
+        heap[i] = heap[j];
+        heap[j] = tmp;
+    }
+
+    private static final class SelectTask extends RecursiveTask<int[]> {
+        private final double[] values;
+        private final int from;
+        private final int to;
+        private final int n;
+
+        SelectTask(double[] values, int from, int to, int n) {
+            this.values = values;
+            this.from = from;
+            this.to = to;
+            this.n = n;
+        }
+
+        @Override
+        protected int[] compute() {
+            if (to - from <= SEQUENTIAL_THRESHOLD) {
+                return select(values, from, to, n);
+            }
+            int middle = (from + to) >>> 1;
+            SelectTask left = new SelectTask(values, from, middle, n);
+            left.fork();
+            int[] right = new SelectTask(values, middle, to, n).compute();
+            return merge(values, left.join(), right, n);
+        }
+    }
+}
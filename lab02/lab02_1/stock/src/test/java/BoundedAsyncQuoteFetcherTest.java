@@ -0,0 +1,105 @@
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import org.junit.jupiter.api.Test;
+
+import stock.BoundedAsyncQuoteFetcher;
+import stock.IStockMarketService;
+
+class BoundedAsyncQuoteFetcherTest {
+
+    @Test
+    void getPriceAsync_NeverExceedsConcurrencyLimit() {
+        // Arrange - cada cotação demora 50 ms
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        IStockMarketService slowMarket = symbol -> {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                running.decrementAndGet();
+            }
+            return 100.0;
+        };
+
+        try (BoundedAsyncQuoteFetcher fetcher = new BoundedAsyncQuoteFetcher(slowMarket, 8, Duration.ofSeconds(5))) {
+            // Act
+            long start = System.nanoTime();
+            List<CompletableFuture<Double>> prices = new ArrayList<>();
+            for (int i = 0; i < 40; i++) {
+                prices.add(fetcher.getPriceAsync("S" + i));
+            }
+            CompletableFuture.allOf(prices.toArray(new CompletableFuture<?>[0])).join();
+            long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+            // Assert - 40 pedidos em lotes de 8: ~250 ms, em vez de 2 s em série
+            assertThat(maxRunning.get()).isLessThanOrEqualTo(8);
+            assertThat(elapsedMillis).isLessThan(1500);
+            assertThat(prices).allSatisfy(price -> assertThat(price.join()).isEqualTo(100.0));
+        }
+    }
+
+    @Test
+    void getPriceAsync_WhenCallTimesOut_FailsAndInterruptsCall() throws Exception {
+        // Arrange
+        CountDownLatch interrupted = new CountDownLatch(1);
+        IStockMarketService stuckMarket = symbol -> {
+            try {
+                Thread.sleep(5_000);
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+            }
+            return 100.0;
+        };
+
+        try (BoundedAsyncQuoteFetcher fetcher = new BoundedAsyncQuoteFetcher(stuckMarket, 1, Duration.ofMillis(100))) {
+            // Act
+            CompletableFuture<Double> price = fetcher.getPriceAsync("AAPL");
+
+            // Assert
+            assertThatThrownBy(price::join).hasCauseInstanceOf(TimeoutException.class);
+            assertThat(interrupted.await(1, TimeUnit.SECONDS)).isTrue();
+        }
+    }
+
+    @Test
+    void getPriceAsync_WhenServiceFails_CompletesExceptionally() {
+        // Arrange
+        IStockMarketService brokenMarket = symbol -> {
+            throw new IllegalStateException("market closed");
+        };
+
+        try (BoundedAsyncQuoteFetcher fetcher = new BoundedAsyncQuoteFetcher(brokenMarket, 2, Duration.ofSeconds(1))) {
+            // Act & Assert
+            assertThatThrownBy(() -> fetcher.getPriceAsync("AAPL").join())
+                    .hasCauseInstanceOf(IllegalStateException.class)
+                    .hasRootCauseMessage("market closed");
+        }
+    }
+
+    @Test
+    void constructor_WithInvalidArguments_ThrowsException() {
+        IStockMarketService market = symbol -> 1.0;
+
+        assertThatThrownBy(() -> new BoundedAsyncQuoteFetcher(null, 1, Duration.ofSeconds(1)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("StockMarketService cannot be null");
+        assertThatThrownBy(() -> new BoundedAsyncQuoteFetcher(market, 0, Duration.ofSeconds(1)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("maxConcurrency must be positive");
+        assertThatThrownBy(() -> new BoundedAsyncQuoteFetcher(market, 1, Duration.ZERO))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("timeout must be positive");
+    }
+}
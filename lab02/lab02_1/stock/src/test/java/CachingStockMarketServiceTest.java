@@ -0,0 +1,226 @@
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.entry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import stock.CachingStockMarketService;
+import stock.IStockMarketService;
+
+@ExtendWith(MockitoExtension.class)
+class CachingStockMarketServiceTest {
+
+    private static final Duration TTL = Duration.ofSeconds(10);
+    private static final Duration STALE = Duration.ofSeconds(30);
+
+    @Mock
+    private IStockMarketService upstream;
+
+    private final AtomicLong nanos = new AtomicLong();
+    private final List<Runnable> refreshes = new ArrayList<>();
+
+    private CachingStockMarketService cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new CachingStockMarketService(upstream, TTL, STALE, nanos::get, refreshes::add);
+    }
+
+    // ============= TESTES DE TTL =============
+
+    @Test
+    void getPrice_WithinTtl_CallsUpstreamOnce() {
+        // Arrange
+        when(upstream.getPrice("AAPL")).thenReturn(150.0);
+
+        // Act
+        double first = cache.getPrice("AAPL");
+        nanos.addAndGet(TTL.toNanos() - 1);
+        double second = cache.getPrice("AAPL");
+
+        // Assert
+        assertThat(first).isEqualTo(150.0);
+        assertThat(second).isEqualTo(150.0);
+        verify(upstream, times(1)).getPrice("AAPL");
+        assertThat(refreshes).isEmpty();
+    }
+
+    @Test
+    void getPrice_WithSymbolTtl_ExpiresOnlyThatSymbol() {
+        // Arrange
+        when(upstream.getPrice("AAPL")).thenReturn(150.0);
+        when(upstream.getPrice("MSFT")).thenReturn(300.0);
+        cache.setTtl("MSFT", Duration.ofSeconds(1));
+        cache.getPrice("AAPL");
+        cache.getPrice("MSFT");
+
+        // Act
+        nanos.addAndGet(Duration.ofSeconds(2).toNanos());
+        cache.getPrice("AAPL");
+        cache.getPrice("MSFT");
+
+        // Assert - só o MSFT ficou desatualizado
+        assertThat(refreshes).hasSize(1);
+        refreshes.get(0).run();
+        verify(upstream, times(1)).getPrice("AAPL");
+        verify(upstream, times(2)).getPrice("MSFT");
+    }
+
+    // ============= TESTES DE STALE-WHILE-REVALIDATE =============
+
+    @Test
+    void getPrice_WhenStale_ReturnsOldPriceAndRefreshesOnce() {
+        // Arrange
+        when(upstream.getPrice("AAPL")).thenReturn(150.0, 155.0);
+        cache.getPrice("AAPL");
+        nanos.addAndGet(TTL.toNanos());
+
+        // Act
+        double stale1 = cache.getPrice("AAPL");
+        double stale2 = cache.getPrice("AAPL");
+
+        // Assert - uma única atualização agendada, preço antigo devolvido entretanto
+        assertThat(stale1).isEqualTo(150.0);
+        assertThat(stale2).isEqualTo(150.0);
+        assertThat(refreshes).hasSize(1);
+
+        refreshes.get(0).run();
+        assertThat(cache.getPrice("AAPL")).isEqualTo(155.0);
+        verify(upstream, times(2)).getPrice("AAPL");
+    }
+
+    @Test
+    void getPrice_WhenRefreshFails_KeepsStalePrice() {
+        // Arrange
+        when(upstream.getPrice("AAPL")).thenReturn(150.0).thenThrow(new IllegalStateException("market closed"));
+        cache.getPrice("AAPL");
+        nanos.addAndGet(TTL.toNanos());
+
+        // Act
+        cache.getPrice("AAPL");
+        refreshes.get(0).run();
+
+        // Assert
+        assertThat(cache.getPrice("AAPL")).isEqualTo(150.0);
+        assertThat(refreshes).hasSize(2);
+    }
+
+    @Test
+    void getPrice_AfterStaleWindow_FetchesSynchronously() {
+        // Arrange
+        when(upstream.getPrice("AAPL")).thenReturn(150.0, 160.0);
+        cache.getPrice("AAPL");
+        nanos.addAndGet(TTL.plus(STALE).toNanos());
+
+        // Act
+        double price = cache.getPrice("AAPL");
+
+        // Assert
+        assertThat(price).isEqualTo(160.0);
+        assertThat(refreshes).isEmpty();
+    }
+
+    @Test
+    void getPrice_WhenUpstreamFails_PropagatesAndCachesNothing() {
+        // Arrange
+        when(upstream.getPrice("AAPL")).thenThrow(new IllegalStateException("market closed")).thenReturn(150.0);
+
+        // Act & Assert
+        assertThatThrownBy(() -> cache.getPrice("AAPL"))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("market closed");
+        assertThat(cache.getPrice("AAPL")).isEqualTo(150.0);
+    }
+
+    // ============= TESTES DE COALESCÊNCIA =============
+
+    @Test
+    void getPrice_WithConcurrentMisses_SharesOneUpstreamCall() throws Exception {
+        // Arrange - o serviço só responde depois de todos os pedidos estarem à espera
+        int clients = 8;
+        CountDownLatch release = new CountDownLatch(1);
+        when(upstream.getPrice("AAPL")).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return 150.0;
+        });
+        ExecutorService pool = Executors.newFixedThreadPool(clients);
+
+        try {
+            // Act
+            List<Future<Double>> prices = new ArrayList<>();
+            for (int i = 0; i < clients; i++) {
+                prices.add(pool.submit(() -> cache.getPrice("AAPL")));
+            }
+            Thread.sleep(100);
+            release.countDown();
+
+            // Assert
+            for (Future<Double> price : prices) {
+                assertThat(price.get(5, TimeUnit.SECONDS)).isEqualTo(150.0);
+            }
+            verify(upstream, times(1)).getPrice("AAPL");
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    // ============= TESTES DO getPrices() =============
+
+    @Test
+    void getPrices_FetchesOnlyMissingSymbolsInOneBatch() {
+        // Arrange
+        when(upstream.getPrice("AAPL")).thenReturn(150.0);
+        when(upstream.getPrices(List.of("MSFT", "GOOGL"))).thenReturn(Map.of("MSFT", 300.0, "GOOGL", 2500.0));
+        cache.getPrice("AAPL");
+
+        // Act
+        Map<String, Double> prices = cache.getPrices(List.of("AAPL", "MSFT", "GOOGL", "MSFT"));
+
+        // Assert
+        assertThat(prices).containsOnly(entry("AAPL", 150.0), entry("MSFT", 300.0), entry("GOOGL", 2500.0));
+        verify(upstream, times(1)).getPrices(anyCollection());
+
+        // ambos ficaram em cache
+        assertThat(cache.getPrices(List.of("MSFT", "GOOGL"))).hasSize(2);
+        verify(upstream, times(1)).getPrices(anyCollection());
+    }
+
+    @Test
+    void getPrices_WithSymbolMissingUpstream_ThrowsAndCachesTheRest() {
+        // Arrange
+        when(upstream.getPrices(List.of("AAPL", "NOPE"))).thenReturn(Map.of("AAPL", 150.0));
+
+        // Act & Assert
+        assertThatThrownBy(() -> cache.getPrices(List.of("AAPL", "NOPE")))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("No price for symbol NOPE");
+        assertThat(cache.getPrice("AAPL")).isEqualTo(150.0);
+        verify(upstream, never()).getPrice("AAPL");
+    }
+
+    @Test
+    void constructor_WithNullUpstream_ThrowsException() {
+        assertThatThrownBy(() -> new CachingStockMarketService(null, TTL, STALE))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("StockMarketService cannot be null");
+    }
+}
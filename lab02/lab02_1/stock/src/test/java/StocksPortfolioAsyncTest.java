@@ -0,0 +1,121 @@
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import stock.AsyncStockMarketService;
+import stock.BoundedAsyncQuoteFetcher;
+import stock.FailedQuotePolicy;
+import stock.IStockMarketService;
+import stock.PortfolioValuation;
+import stock.Stock;
+import stock.StocksPortfolio;
+
+class StocksPortfolioAsyncTest {
+
+    // cotações controladas pelo teste: cada símbolo tem um futuro que o teste completa
+    private final Map<String, CompletableFuture<Double>> quotes = new HashMap<>();
+    private final AsyncStockMarketService asyncMarket = symbol -> quotes.computeIfAbsent(symbol, s -> new CompletableFuture<>());
+
+    private StocksPortfolio portfolio;
+
+    @BeforeEach
+    void setUp() {
+        portfolio = new StocksPortfolio(symbol -> {
+            throw new AssertionError("the synchronous service must not be used");
+        });
+        portfolio.addStock(new Stock("AAPL", 10));
+        portfolio.addStock(new Stock("MSFT", 20));
+        portfolio.addStock(new Stock("AAPL", 5));
+    }
+
+    @Test
+    void totalValueAsync_WithAllQuotes_ReturnsCompleteValuation() {
+        // Act
+        CompletableFuture<PortfolioValuation> valuation = portfolio.totalValueAsync(asyncMarket, FailedQuotePolicy.FAIL);
+        quotes.get("MSFT").complete(300.0);
+        assertThat(valuation).isNotDone();
+        quotes.get("AAPL").complete(150.0);
+
+        // Assert - 15 * 150 + 20 * 300
+        assertThat(valuation.join().getTotal()).isEqualTo(8250.0);
+        assertThat(valuation.join().isComplete()).isTrue();
+        assertThat(quotes).hasSize(2);
+    }
+
+    @Test
+    void totalValueAsync_WithSkipPolicy_ReturnsPartialValuation() {
+        // Act
+        CompletableFuture<PortfolioValuation> valuation = portfolio.totalValueAsync(asyncMarket, FailedQuotePolicy.SKIP);
+        quotes.get("AAPL").completeExceptionally(new TimeoutException());
+        quotes.get("MSFT").complete(300.0);
+
+        // Assert
+        assertThat(valuation.join().getTotal()).isEqualTo(6000.0);
+        assertThat(valuation.join().isComplete()).isFalse();
+        assertThat(valuation.join().getFailures()).containsOnlyKeys("AAPL");
+        assertThat(valuation.join().getFailures().get("AAPL")).isInstanceOf(TimeoutException.class);
+    }
+
+    @Test
+    void totalValueAsync_WithFailPolicy_FailsFastAndCancelsTheRest() {
+        // Act
+        CompletableFuture<PortfolioValuation> valuation = portfolio.totalValueAsync(asyncMarket, FailedQuotePolicy.FAIL);
+        quotes.get("AAPL").completeExceptionally(new IllegalStateException("market closed"));
+
+        // Assert - o MSFT ainda não tinha respondido
+        assertThatThrownBy(valuation::join)
+                .hasCauseInstanceOf(IllegalStateException.class)
+                .hasRootCauseMessage("market closed");
+        assertThat(quotes.get("MSFT")).isCancelled();
+    }
+
+    @Test
+    void totalValueAsync_WithEmptyPortfolio_ReturnsZero() {
+        StocksPortfolio empty = new StocksPortfolio(symbol -> 1.0);
+
+        assertThat(empty.totalValueAsync(asyncMarket, FailedQuotePolicy.FAIL).join().getTotal()).isEqualTo(0.0);
+    }
+
+    @Test
+    void totalValueAsync_WithSlowService_FetchesQuotesConcurrently() {
+        // Arrange - 200 símbolos a 50 ms cada: 10 s em série
+        IStockMarketService slowMarket = symbol -> {
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return 2.0;
+        };
+        StocksPortfolio large = new StocksPortfolio(slowMarket);
+        for (int i = 0; i < 200; i++) {
+            large.addStock(new Stock("S" + i, 1));
+        }
+
+        try (BoundedAsyncQuoteFetcher fetcher = new BoundedAsyncQuoteFetcher(slowMarket, 100, Duration.ofSeconds(1))) {
+            // Act
+            long start = System.nanoTime();
+            PortfolioValuation valuation = large.totalValueAsync(fetcher, FailedQuotePolicy.FAIL).join();
+            long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+            // Assert
+            assertThat(valuation.getTotal()).isEqualTo(400.0);
+            assertThat(elapsedMillis).isLessThan(2_000);
+        }
+    }
+
+    @Test
+    void totalValueAsync_WithoutPolicy_ThrowsException() {
+        assertThatThrownBy(() -> portfolio.totalValueAsync(asyncMarket, null))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Quote service and policy are required");
+    }
+}
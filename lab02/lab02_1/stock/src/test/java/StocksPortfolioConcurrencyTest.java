@@ -0,0 +1,210 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import stock.Stock;
+import stock.StocksPortfolio;
+
+class StocksPortfolioConcurrencyTest {
+
+    private StocksPortfolio portfolio;
+
+    @BeforeEach
+    void setUp() {
+        portfolio = new StocksPortfolio(symbol -> 100.0);
+    }
+
+    // ============= TESTES DO removeStock() =============
+
+    @Test
+    void removeStock_ReducesAndClosesPositions() {
+        // Arrange
+        portfolio.addStock(new Stock("AAPL", 10));
+        portfolio.addStock(new Stock("MSFT", 5));
+
+        // Act
+        portfolio.removeStock(new Stock("AAPL", 4));
+        portfolio.removeStock(new Stock("MSFT", 5));
+
+        // Assert
+        assertThat(portfolio.getQuantity("AAPL")).isEqualTo(6);
+        assertThat(portfolio.getQuantity("MSFT")).isZero();
+        assertThat(portfolio.getStocks()).containsExactly(new Stock("AAPL", 6));
+        assertThat(portfolio.totalValue()).isEqualTo(600.0);
+    }
+
+    @Test
+    void removeStock_WithMoreThanHeld_ThrowsException() {
+        // Arrange
+        portfolio.addStock(new Stock("AAPL", 10));
+
+        // Act & Assert
+        assertThatThrownBy(() -> portfolio.removeStock(new Stock("AAPL", 11)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Cannot remove more shares than held");
+        assertThatThrownBy(() -> portfolio.removeStock(new Stock("MSFT", 1)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Cannot remove more shares than held");
+        assertThatThrownBy(() -> portfolio.removeStock(null))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Stock cannot be null");
+        assertThat(portfolio.getQuantity("AAPL")).isEqualTo(10);
+    }
+
+    // ============= TESTES DO addStock() =============
+
+    @Test
+    void addStock_BeyondIntegerRange_ThrowsExceptionAndKeepsPosition() {
+        // Arrange
+        portfolio.addStock(new Stock("AAPL", Integer.MAX_VALUE - 1));
+
+        // Act & Assert
+        assertThatThrownBy(() -> portfolio.addStock(new Stock("AAPL", 2)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Position cannot exceed 2147483647 shares");
+        portfolio.addStock(new Stock("AAPL", 1));
+        assertThat(portfolio.getStocks()).containsExactly(new Stock("AAPL", Integer.MAX_VALUE));
+    }
+
+    // ============= TESTES DOS SNAPSHOTS =============
+
+    @Test
+    void getStocks_KeepsOrderOfFirstPurchase() {
+        // Arrange - símbolos suficientes para a ordem do hash não coincidir por acaso
+        List<Stock> bought = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            bought.add(new Stock("SYM" + (50 - i), 1));
+        }
+        bought.forEach(portfolio::addStock);
+
+        // Act - reforçar uma posição não a muda de lugar; fechar e reabrir passa-a para o fim
+        portfolio.addStock(new Stock("SYM50", 1));
+        portfolio.removeStock(new Stock("SYM25", 1));
+        portfolio.addStock(new Stock("SYM25", 1));
+
+        // Assert
+        List<Stock> expected = new ArrayList<>(bought);
+        expected.set(0, new Stock("SYM50", 2));
+        expected.remove(new Stock("SYM25", 1));
+        expected.add(new Stock("SYM25", 1));
+        assertThat(portfolio.getStocks()).containsExactlyElementsOf(expected);
+    }
+
+    @Test
+    void mostValuableStocks_WithTies_FollowsOrderOfGetStocks() {
+        // Arrange - todas as posições valem o mesmo
+        portfolio.addStock(new Stock("ZZZ", 1));
+        portfolio.addStock(new Stock("AAA", 1));
+        portfolio.addStock(new Stock("MMM", 1));
+
+        // Act & Assert
+        assertThat(portfolio.mostValuableStocks(3)).containsExactlyElementsOf(portfolio.getStocks());
+        assertThat(portfolio.mostValuableStocks(2))
+                .containsExactly(new Stock("ZZZ", 1), new Stock("AAA", 1));
+    }
+
+    @Test
+    void getStocks_ReturnsSameImmutableSnapshotUntilPortfolioChanges() {
+        // Arrange
+        portfolio.addStock(new Stock("AAPL", 10));
+
+        // Act
+        List<Stock> first = portfolio.getStocks();
+        List<Stock> second = portfolio.getStocks();
+        portfolio.addStock(new Stock("AAPL", 1));
+        List<Stock> third = portfolio.getStocks();
+
+        // Assert
+        assertThat(second).isSameAs(first);
+        assertThat(third).isNotSameAs(first).containsExactly(new Stock("AAPL", 11));
+        assertThat(first).containsExactly(new Stock("AAPL", 10));
+        assertThatThrownBy(() -> first.add(new Stock("MSFT", 1)))
+                .isInstanceOf(UnsupportedOperationException.class);
+    }
+
+    // ============= TESTES DE CONCORRÊNCIA =============
+
+    @Test
+    void addAndRemove_FromManyThreads_KeepExactQuantities() throws Exception {
+        // Arrange - cada thread compra 250 vezes cada um de 4 símbolos e vende metade
+        int threads = 8;
+        String[] symbols = {"AAPL", "MSFT", "GOOGL", "AMZN"};
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+
+        try {
+            // Act
+            List<Future<?>> traders = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                traders.add(pool.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < 1_000; i++) {
+                        String symbol = symbols[i % symbols.length];
+                        portfolio.addStock(new Stock(symbol, 2));
+                        if ((i / symbols.length) % 2 == 0) {
+                            portfolio.removeStock(new Stock(symbol, 2));
+                        }
+                        portfolio.getStocks();
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> trader : traders) {
+                trader.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        // Assert - por símbolo: 8 threads * 125 compras líquidas * 2 ações = 2000
+        for (String symbol : symbols) {
+            assertThat(portfolio.getQuantity(symbol)).isEqualTo(2_000);
+        }
+        assertThat(portfolio.getStocks()).hasSize(4);
+        assertThat(portfolio.totalValue()).isEqualTo(800_000.0);
+    }
+
+    @Test
+    void closingAndReopeningPosition_FromManyThreads_NeverLosesShares() throws Exception {
+        // Arrange - a posição chega muitas vezes a zero enquanto outras threads compram
+        int threads = 8;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+
+        try {
+            // Act
+            List<Future<?>> traders = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                traders.add(pool.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < 2_000; i++) {
+                        portfolio.addStock(new Stock("AAPL", 1));
+                        portfolio.removeStock(new Stock("AAPL", 1));
+                    }
+                    portfolio.addStock(new Stock("AAPL", 1));
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> trader : traders) {
+                trader.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        // Assert
+        assertThat(portfolio.getQuantity("AAPL")).isEqualTo(threads);
+        assertThat(portfolio.getStocks()).containsExactly(new Stock("AAPL", threads));
+    }
+}
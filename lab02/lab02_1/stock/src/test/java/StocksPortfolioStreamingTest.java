@@ -0,0 +1,295 @@
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import stock.IStreamingStockMarketService;
+import stock.Stock;
+import stock.StocksPortfolio;
+
+class StocksPortfolioStreamingTest {
+
+    private FakeStreamingMarket market;
+
+    private StocksPortfolio portfolio;
+
+    @BeforeEach
+    void setUp() {
+        market = new FakeStreamingMarket();
+        portfolio = new StocksPortfolio(market);
+    }
+
+    // ============= TESTES DO totalValue() =============
+
+    @Test
+    void totalValue_FollowsTicksWithoutQueryingService() {
+        // Arrange
+        market.prices.put("AAPL", 150.0);
+        market.prices.put("MSFT", 300.0);
+        portfolio.addStock(new Stock("AAPL", 10));
+        portfolio.addStock(new Stock("MSFT", 20));
+        int queries = market.queries;
+
+        // Act
+        market.tick("AAPL", 160.0);
+        market.tick("MSFT", 290.0);
+
+        // Assert - 10 * 160 + 20 * 290
+        assertThat(portfolio.totalValue()).isEqualTo(7400.0);
+        assertThat(market.queries).isEqualTo(queries);
+    }
+
+    @Test
+    void addStock_WithRepeatedSymbol_AggregatesAndSubscribesOnce() {
+        // Arrange
+        market.prices.put("AAPL", 150.0);
+
+        // Act
+        portfolio.addStock(new Stock("AAPL", 10));
+        portfolio.addStock(new Stock("AAPL", 5));
+
+        // Assert
+        assertThat(market.listeners).hasSize(1);
+        assertThat(market.queries).isEqualTo(1);
+        assertThat(portfolio.totalValue()).isEqualTo(2250.0);
+        assertThat(portfolio.mostValuableStocks(5)).containsExactly(new Stock("AAPL", 15));
+        assertThat(portfolio.getStocks()).containsExactly(new Stock("AAPL", 15));
+    }
+
+    @Test
+    void addStock_WhenFirstQuoteFails_DoesNotAddPosition() {
+        // Act & Assert - sem preço para "NOPE"
+        assertThatThrownBy(() -> portfolio.addStock(new Stock("NOPE", 10)))
+                .isInstanceOf(IllegalStateException.class);
+        assertThat(market.listeners).isEmpty();
+        assertThat(portfolio.getStocks()).isEmpty();
+        assertThat(portfolio.totalValue()).isEqualTo(0.0);
+    }
+
+    @Test
+    void addStock_BeyondIntegerRange_ThrowsExceptionAndKeepsValuation() {
+        // Arrange
+        market.prices.put("AAPL", 1.0);
+        portfolio.addStock(new Stock("AAPL", Integer.MAX_VALUE));
+
+        // Act & Assert
+        assertThatThrownBy(() -> portfolio.addStock(new Stock("AAPL", 1)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Position cannot exceed 2147483647 shares");
+        assertThat(portfolio.mostValuableStocks(1)).containsExactly(new Stock("AAPL", Integer.MAX_VALUE));
+        assertThat(portfolio.totalValue()).isEqualTo(Integer.MAX_VALUE);
+    }
+
+    @Test
+    void mostValuableStocks_WithTies_FollowsOrderOfArrival() {
+        // Arrange
+        market.prices.put("ZZZ", 10.0);
+        market.prices.put("AAA", 10.0);
+        portfolio.addStock(new Stock("ZZZ", 1));
+        portfolio.addStock(new Stock("AAA", 1));
+
+        // Act & Assert - o mesmo desempate que sem streaming
+        assertThat(portfolio.mostValuableStocks(2)).containsExactlyElementsOf(portfolio.getStocks());
+    }
+
+    @Test
+    void addStock_WhenFirstQuoteFailsWhileAnotherAddWaits_KeepsTheOtherQuantity() throws Exception {
+        // Arrange - a primeira cotação de AAPL só falha quando o teste deixar
+        BlockingQuoteMarket blocking = new BlockingQuoteMarket(true);
+        StocksPortfolio shared = new StocksPortfolio(blocking);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> first = executor.submit(() -> shared.addStock(new Stock("AAPL", 10)));
+            assertThat(blocking.firstQuoteRequested.await(5, TimeUnit.SECONDS)).isTrue();
+
+            // Act - a segunda compra espera pela primeira cotação, que depois falha
+            Thread second = new Thread(() -> shared.addStock(new Stock("AAPL", 5)));
+            second.start();
+            while (second.getState() != Thread.State.WAITING) {
+                Thread.onSpinWait();
+            }
+            blocking.releaseFirstQuote.countDown();
+            second.join(5000);
+
+            // Assert - a segunda compra criou a sua própria posição
+            assertThatThrownBy(first::get).hasCauseInstanceOf(IllegalStateException.class);
+            assertThat(second.isAlive()).isFalse();
+            assertThat(shared.getStocks()).containsExactly(new Stock("AAPL", 5));
+            assertThat(shared.totalValue()).isEqualTo(500.0);
+            assertThat(blocking.openSubscriptions.get()).isEqualTo(1);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void close_WhileFirstQuoteIsPending_CancelsTheNewSubscription() throws Exception {
+        // Arrange
+        BlockingQuoteMarket blocking = new BlockingQuoteMarket(false);
+        StocksPortfolio shared = new StocksPortfolio(blocking);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> add = executor.submit(() -> shared.addStock(new Stock("AAPL", 10)));
+            assertThat(blocking.firstQuoteRequested.await(5, TimeUnit.SECONDS)).isTrue();
+
+            // Act - o close() passa antes de a compra registar a subscrição
+            shared.close();
+            blocking.releaseFirstQuote.countDown();
+            add.get(5, TimeUnit.SECONDS);
+
+            // Assert
+            assertThat(blocking.openSubscriptions.get()).isZero();
+            assertThat(shared.getStocks()).containsExactly(new Stock("AAPL", 10));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    // ============= TESTES DO mostValuableStocks() =============
+
+    @Test
+    void mostValuableStocks_ReordersOnTicks() {
+        // Arrange
+        market.prices.put("LOW", 50.0);
+        market.prices.put("HIGH", 1000.0);
+        market.prices.put("MID", 100.0);
+        Stock low = new Stock("LOW", 10);
+        Stock high = new Stock("HIGH", 5);
+        Stock mid = new Stock("MID", 20);
+        portfolio.addStock(low);
+        portfolio.addStock(high);
+        portfolio.addStock(mid);
+        assertThat(portfolio.mostValuableStocks(3)).containsExactly(high, mid, low);
+
+        // Act - LOW passa a valer 10 * 600 = 6000
+        market.tick("LOW", 600.0);
+
+        // Assert
+        assertThat(portfolio.mostValuableStocks(2)).containsExactly(low, high);
+    }
+
+    @Test
+    void tick_ForUnknownSymbol_IsIgnored() {
+        // Arrange
+        market.prices.put("AAPL", 150.0);
+        portfolio.addStock(new Stock("AAPL", 10));
+
+        // Act
+        market.listeners.get("AAPL").onPrice("OTHER", 1.0);
+
+        // Assert
+        assertThat(portfolio.totalValue()).isEqualTo(1500.0);
+    }
+
+    @Test
+    void close_CancelsSubscriptions() {
+        // Arrange
+        market.prices.put("AAPL", 150.0);
+        portfolio.addStock(new Stock("AAPL", 10));
+
+        // Act
+        portfolio.close();
+
+        // Assert
+        assertThat(market.listeners).isEmpty();
+    }
+
+    @Test
+    void removeStock_WhenPositionClosed_LeavesRankingAndUnsubscribes() {
+        // Arrange
+        market.prices.put("AAPL", 150.0);
+        market.prices.put("MSFT", 300.0);
+        portfolio.addStock(new Stock("AAPL", 10));
+        portfolio.addStock(new Stock("MSFT", 20));
+
+        // Act
+        portfolio.removeStock(new Stock("MSFT", 5));
+        portfolio.removeStock(new Stock("AAPL", 10));
+
+        // Assert
+        assertThat(portfolio.totalValue()).isEqualTo(4500.0);
+        assertThat(portfolio.mostValuableStocks(5)).containsExactly(new Stock("MSFT", 15));
+        assertThat(market.listeners).containsOnlyKeys("MSFT");
+    }
+
+    /**
+     * Mercado em memória: as cotações mudam quando o teste chama tick
+     */
+    private static class FakeStreamingMarket implements IStreamingStockMarketService {
+        private final Map<String, Double> prices = new HashMap<>();
+        private final Map<String, PriceListener> listeners = new HashMap<>();
+        private int queries;
+
+        @Override
+        public double getPrice(String symbol) {
+            queries++;
+            Double price = prices.get(symbol);
+            if (price == null) {
+                throw new IllegalStateException("No price for symbol " + symbol);
+            }
+            return price;
+        }
+
+        @Override
+        public Subscription subscribe(String symbol, PriceListener listener) {
+            listeners.put(symbol, listener);
+            return () -> listeners.remove(symbol);
+        }
+
+        void tick(String symbol, double price) {
+            prices.put(symbol, price);
+            PriceListener listener = listeners.get(symbol);
+            if (listener != null) {
+                listener.onPrice(symbol, price);
+            }
+        }
+    }
+
+    /**
+     * Mercado em que a primeira cotação fica presa até o teste a libertar (e depois
+     * falha, se assim for pedido); as seguintes valem sempre 100
+     */
+    private static class BlockingQuoteMarket implements IStreamingStockMarketService {
+        private final CountDownLatch firstQuoteRequested = new CountDownLatch(1);
+        private final CountDownLatch releaseFirstQuote = new CountDownLatch(1);
+        private final AtomicInteger quotes = new AtomicInteger();
+        private final AtomicInteger openSubscriptions = new AtomicInteger();
+        private final boolean failFirstQuote;
+
+        BlockingQuoteMarket(boolean failFirstQuote) {
+            this.failFirstQuote = failFirstQuote;
+        }
+
+        @Override
+        public double getPrice(String symbol) {
+            if (quotes.getAndIncrement() == 0) {
+                firstQuoteRequested.countDown();
+                try {
+                    releaseFirstQuote.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException(e);
+                }
+                if (failFirstQuote) {
+                    throw new IllegalStateException("No price for symbol " + symbol);
+                }
+            }
+            return 100.0;
+        }
+
+        @Override
+        public Subscription subscribe(String symbol, PriceListener listener) {
+            openSubscriptions.incrementAndGet();
+            return openSubscriptions::decrementAndGet;
+        }
+    }
+}
@@ -1,15 +1,23 @@
 
 
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Answers;
 import org.mockito.Mock;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.atLeastOnce;
 import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
@@ -25,7 +33,8 @@ import stock.StocksPortfolio;
 @ExtendWith(MockitoExtension.class)
 class StocksPortfolioTest {
     
-    @Mock
+    // CALLS_REAL_METHODS: getPrices (método default) consulta os getPrice simulados abaixo
+    @Mock(answer = Answers.CALLS_REAL_METHODS)
     private IStockMarketService stockMarketService;
     
     private StocksPortfolio portfolio;
@@ -105,6 +114,7 @@ class StocksPortfolioTest {
         assertThat(total).isEqualTo(20000.0);
         
         // Verify all interactions
+        verify(stockMarketService).getPrices(Set.of("AAPL", "GOOGL", "MSFT"));
         verify(stockMarketService).getPrice("AAPL");
         verify(stockMarketService).getPrice("GOOGL");
         verify(stockMarketService).getPrice("MSFT");
@@ -133,6 +143,53 @@ class StocksPortfolioTest {
         // As expectativas GOOGL e MSFT não foram usadas, mas com lenient() não dá erro
     }
     
+    @Test
+    void totalValue_WithRepeatedSymbol_QueriesPriceOnce() {
+        // Arrange
+        portfolio.addStock(new Stock("AAPL", 10));
+        portfolio.addStock(new Stock("AAPL", 5));
+        
+        when(stockMarketService.getPrice("AAPL")).thenReturn(150.0);
+        
+        // Act
+        double total = portfolio.totalValue();
+        
+        // Assert
+        assertThat(total).isEqualTo(2250.0); // 15 * 150.0
+        verify(stockMarketService, times(1)).getPrice("AAPL");
+    }
+    
+    @Test
+    void totalValue_ResolvesAllSymbolsInOneBatch() {
+        // Arrange
+        portfolio.addStock(new Stock("AAPL", 10));
+        portfolio.addStock(new Stock("MSFT", 20));
+        portfolio.addStock(new Stock("AAPL", 5));
+        
+        when(stockMarketService.getPrices(anyCollection())).thenReturn(Map.of("AAPL", 150.0, "MSFT", 300.0));
+        
+        // Act
+        double total = portfolio.totalValue();
+        
+        // Assert
+        assertThat(total).isEqualTo(8250.0); // 15 * 150 + 20 * 300
+        verify(stockMarketService, times(1)).getPrices(Set.of("AAPL", "MSFT"));
+        verify(stockMarketService, never()).getPrice(anyString());
+    }
+    
+    @Test
+    void totalValue_WithMissingQuote_ThrowsException() {
+        // Arrange
+        portfolio.addStock(new Stock("AAPL", 10));
+        
+        when(stockMarketService.getPrices(anyCollection())).thenReturn(Map.of());
+        
+        // Act & Assert
+        assertThatThrownBy(() -> portfolio.totalValue())
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("No price for symbol AAPL");
+    }
+    
     // ============= TESTES DO mostValuableStocks() =============
     
     @Test
@@ -188,6 +245,45 @@ class StocksPortfolioTest {
         verify(stockMarketService, atLeastOnce()).getPrice("MID");
     }
     
+    @Test
+    void mostValuableStocks_AggregatesPositionsAndQueriesEachSymbolOnce() {
+        // Arrange
+        for (int i = 1; i <= 20; i++) {
+            portfolio.addStock(new Stock(i % 2 == 0 ? "EVEN" : "ODD", i));
+        }
+        
+        when(stockMarketService.getPrice("EVEN")).thenReturn(10.0);
+        when(stockMarketService.getPrice("ODD")).thenReturn(20.0);
+        
+        // Act
+        List<Stock> top2 = portfolio.mostValuableStocks(2);
+        
+        // Assert - ODD: 100 * 20 = 2000, EVEN: 110 * 10 = 1100
+        assertThat(top2).containsExactly(new Stock("ODD", 100), new Stock("EVEN", 110));
+        verify(stockMarketService, times(1)).getPrice("EVEN");
+        verify(stockMarketService, times(1)).getPrice("ODD");
+    }
+    
+    @Test
+    void mostValuableStocks_WithForkJoinPool_MatchesSequentialResult() {
+        // Arrange - símbolos distintos, o suficiente para a variante fork/join dividir o trabalho
+        StocksPortfolio large = new StocksPortfolio(symbol -> 10.0 + Integer.parseInt(symbol.substring(1)) % 100);
+        for (int i = 1; i <= 50_000; i++) {
+            large.addStock(new Stock("S" + i, i % 997 + 1));
+        }
+        ForkJoinPool pool = new ForkJoinPool(4);
+        
+        try {
+            // Act
+            List<Stock> parallel = large.mostValuableStocks(25, pool);
+            
+            // Assert
+            assertThat(parallel).containsExactlyElementsOf(large.mostValuableStocks(25));
+        } finally {
+            pool.shutdown();
+        }
+    }
+    
     @Test
     void mostValuableStocks_WithTopNGreaterThanPortfolioSize_ReturnsAllStocks() {
         // Arrange
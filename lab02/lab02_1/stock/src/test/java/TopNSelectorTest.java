@@ -0,0 +1,84 @@
+import java.util.Comparator;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import stock.TopNSelector;
+
+class TopNSelectorTest {
+
+    private ForkJoinPool pool;
+
+    @BeforeEach
+    void setUp() {
+        pool = new ForkJoinPool(4);
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdown();
+    }
+
+    @Test
+    void select_ReturnsIndexesInDescendingValueOrder() {
+        // Arrange
+        double[] values = {500.0, 5000.0, 2000.0, 100.0};
+
+        // Act
+        int[] top = TopNSelector.select(values, 3);
+
+        // Assert
+        assertThat(top).containsExactly(1, 2, 0);
+    }
+
+    @Test
+    void select_WithTies_KeepsOriginalOrder() {
+        // Arrange
+        double[] values = {10.0, 30.0, 10.0, 30.0, 10.0};
+
+        // Act
+        int[] top = TopNSelector.select(values, 4);
+
+        // Assert
+        assertThat(top).containsExactly(1, 3, 0, 2);
+    }
+
+    @Test
+    void select_WithNLargerThanArray_ReturnsEverything() {
+        assertThat(TopNSelector.select(new double[]{1.0, 2.0}, 5)).containsExactly(1, 0);
+        assertThat(TopNSelector.select(new double[0], 5)).isEmpty();
+        assertThat(TopNSelector.select(new double[]{1.0, 2.0}, 0)).isEmpty();
+    }
+
+    @Test
+    void select_WithNegativeN_ThrowsException() {
+        assertThatThrownBy(() -> TopNSelector.select(new double[]{1.0}, -1))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("n cannot be negative");
+    }
+
+    @Test
+    void select_MatchesFullSort_SequentialAndForkJoin() {
+        // Arrange - valores repetidos para exercitar os empates; grande o suficiente para dividir
+        Random random = new Random(7);
+        double[] values = new double[200_000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = random.nextInt(50_000);
+        }
+        int[] expected = IntStream.range(0, values.length).boxed()
+                .sorted(Comparator.comparingDouble((Integer i) -> values[i]).reversed())
+                .limit(100)
+                .mapToInt(Integer::intValue)
+                .toArray();
+
+        // Act & Assert
+        assertThat(TopNSelector.select(values, 100)).containsExactly(expected);
+        assertThat(TopNSelector.select(values, 100, pool)).containsExactly(expected);
+    }
+}
@@ -0,0 +1,82 @@
+package stock;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark JMH do mostValuableStocks: ordenação completa com comparador (implementação
+ * original), heap limitado e variante fork/join, para 10, 10k e 1M posições.
+ *
+ * Executar com:
+ * mvn test-compile exec:exec -Dexec.classpathScope=test -Dexec.executable=java \
+ *     -Dexec.args="-cp %classpath org.openjdk.jmh.Main StocksPortfolioBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StocksPortfolioBenchmark {
+    private static final int TOP_N = 10;
+
+    @Param({"10", "10000", "1000000"})
+    public int positions;
+
+    private IStockMarketService market;
+    private StocksPortfolio portfolio;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        // um símbolo por posição, já que o portfólio agrega as posições do mesmo símbolo
+        Map<String, Double> prices = new HashMap<>();
+        for (int i = 0; i < positions; i++) {
+            prices.put("S" + i, 1.0 + random.nextInt(100_000) / 100.0);
+        }
+        market = prices::get;
+        portfolio = new StocksPortfolio(market);
+        for (int i = 0; i < positions; i++) {
+            portfolio.addStock(new Stock("S" + i, 1 + random.nextInt(1_000)));
+        }
+    }
+
+    @Benchmark
+    public List<Stock> sortWithComparator() {
+        return portfolio.getStocks().stream()
+                .sorted((stock1, stock2) -> {
+                    double value1 = market.getPrice(stock1.getSymbol()) * stock1.getQuantity();
+                    double value2 = market.getPrice(stock2.getSymbol()) * stock2.getQuantity();
+                    return Double.compare(value2, value1);
+                })
+                .limit(TOP_N)
+                .collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public List<Stock> boundedHeap() {
+        return portfolio.mostValuableStocks(TOP_N);
+    }
+
+    @Benchmark
+    public List<Stock> forkJoin() {
+        return portfolio.mostValuableStocks(TOP_N, ForkJoinPool.commonPool());
+    }
+}
@@ -0,0 +1,96 @@
+package product;
+
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.Dispatcher;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Implementação assíncrona do HTTP Client usando OkHttp ({@link Call#enqueue})
+ * 
+ * Os pedidos ficam na fila do {@link Dispatcher} e só ocupam uma thread enquanto estão
+ * de facto em curso: com maxRequestsPerHost = 5, milhares de pesquisas ao mesmo host
+ * usam no máximo 5 threads, em vez de uma thread bloqueada por pesquisa.
+ */
+public class AsyncHttpClient implements IAsyncHttpClient {
+    
+    private final OkHttpClient client;
+    
+    /**
+     * Construtor padrão: limites do Dispatcher do OkHttp (64 pedidos, 5 por host)
+     */
+    public AsyncHttpClient() {
+        this(64, 5);
+    }
+    
+    /**
+     * @param maxRequests máximo de pedidos em curso no total
+     * @param maxRequestsPerHost máximo de pedidos em curso a cada host
+     */
+    public AsyncHttpClient(int maxRequests, int maxRequestsPerHost) {
+        if (maxRequests <= 0 || maxRequestsPerHost <= 0) {
+            throw new IllegalArgumentException("Request limits must be positive");
+        }
+        Dispatcher dispatcher = new Dispatcher();
+        dispatcher.setMaxRequests(maxRequests);
+        dispatcher.setMaxRequestsPerHost(maxRequestsPerHost);
+        this.client = new OkHttpClient.Builder()
+                .dispatcher(dispatcher)
+                .connectTimeout(10, TimeUnit.SECONDS)
+                .readTimeout(10, TimeUnit.SECONDS)
+                .build();
+    }
+    
+    /**
+     * Construtor que aceita cliente customizado (útil para testes)
+     */
+    public AsyncHttpClient(OkHttpClient client) {
+        this.client = client;
+    }
+    
+    @Override
+    public CompletableFuture<byte[]> doHttpGetAsync(String url) {
+        Request request = new Request.Builder()
+                .url(url)
+                .get()
+                .build();
+        
+        Call call = client.newCall(request);
+        CompletableFuture<byte[]> result = new CompletableFuture<>();
+        // cancelar o futuro liberta o lugar do pedido no Dispatcher
+        result.whenComplete((body, error) -> {
+            if (result.isCancelled()) {
+                call.cancel();
+            }
+        });
+        
+        call.enqueue(new Callback() {
+            @Override
+            public void onFailure(Call call, IOException e) {
+                result.completeExceptionally(new RuntimeException("Failed to execute HTTP GET: " + e.getMessage(), e));
+            }
+            
+            @Override
+            public void onResponse(Call call, Response response) {
+                try (response) {
+                    if (!response.isSuccessful()) {
+                        throw new RuntimeException("HTTP request failed with code: " + response.code());
+                    }
+                    ResponseBody body = response.body();
+                    result.complete(body != null ? body.bytes() : new byte[0]);
+                } catch (IOException e) {
+                    result.completeExceptionally(new RuntimeException("Failed to execute HTTP GET: " + e.getMessage(), e));
+                } catch (RuntimeException e) {
+                    result.completeExceptionally(e);
+                }
+            }
+        });
+        return result;
+    }
+}
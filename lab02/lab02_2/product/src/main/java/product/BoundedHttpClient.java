@@ -0,0 +1,71 @@
+package product;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Torna assíncrono um cliente HTTP bloqueante: cada pedido corre numa virtual thread, com
+ * no máximo maxConcurrency pedidos em simultâneo e um tempo limite por pedido (contado a
+ * partir do momento em que o pedido arranca, não da espera na fila). Um pedido que exceda
+ * o limite, ou cujo futuro seja cancelado, completa com erro e a sua thread é interrompida.
+ */
+final class BoundedHttpClient implements IAsyncHttpClient, AutoCloseable {
+    private final ISimpleHttpClient httpClient;
+    private final Semaphore permits;
+    private final long timeoutNanos;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    BoundedHttpClient(ISimpleHttpClient httpClient, int maxConcurrency, Duration timeout) {
+        this.httpClient = httpClient;
+        this.permits = new Semaphore(maxConcurrency);
+        this.timeoutNanos = timeout.toNanos();
+    }
+
+    @Override
+    public CompletableFuture<byte[]> doHttpGetAsync(String url) {
+        CompletableFuture<byte[]> body = new CompletableFuture<>();
+        executor.execute(() -> fetch(url, body));
+        return body;
+    }
+
+    private void fetch(String url, CompletableFuture<byte[]> body) {
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            body.completeExceptionally(e);
+            return;
+        }
+        try {
+            if (body.isDone()) {
+                return; // cancelado enquanto esperava
+            }
+            Thread worker = Thread.currentThread();
+            body.orTimeout(timeoutNanos, TimeUnit.NANOSECONDS)
+                    .whenComplete((bytes, error) -> {
+                        // timeout ou cancelamento: não vale a pena continuar à espera da resposta
+                        if (error != null) {
+                            worker.interrupt();
+                        }
+                    });
+            String response = httpClient.doHttpGet(url);
+            body.complete(response == null ? new byte[0] : response.getBytes(StandardCharsets.UTF_8));
+        } catch (Exception e) {
+            body.completeExceptionally(e);
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * Deixa de aceitar pedidos e interrompe os que estão em curso
+     */
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+}
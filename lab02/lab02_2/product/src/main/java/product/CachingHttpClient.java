@@ -0,0 +1,112 @@
+package product;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * Decorador de cache em memória para o cliente HTTP.
+ *
+ * - Guarda no máximo {@code maxEntries} respostas; quando enche, sai a menos usada (LRU).
+ * - Enquanto uma resposta tem menos de {@code ttl}, é devolvida sem ir à rede.
+ * - Depois de expirar, é revalidada com If-None-Match: se o servidor responder 304,
+ *   o corpo guardado volta a valer por mais um {@code ttl} sem ser descarregado de novo.
+ *
+ * Respostas vazias não são guardadas, para que um produto ainda inexistente possa aparecer.
+ */
+public class CachingHttpClient implements ISimpleHttpClient {
+    private final ISimpleHttpClient upstream;
+    private final long ttlNanos;
+    private final LongSupplier nanoClock;
+    private final Map<String, Entry> entries;
+
+    public CachingHttpClient(ISimpleHttpClient upstream, int maxEntries, Duration ttl) {
+        this(upstream, maxEntries, ttl, System::nanoTime);
+    }
+
+    /**
+     * Construtor com relógio injetável (usado nos testes)
+     */
+    public CachingHttpClient(ISimpleHttpClient upstream, int maxEntries, Duration ttl, LongSupplier nanoClock) {
+        if (upstream == null) {
+            throw new IllegalArgumentException("HttpClient cannot be null");
+        }
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("maxEntries must be positive");
+        }
+        if (ttl.isNegative()) {
+            throw new IllegalArgumentException("ttl cannot be negative");
+        }
+        this.upstream = upstream;
+        this.ttlNanos = ttl.toNanos();
+        this.nanoClock = nanoClock;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    @Override
+    public String doHttpGet(String url) {
+        Entry cached;
+        synchronized (entries) {
+            cached = entries.get(url);
+        }
+        if (cached != null && nanoClock.getAsLong() - cached.storedAt < ttlNanos) {
+            return cached.body;
+        }
+
+        // a chamada à rede é feita fora do lock: pedidos a outros URLs não esperam por ela
+        ConditionalResponse response = upstream.doConditionalHttpGet(url, cached == null ? null : cached.etag);
+        long now = nanoClock.getAsLong();
+        if (response.isNotModified() && cached != null) {
+            store(url, new Entry(cached.body, cached.etag, now));
+            return cached.body;
+        }
+        String body = response.getBody();
+        if (body == null || body.trim().isEmpty()) {
+            synchronized (entries) {
+                entries.remove(url);
+            }
+        } else {
+            store(url, new Entry(body, response.getEtag(), now));
+        }
+        return body;
+    }
+
+    /**
+     * Esquece a resposta guardada para um URL (o próximo pedido vai à rede)
+     */
+    public void invalidate(String url) {
+        synchronized (entries) {
+            entries.remove(url);
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    private void store(String url, Entry entry) {
+        synchronized (entries) {
+            entries.put(url, entry);
+        }
+    }
+
+    private static final class Entry {
+        final String body;
+        final String etag;
+        final long storedAt;
+
+        Entry(String body, String etag, long storedAt) {
+            this.body = body;
+            this.etag = etag;
+            this.storedAt = storedAt;
+        }
+    }
+}
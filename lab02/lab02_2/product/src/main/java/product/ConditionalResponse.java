@@ -0,0 +1,34 @@
+package product;
+
+/**
+ * Resposta a um GET condicional: ou o servidor confirmou que a versão em cache
+ * continua válida (304 Not Modified), ou devolveu um corpo novo com a sua ETag
+ */
+public class ConditionalResponse {
+    private final boolean notModified;
+    private final String body;
+    private final String etag;
+
+    private ConditionalResponse(boolean notModified, String body, String etag) {
+        this.notModified = notModified;
+        this.body = body;
+        this.etag = etag;
+    }
+
+    public static ConditionalResponse notModified() {
+        return new ConditionalResponse(true, null, null);
+    }
+
+    public static ConditionalResponse modified(String body, String etag) {
+        return new ConditionalResponse(false, body, etag);
+    }
+
+    public boolean isNotModified() { return notModified; }
+
+    public String getBody() { return body; }
+
+    /**
+     * @return ETag da resposta, ou null se o servidor não enviou nenhuma
+     */
+    public String getEtag() { return etag; }
+}
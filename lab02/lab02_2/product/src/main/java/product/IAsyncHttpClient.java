@@ -0,0 +1,13 @@
+package product;
+
+import java.util.concurrent.CompletableFuture;
+
+public interface IAsyncHttpClient {
+    /**
+     * Executa uma requisição HTTP GET sem bloquear a thread que a pede
+     * @param url URL para fazer a requisição
+     * @return futuro com o corpo da resposta em bytes; completa com erro se o pedido falhar
+     *         ou a resposta não for 2xx. Cancelar o futuro cancela o pedido.
+     */
+    CompletableFuture<byte[]> doHttpGetAsync(String url);
+}
@@ -7,4 +7,16 @@ public interface ISimpleHttpClient {
      * @return conteúdo da resposta como String (JSON)
      */
     String doHttpGet(String url);
-}
\ No newline at end of file
+
+    /**
+     * Executa um GET condicional (If-None-Match)
+     *
+     * Por omissão não há revalidação: faz sempre um GET completo e a resposta vem sem ETag.
+     * @param url URL para fazer a requisição
+     * @param etag ETag da versão em cache, ou null para um GET normal
+     * @return 304 se a versão em cache continua válida, ou o corpo novo
+     */
+    default ConditionalResponse doConditionalHttpGet(String url, String etag) {
+        return ConditionalResponse.modified(doHttpGet(url), null);
+    }
+}
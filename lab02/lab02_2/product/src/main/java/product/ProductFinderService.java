@@ -1,6 +1,14 @@
 package product;
 
+import java.time.Duration;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 
@@ -8,7 +16,14 @@ public class ProductFinderService {
     
     private static final String API_BASE_URL = "https://fakestoreapi.com/products/";
     
+    // valores por omissão da pesquisa em lote (todos os pedidos vão para o mesmo host)
+    private static final int DEFAULT_MAX_CONCURRENCY = 8;
+    private static final Duration DEFAULT_REQUEST_TIMEOUT = Duration.ofSeconds(10);
+    private static final Duration DEFAULT_DEADLINE = Duration.ofSeconds(15);
+    
     private final ISimpleHttpClient httpClient;
+    // só para as versões não bloqueantes; null se o serviço só tiver o cliente síncrono
+    private final IAsyncHttpClient asyncHttpClient;
     private final ObjectMapper objectMapper;
     
     /**
@@ -20,6 +35,21 @@ public class ProductFinderService {
             throw new IllegalArgumentException("HttpClient cannot be null");
         }
         this.httpClient = httpClient;
+        this.asyncHttpClient = null;
+        this.objectMapper = new ObjectMapper();
+    }
+    
+    /**
+     * Construtor com Dependency Injection, também para as pesquisas não bloqueantes
+     * @param httpClient cliente HTTP para fazer requisições
+     * @param asyncHttpClient cliente HTTP assíncrono, usado por findProductDetailsAsync
+     */
+    public ProductFinderService(ISimpleHttpClient httpClient, IAsyncHttpClient asyncHttpClient) {
+        if (httpClient == null || asyncHttpClient == null) {
+            throw new IllegalArgumentException("HttpClient cannot be null");
+        }
+        this.httpClient = httpClient;
+        this.asyncHttpClient = asyncHttpClient;
         this.objectMapper = new ObjectMapper();
     }
     
@@ -61,4 +91,169 @@ public class ProductFinderService {
             return Optional.empty();
         }
     }
+    
+    /**
+     * Busca vários produtos de uma vez, com os valores por omissão: 8 pedidos em simultâneo,
+     * 10 s por pedido e 15 s para o lote inteiro
+     * 
+     * @see #findProductDetails(Collection, int, Duration, Duration)
+     */
+    public Map<Integer, Product> findProductDetails(Collection<Integer> ids) {
+        return findProductDetails(ids, DEFAULT_MAX_CONCURRENCY, DEFAULT_REQUEST_TIMEOUT, DEFAULT_DEADLINE);
+    }
+    
+    /**
+     * Busca vários produtos em paralelo
+     * 
+     * IDs repetidos são pedidos uma só vez e IDs inválidos (≤ 0) não fazem chamada HTTP.
+     * Cada pedido corre numa virtual thread, mas nunca há mais de maxConcurrency pedidos
+     * ao host em simultâneo. O tempo total fica próximo da latência do pedido mais lento,
+     * em vez da soma de todas.
+     * 
+     * @param ids IDs dos produtos
+     * @param maxConcurrency máximo de pedidos em curso ao mesmo tempo
+     * @param requestTimeout tempo limite de cada pedido, contado a partir do momento em que arranca
+     * @param deadline tempo limite do lote: os pedidos ainda em curso são interrompidos
+     * @return produtos encontrados por ID, pela ordem dos pedidos; os IDs que não existem,
+     *         falharam ou não responderam a tempo ficam de fora
+     */
+    public Map<Integer, Product> findProductDetails(Collection<Integer> ids, int maxConcurrency,
+                                                    Duration requestTimeout, Duration deadline) {
+        if (ids == null) {
+            throw new IllegalArgumentException("Ids cannot be null");
+        }
+        if (maxConcurrency <= 0) {
+            throw new IllegalArgumentException("maxConcurrency must be positive");
+        }
+        if (requestTimeout.isNegative() || requestTimeout.isZero() || deadline.isNegative() || deadline.isZero()) {
+            throw new IllegalArgumentException("Timeouts must be positive");
+        }
+        
+        // os pedidos seguem pelo mesmo caminho que a versão assíncrona, sobre o cliente bloqueante
+        try (BoundedHttpClient bounded = new BoundedHttpClient(httpClient, maxConcurrency, requestTimeout)) {
+            Map<Integer, CompletableFuture<Optional<Product>>> lookups = lookupAll(ids, bounded);
+            try {
+                CompletableFuture.allOf(lookups.values().toArray(new CompletableFuture<?>[0]))
+                        .get(deadline.toNanos(), TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException | TimeoutException e) {
+                // pedidos que passaram do prazo ficam simplesmente de fora
+            }
+            // ao fechar, o cliente interrompe o que ainda estiver em curso depois do prazo
+            return found(lookups);
+        }
+    }
+    
+    /**
+     * Versão não bloqueante de {@link #findProductDetails(int)}
+     * 
+     * O pedido segue pelo cliente assíncrono e o JSON é lido diretamente dos bytes da
+     * resposta, sem ocupar nenhuma thread à espera da rede. Cancelar o futuro devolvido
+     * cancela o pedido HTTP.
+     * 
+     * @param id ID do produto na API
+     * @return futuro que só falha se for cancelado: completa com o produto, ou com empty
+     *         nos mesmos casos que a versão síncrona
+     * @throws IllegalStateException se o serviço não tiver cliente assíncrono
+     */
+    public CompletableFuture<Optional<Product>> findProductDetailsAsync(int id) {
+        return lookup(id, requireAsyncClient());
+    }
+    
+    /**
+     * Versão não bloqueante da pesquisa em lote
+     * 
+     * Todos os pedidos são lançados de uma vez; quantos correm em simultâneo é decidido
+     * pelo cliente assíncrono (no {@link AsyncHttpClient}, pelos limites do Dispatcher).
+     * Cancelar o futuro devolvido cancela todos os pedidos que ainda estejam por acabar.
+     * 
+     * @param ids IDs dos produtos (repetidos e inválidos são tratados como na versão síncrona)
+     * @return futuro com os produtos encontrados por ID, pela ordem dos pedidos
+     * @throws IllegalStateException se o serviço não tiver cliente assíncrono
+     */
+    public CompletableFuture<Map<Integer, Product>> findProductDetailsAsync(Collection<Integer> ids) {
+        if (ids == null) {
+            throw new IllegalArgumentException("Ids cannot be null");
+        }
+        
+        Map<Integer, CompletableFuture<Optional<Product>>> lookups = lookupAll(ids, requireAsyncClient());
+        CompletableFuture<Map<Integer, Product>> products =
+                CompletableFuture.allOf(lookups.values().toArray(new CompletableFuture<?>[0]))
+                        .thenApply(done -> found(lookups));
+        products.whenComplete((found, error) -> {
+            if (products.isCancelled()) {
+                lookups.values().forEach(lookup -> lookup.cancel(true));
+            }
+        });
+        return products;
+    }
+    
+    private IAsyncHttpClient requireAsyncClient() {
+        if (asyncHttpClient == null) {
+            throw new IllegalStateException("Async HttpClient not configured");
+        }
+        return asyncHttpClient;
+    }
+    
+    /**
+     * Lança um pedido por ID válido, sem repetições, pela ordem dos IDs
+     */
+    private Map<Integer, CompletableFuture<Optional<Product>>> lookupAll(Collection<Integer> ids,
+                                                                         IAsyncHttpClient asyncHttpClient) {
+        Map<Integer, CompletableFuture<Optional<Product>>> lookups = new LinkedHashMap<>();
+        for (Integer id : ids) {
+            if (id != null && id > 0 && !lookups.containsKey(id)) {
+                lookups.put(id, lookup(id, asyncHttpClient));
+            }
+        }
+        return lookups;
+    }
+    
+    private CompletableFuture<Optional<Product>> lookup(int id, IAsyncHttpClient asyncHttpClient) {
+        if (id <= 0) {
+            return CompletableFuture.completedFuture(Optional.empty());
+        }
+        
+        CompletableFuture<byte[]> response;
+        try {
+            response = asyncHttpClient.doHttpGetAsync(API_BASE_URL + id);
+        } catch (RuntimeException e) {
+            return CompletableFuture.completedFuture(Optional.empty());
+        }
+        CompletableFuture<Optional<Product>> product =
+                response.handle((body, error) -> error != null ? Optional.empty() : parse(body));
+        // o futuro devolvido não é o do cliente: o cancelamento tem de ser reencaminhado
+        product.whenComplete((found, error) -> {
+            if (product.isCancelled()) {
+                response.cancel(true);
+            }
+        });
+        return product;
+    }
+    
+    /**
+     * Produtos dos pedidos que já completaram, pela ordem dos pedidos
+     */
+    private static Map<Integer, Product> found(Map<Integer, CompletableFuture<Optional<Product>>> lookups) {
+        Map<Integer, Product> products = new LinkedHashMap<>();
+        lookups.forEach((id, lookup) -> {
+            if (lookup.isDone() && !lookup.isCompletedExceptionally()) {
+                lookup.join().ifPresent(product -> products.put(id, product));
+            }
+        });
+        return products;
+    }
+    
+    private Optional<Product> parse(byte[] json) {
+        if (json == null || json.length == 0) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(objectMapper.readValue(json, Product.class));
+        } catch (Exception e) {
+            // JSON vazio ou inválido: tratado como produto inexistente
+            return Optional.empty();
+        }
+    }
 }
\ No newline at end of file
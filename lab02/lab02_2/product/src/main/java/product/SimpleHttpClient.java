@@ -1,8 +1,10 @@
 package product;
 
+import okhttp3.Cache;
 import okhttp3.OkHttpClient;
 import okhttp3.Request;
 import okhttp3.Response;
+import java.io.File;
 import java.io.IOException;
 import java.util.concurrent.TimeUnit;
 
@@ -24,6 +26,24 @@ public class SimpleHttpClient implements ISimpleHttpClient {
                 .build();
     }
     
+    /**
+     * Construtor com cache HTTP em disco (OkHttp {@link Cache}): as respostas persistem
+     * entre execuções e são reutilizadas segundo os cabeçalhos Cache-Control do servidor
+     *
+     * @param cacheDirectory diretório onde guardar as respostas
+     * @param maxCacheBytes tamanho máximo da cache em disco
+     */
+    public SimpleHttpClient(File cacheDirectory, long maxCacheBytes) {
+        if (cacheDirectory == null || maxCacheBytes <= 0) {
+            throw new IllegalArgumentException("Cache directory and a positive size are required");
+        }
+        this.client = new OkHttpClient.Builder()
+                .connectTimeout(10, TimeUnit.SECONDS)
+                .readTimeout(10, TimeUnit.SECONDS)
+                .cache(new Cache(cacheDirectory, maxCacheBytes))
+                .build();
+    }
+    
     /**
      * Construtor que aceita cliente customizado (útil para testes)
      */
@@ -59,4 +79,37 @@ public class SimpleHttpClient implements ISimpleHttpClient {
             throw new RuntimeException("Failed to execute HTTP GET: " + e.getMessage(), e);
         }
     }
+    
+    /**
+     * Executa um GET condicional, enviando If-None-Match quando há ETag
+     * 
+     * @param url URL completa para fazer a requisição
+     * @param etag ETag da versão em cache, ou null para um GET normal
+     * @return notModified() se o servidor responder 304, senão o corpo e a ETag recebidos
+     * @throws RuntimeException se houver erro na requisição
+     */
+    @Override
+    public ConditionalResponse doConditionalHttpGet(String url, String etag) {
+        Request.Builder builder = new Request.Builder()
+                .url(url)
+                .get();
+        if (etag != null) {
+            builder.header("If-None-Match", etag);
+        }
+        
+        try (Response response = client.newCall(builder.build()).execute()) {
+            if (response.code() == 304) {
+                return ConditionalResponse.notModified();
+            }
+            if (!response.isSuccessful()) {
+                throw new RuntimeException("HTTP request failed with code: " + response.code());
+            }
+            
+            String body = response.body() != null ? response.body().string() : "";
+            return ConditionalResponse.modified(body, response.header("ETag"));
+            
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to execute HTTP GET: " + e.getMessage(), e);
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,221 @@
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import okhttp3.Call;
+import okhttp3.EventListener;
+import okhttp3.HttpUrl;
+import okhttp3.Interceptor;
+import okhttp3.OkHttpClient;
+import product.AsyncHttpClient;
+import product.IAsyncHttpClient;
+import product.Product;
+import product.ProductFinderService;
+
+/**
+ * Testes do AsyncHttpClient contra um servidor HTTP local (com.sun.net.httpserver),
+ * para exercitar o OkHttp a sério sem depender da API externa
+ */
+class AsyncHttpClientTest {
+
+    // produto que só responde quando o teste acabar
+    private static final int SLOW_ID = 1000;
+
+    private HttpServer server;
+    private final CountDownLatch releaseSlow = new CountDownLatch(1);
+
+    @BeforeEach
+    void setUp() throws IOException {
+        // produtos 1..75 existem; os outros dão 404
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/products/", this::handle);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        releaseSlow.countDown();
+        server.stop(0);
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            String path = exchange.getRequestURI().getPath();
+            int id = Integer.parseInt(path.substring(path.lastIndexOf('/') + 1));
+            if (id == SLOW_ID) {
+                releaseSlow.await();
+            }
+            if (id > 75) {
+                exchange.sendResponseHeaders(404, -1);
+                return;
+            }
+            byte[] body = String.format("{\"id\": %d, \"title\": \"Product %d\", \"price\": 9.99}", id, id)
+                    .getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private IAsyncHttpClient localClient(int maxRequestsPerHost) {
+        return localClient(maxRequestsPerHost, new ConcurrencyProbe(1), EventListener.NONE);
+    }
+
+    /**
+     * Cliente que reencaminha os pedidos à fakestoreapi para o servidor local e conta
+     * quantos estão em curso ao mesmo tempo
+     */
+    private IAsyncHttpClient localClient(int maxRequestsPerHost, ConcurrencyProbe probe, EventListener events) {
+        Interceptor toLocalServer = chain -> probe.run(() -> {
+            HttpUrl local = chain.request().url().newBuilder()
+                    .scheme("http")
+                    .host(server.getAddress().getAddress().getHostAddress())
+                    .port(server.getAddress().getPort())
+                    .build();
+            return chain.proceed(chain.request().newBuilder().url(local).build());
+        });
+        OkHttpClient client = new OkHttpClient.Builder().addInterceptor(toLocalServer).eventListener(events).build();
+        client.dispatcher().setMaxRequestsPerHost(maxRequestsPerHost);
+        return new AsyncHttpClient(client);
+    }
+
+    /**
+     * Serviço que só pode usar o cliente assíncrono
+     */
+    private static ProductFinderService serviceWith(IAsyncHttpClient asyncHttpClient) {
+        return new ProductFinderService(url -> {
+            throw new AssertionError("the synchronous client must not be used");
+        }, asyncHttpClient);
+    }
+
+    // ============= TESTES DO doHttpGetAsync() =============
+
+    @Test
+    void doHttpGetAsync_WithExistingResource_ReturnsBody() {
+        // Act
+        byte[] body = localClient(5).doHttpGetAsync("https://fakestoreapi.com/products/3").join();
+
+        // Assert
+        assertThat(new String(body, StandardCharsets.UTF_8)).contains("\"title\": \"Product 3\"");
+    }
+
+    @Test
+    void doHttpGetAsync_WithErrorStatus_CompletesExceptionally() {
+        assertThatThrownBy(() -> localClient(5).doHttpGetAsync("https://fakestoreapi.com/products/404").join())
+                .hasCauseInstanceOf(RuntimeException.class)
+                .hasRootCauseMessage("HTTP request failed with code: 404");
+    }
+
+    @Test
+    void constructor_WithInvalidLimits_ThrowsException() {
+        assertThatThrownBy(() -> new AsyncHttpClient(0, 5))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Request limits must be positive");
+    }
+
+    // ============= TESTES DO findProductDetailsAsync() =============
+
+    @Test
+    void findProductDetailsAsync_EndToEnd_ParsesProduct() {
+        // Arrange
+        ProductFinderService service = serviceWith(localClient(5));
+
+        // Act
+        Optional<Product> found = service.findProductDetailsAsync(3).join();
+        Optional<Product> missing = service.findProductDetailsAsync(404).join();
+
+        // Assert
+        assertThat(found).isPresent();
+        assertThat(found.get().getTitle()).isEqualTo("Product 3");
+        assertThat(missing).isEmpty();
+        assertThat(service.findProductDetailsAsync(0).join()).isEmpty();
+    }
+
+    @Test
+    void findProductDetailsAsync_WithManyIds_RunsExactlyPerHostLimitAtOnce() {
+        // Arrange - 100 IDs, dos quais 25 não existem; cada pedido espera que 4 estejam em curso
+        List<Integer> ids = IntStream.rangeClosed(1, 100).boxed().toList();
+        ConcurrencyProbe probe = new ConcurrencyProbe(4);
+        ProductFinderService service = serviceWith(localClient(4, probe, EventListener.NONE));
+
+        // Act
+        Map<Integer, Product> products = service.findProductDetailsAsync(ids).join();
+
+        // Assert - todos os pedidos ficaram na fila do Dispatcher, 4 de cada vez: nem mais, nem menos
+        assertThat(products).hasSize(75);
+        assertThat(products.get(42).getId()).isEqualTo(42);
+        assertThat(probe.maxRunning()).isEqualTo(4);
+    }
+
+    @Test
+    void findProductDetailsAsync_WhenCancelled_CancelsHttpCalls() throws InterruptedException {
+        // Arrange
+        CountDownLatch canceled = new CountDownLatch(2);
+        EventListener events = new EventListener() {
+            @Override
+            public void canceled(Call call) {
+                canceled.countDown();
+            }
+        };
+        ProductFinderService service = serviceWith(localClient(5, new ConcurrencyProbe(1), events));
+        CompletableFuture<Optional<Product>> single = service.findProductDetailsAsync(SLOW_ID);
+        CompletableFuture<Map<Integer, Product>> batch = service.findProductDetailsAsync(List.of(SLOW_ID));
+
+        // Act
+        single.cancel(true);
+        batch.cancel(true);
+
+        // Assert - os dois pedidos ao OkHttp foram cancelados
+        assertThat(canceled.await(5, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    void findProductDetailsAsync_WithFailingClient_ReturnsEmpty() {
+        // Arrange
+        ProductFinderService service =
+                serviceWith(url -> CompletableFuture.failedFuture(new RuntimeException("Network error")));
+
+        // Act & Assert
+        assertThat(service.findProductDetailsAsync(1).join()).isEmpty();
+        assertThat(service.findProductDetailsAsync(List.of(1, 2)).join()).isEmpty();
+    }
+
+    @Test
+    void findProductDetailsAsync_WithoutAsyncClient_ThrowsException() {
+        // Arrange
+        ProductFinderService syncOnly = new ProductFinderService(url -> "");
+
+        // Act & Assert
+        assertThatThrownBy(() -> syncOnly.findProductDetailsAsync(1))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("Async HttpClient not configured");
+        assertThatThrownBy(() -> new ProductFinderService(url -> "", null))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("HttpClient cannot be null");
+    }
+}
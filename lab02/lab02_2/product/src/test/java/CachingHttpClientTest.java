@@ -0,0 +1,159 @@
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import product.CachingHttpClient;
+import product.ConditionalResponse;
+import product.ISimpleHttpClient;
+import product.Product;
+import product.ProductFinderService;
+
+@ExtendWith(MockitoExtension.class)
+class CachingHttpClientTest {
+
+    private static final String PRODUCT_3_URL = "https://fakestoreapi.com/products/3";
+    private static final String PRODUCT_3_JSON = """
+        {"id": 3, "title": "Mens Cotton Jacket", "price": 55.99}
+        """;
+
+    @Mock
+    private ISimpleHttpClient upstream;
+
+    // relógio controlado pelo teste, em nanossegundos
+    private final AtomicLong now = new AtomicLong();
+
+    private CachingHttpClient cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new CachingHttpClient(upstream, 2, Duration.ofSeconds(60), now::get);
+    }
+
+    // ============= TESTES DO TTL =============
+
+    @Test
+    void doHttpGet_WithinTtl_ServesFromMemory() {
+        // Arrange
+        when(upstream.doConditionalHttpGet(PRODUCT_3_URL, null))
+                .thenReturn(ConditionalResponse.modified(PRODUCT_3_JSON, "\"v1\""));
+        ProductFinderService service = new ProductFinderService(cache);
+
+        // Act
+        Optional<Product> first = service.findProductDetails(3);
+        now.addAndGet(Duration.ofSeconds(59).toNanos());
+        Optional<Product> second = service.findProductDetails(3);
+
+        // Assert - uma só ida à rede
+        assertThat(first).isPresent();
+        assertThat(second.get().getTitle()).isEqualTo("Mens Cotton Jacket");
+        verify(upstream).doConditionalHttpGet(PRODUCT_3_URL, null);
+        verifyNoMoreInteractions(upstream);
+    }
+
+    // ============= TESTES DA REVALIDAÇÃO =============
+
+    @Test
+    void doHttpGet_AfterTtl_RevalidatesWithEtag() {
+        // Arrange
+        when(upstream.doConditionalHttpGet(PRODUCT_3_URL, null))
+                .thenReturn(ConditionalResponse.modified(PRODUCT_3_JSON, "\"v1\""));
+        when(upstream.doConditionalHttpGet(PRODUCT_3_URL, "\"v1\""))
+                .thenReturn(ConditionalResponse.notModified());
+        cache.doHttpGet(PRODUCT_3_URL);
+
+        // Act - expira, o servidor responde 304 e a entrada volta a valer mais 60 s
+        now.addAndGet(Duration.ofSeconds(61).toNanos());
+        String revalidated = cache.doHttpGet(PRODUCT_3_URL);
+        now.addAndGet(Duration.ofSeconds(30).toNanos());
+        String fresh = cache.doHttpGet(PRODUCT_3_URL);
+
+        // Assert
+        assertThat(revalidated).isEqualTo(PRODUCT_3_JSON);
+        assertThat(fresh).isEqualTo(PRODUCT_3_JSON);
+        verify(upstream).doConditionalHttpGet(PRODUCT_3_URL, null);
+        verify(upstream).doConditionalHttpGet(PRODUCT_3_URL, "\"v1\"");
+        verifyNoMoreInteractions(upstream);
+    }
+
+    @Test
+    void doHttpGet_WhenResourceChanged_ReplacesEntry() {
+        // Arrange
+        String updated = PRODUCT_3_JSON.replace("55.99", "49.99");
+        when(upstream.doConditionalHttpGet(PRODUCT_3_URL, null))
+                .thenReturn(ConditionalResponse.modified(PRODUCT_3_JSON, "\"v1\""));
+        when(upstream.doConditionalHttpGet(PRODUCT_3_URL, "\"v1\""))
+                .thenReturn(ConditionalResponse.modified(updated, "\"v2\""));
+        cache.doHttpGet(PRODUCT_3_URL);
+
+        // Act
+        now.addAndGet(Duration.ofSeconds(61).toNanos());
+        String result = cache.doHttpGet(PRODUCT_3_URL);
+
+        // Assert
+        assertThat(result).isEqualTo(updated);
+        assertThat(cache.doHttpGet(PRODUCT_3_URL)).isEqualTo(updated);
+    }
+
+    // ============= TESTES DOS LIMITES =============
+
+    @Test
+    void doHttpGet_WhenFull_EvictsLeastRecentlyUsed() {
+        // Arrange
+        when(upstream.doConditionalHttpGet("u1", null)).thenReturn(ConditionalResponse.modified("a", null));
+        when(upstream.doConditionalHttpGet("u2", null)).thenReturn(ConditionalResponse.modified("b", null));
+        when(upstream.doConditionalHttpGet("u3", null)).thenReturn(ConditionalResponse.modified("c", null));
+
+        // Act - u1 é usado depois de u2, por isso é u2 que sai
+        cache.doHttpGet("u1");
+        cache.doHttpGet("u2");
+        cache.doHttpGet("u1");
+        cache.doHttpGet("u3");
+        cache.doHttpGet("u1");
+        cache.doHttpGet("u2");
+
+        // Assert
+        assertThat(cache.size()).isEqualTo(2);
+        verify(upstream).doConditionalHttpGet("u1", null);
+        verify(upstream, times(2)).doConditionalHttpGet("u2", null);
+        verify(upstream).doConditionalHttpGet("u3", null);
+    }
+
+    @Test
+    void doHttpGet_WithEmptyResponse_DoesNotCache() {
+        // Arrange
+        when(upstream.doConditionalHttpGet("u1", null)).thenReturn(ConditionalResponse.modified("", null));
+
+        // Act
+        cache.doHttpGet("u1");
+        cache.doHttpGet("u1");
+
+        // Assert
+        assertThat(cache.size()).isZero();
+        verify(upstream, times(2)).doConditionalHttpGet("u1", null);
+    }
+
+    @Test
+    void constructor_WithInvalidArguments_ThrowsException() {
+        assertThatThrownBy(() -> new CachingHttpClient(null, 1, Duration.ofSeconds(1)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("HttpClient cannot be null");
+        assertThatThrownBy(() -> new CachingHttpClient(upstream, 0, Duration.ofSeconds(1)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("maxEntries must be positive");
+        assertThatThrownBy(() -> new CachingHttpClient(upstream, 1, Duration.ofSeconds(-1)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("ttl cannot be negative");
+    }
+}
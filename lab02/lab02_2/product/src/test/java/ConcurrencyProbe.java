@@ -0,0 +1,46 @@
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Conta quantos pedidos estão em curso ao mesmo tempo, para os testes de concorrência
+ *
+ * Cada pedido espera (até 5 s) que tenham chegado pelo menos {@code gathering} pedidos
+ * antes de prosseguir: o máximo registado mostra assim o limite de concorrência, e não
+ * a rapidez com que cada pedido acaba.
+ */
+final class ConcurrencyProbe {
+
+    @FunctionalInterface
+    interface Work<T, E extends Exception> {
+        T run() throws E;
+    }
+
+    private final AtomicInteger running = new AtomicInteger();
+    private final AtomicInteger maxRunning = new AtomicInteger();
+    private final CountDownLatch gathered;
+
+    ConcurrencyProbe(int gathering) {
+        this.gathered = new CountDownLatch(gathering);
+    }
+
+    <T, E extends Exception> T run(Work<T, E> work) throws E {
+        maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+        try {
+            gathered.countDown();
+            try {
+                gathered.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+            return work.run();
+        } finally {
+            running.decrementAndGet();
+        }
+    }
+
+    int maxRunning() {
+        return maxRunning.get();
+    }
+}
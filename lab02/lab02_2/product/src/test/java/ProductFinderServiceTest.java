@@ -1,4 +1,10 @@
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -7,6 +13,7 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import static org.mockito.ArgumentMatchers.anyString;
 import org.mockito.Mock;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
@@ -142,4 +149,101 @@ class ProductFinderServiceTest {
         // Assert
         assertThat(result).isEmpty();
     }
+    
+    // ========== TESTES DA PESQUISA EM LOTE ==========
+    
+    @Test
+    void findProductDetailsBatch_DeduplicatesAndSkipsMissingProducts() {
+        // Arrange
+        when(httpClient.doHttpGet("https://fakestoreapi.com/products/3")).thenReturn(PRODUCT_3_JSON);
+        when(httpClient.doHttpGet("https://fakestoreapi.com/products/300")).thenReturn("");
+        
+        // Act
+        Map<Integer, Product> result = service.findProductDetails(List.of(3, 300, 3, -1, 0));
+        
+        // Assert - um só pedido por ID válido
+        assertThat(result).containsOnlyKeys(3);
+        assertThat(result.get(3).getTitle()).isEqualTo("Mens Cotton Jacket");
+        verify(httpClient, times(1)).doHttpGet("https://fakestoreapi.com/products/3");
+        verify(httpClient, times(1)).doHttpGet("https://fakestoreapi.com/products/300");
+        verifyNoMoreInteractions(httpClient);
+    }
+    
+    @Test
+    void findProductDetailsBatch_RunsConcurrentlyWithinLimit() {
+        // Arrange - cada pedido espera que 10 estejam em curso: em série o lote nunca passaria do primeiro
+        ConcurrencyProbe probe = new ConcurrencyProbe(10);
+        when(httpClient.doHttpGet(anyString())).thenAnswer(invocation -> probe.run(() -> {
+            String url = invocation.getArgument(0);
+            return PRODUCT_3_JSON.replace("\"id\": 3", "\"id\": " + url.substring(url.lastIndexOf('/') + 1));
+        }));
+        List<Integer> ids = IntStream.rangeClosed(1, 20).boxed().toList();
+        
+        // Act
+        Map<Integer, Product> result = service.findProductDetails(ids, 10, Duration.ofSeconds(10), Duration.ofSeconds(10));
+        
+        // Assert - exatamente 10 pedidos ao mesmo tempo, nunca mais
+        assertThat(result).hasSize(20);
+        assertThat(result.keySet()).containsExactlyElementsOf(ids);
+        assertThat(result.get(7).getId()).isEqualTo(7);
+        assertThat(probe.maxRunning()).isEqualTo(10);
+    }
+    
+    @Test
+    void findProductDetailsBatch_WhenRequestTimesOut_LeavesItOut() {
+        // Arrange - o produto 5 nunca responde
+        CountDownLatch never = new CountDownLatch(1);
+        when(httpClient.doHttpGet("https://fakestoreapi.com/products/3")).thenReturn(PRODUCT_3_JSON);
+        when(httpClient.doHttpGet("https://fakestoreapi.com/products/5")).thenAnswer(invocation -> {
+            never.await();
+            return PRODUCT_3_JSON;
+        });
+        
+        // Act
+        long start = System.nanoTime();
+        Map<Integer, Product> result = service.findProductDetails(List.of(3, 5), 2, Duration.ofMillis(200), Duration.ofSeconds(10));
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        
+        // Assert - cortado pelo tempo limite do pedido, não pelo do lote
+        assertThat(result).containsOnlyKeys(3);
+        assertThat(elapsedMillis).isLessThan(5_000);
+    }
+    
+    @Test
+    void findProductDetailsBatch_WhenDeadlinePasses_ReturnsWhatArrivedAndInterruptsTheRest() throws InterruptedException {
+        // Arrange - o produto 3 responde logo; o 4 fica preso até ser interrompido
+        CountDownLatch never = new CountDownLatch(1);
+        CountDownLatch interrupted = new CountDownLatch(1);
+        when(httpClient.doHttpGet("https://fakestoreapi.com/products/3")).thenReturn(PRODUCT_3_JSON);
+        when(httpClient.doHttpGet("https://fakestoreapi.com/products/4")).thenAnswer(invocation -> {
+            try {
+                never.await();
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+                throw e;
+            }
+            return PRODUCT_3_JSON;
+        });
+        
+        // Act - o tempo limite do pedido é muito maior do que o do lote
+        Map<Integer, Product> result = service.findProductDetails(List.of(3, 4), 2, Duration.ofSeconds(30), Duration.ofMillis(500));
+        
+        // Assert
+        assertThat(result).containsOnlyKeys(3);
+        assertThat(interrupted.await(5, TimeUnit.SECONDS)).isTrue();
+    }
+    
+    @Test
+    void findProductDetailsBatch_WithInvalidArguments_ThrowsException() {
+        assertThatThrownBy(() -> service.findProductDetails((List<Integer>) null))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Ids cannot be null");
+        assertThatThrownBy(() -> service.findProductDetails(List.of(1), 0, Duration.ofSeconds(1), Duration.ofSeconds(1)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("maxConcurrency must be positive");
+        assertThatThrownBy(() -> service.findProductDetails(List.of(1), 1, Duration.ZERO, Duration.ofSeconds(1)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Timeouts must be positive");
+        verifyNoInteractions(httpClient);
+    }
 }
\ No newline at end of file
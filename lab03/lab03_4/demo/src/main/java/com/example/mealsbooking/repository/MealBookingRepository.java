@@ -4,7 +4,11 @@ import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.example.mealsbooking.entity.MealBooking;
 
@@ -12,8 +16,21 @@ import com.example.mealsbooking.entity.MealBooking;
 public interface MealBookingRepository extends JpaRepository<MealBooking, Long> {
     
     Optional<MealBooking> findByToken(String token);
+
+    boolean existsByToken(String token);
     
     List<MealBooking> findByStudentId(String studentId);
     
     List<MealBooking> findByServiceShift(String serviceShift);
+
+    // Both transitions only apply to an active booking; 0 rows means it was not
+    @Transactional
+    @Modifying
+    @Query("UPDATE MealBooking m SET m.used = true WHERE m.token = :token AND m.used = false AND m.cancelled = false")
+    int markAsUsedByToken(@Param("token") String token);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE MealBooking m SET m.cancelled = true WHERE m.token = :token AND m.used = false AND m.cancelled = false")
+    int cancelByToken(@Param("token") String token);
 }
\ No newline at end of file
@@ -3,9 +3,9 @@ package com.example.mealsbooking.services;
 import com.example.mealsbooking.entity.MealBooking;
 import com.example.mealsbooking.repository.MealBookingRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import java.util.Optional;
-import java.util.UUID;
 import java.util.List;
 
 @Service
@@ -13,8 +13,12 @@ public class MealBookingServiceImpl {
     
     @Autowired
     private MealBookingRepository mealBookingRepository;
+
+    @Autowired
+    private TokenGenerator tokenGenerator;
     
     private static final int DEFAULT_CAPACITY = 100;
+    private static final int MAX_TOKEN_ATTEMPTS = 3;
     
     public MealBooking bookMeal(String studentId, String serviceShift) {
         validateBookingRequest(studentId, serviceShift);
@@ -30,10 +34,20 @@ public class MealBookingServiceImpl {
             throw new IllegalStateException("No available spots for this shift");
         }
         
-        String token = UUID.randomUUID().toString().substring(0, 8);
-        
-        MealBooking booking = new MealBooking(token, studentId, serviceShift);
-        return mealBookingRepository.save(booking);
+        for (int attempt = 1; ; attempt++) {
+            String token = tokenGenerator.nextToken();
+            try {
+                return mealBookingRepository.save(new MealBooking(token, studentId, serviceShift));
+            } catch (DataIntegrityViolationException e) {
+                // Only a clash on the unique token column is worth retrying
+                if (!mealBookingRepository.existsByToken(token)) {
+                    throw e;
+                }
+                if (attempt == MAX_TOKEN_ATTEMPTS) {
+                    throw new IllegalStateException("Could not allocate a unique booking token");
+                }
+            }
+        }
     }
     
     public Optional<MealBooking> getReservation(String token) {
@@ -48,33 +62,11 @@ public class MealBookingServiceImpl {
     }
     
     public boolean checkIn(String token) {
-        Optional<MealBooking> reservation = mealBookingRepository.findByToken(token);
-        
-        if (reservation.isEmpty() || 
-            reservation.get().isUsed() || 
-            reservation.get().isCancelled()) {
-            return false;
-        }
-        
-        MealBooking booking = reservation.get();
-        booking.markAsUsed();
-        mealBookingRepository.save(booking);
-        return true;
+        return mealBookingRepository.markAsUsedByToken(token) == 1;
     }
     
     public boolean cancelReservation(String token) {
-        Optional<MealBooking> reservation = mealBookingRepository.findByToken(token);
-        
-        if (reservation.isEmpty() || 
-            reservation.get().isUsed() || 
-            reservation.get().isCancelled()) {
-            return false;
-        }
-        
-        MealBooking booking = reservation.get();
-        booking.cancel();
-        mealBookingRepository.save(booking);
-        return true;
+        return mealBookingRepository.cancelByToken(token) == 1;
     }
     
     public int getAvailableSpots(String shift) {
@@ -0,0 +1,22 @@
+package com.example.mealsbooking.services;
+
+import org.springframework.stereotype.Component;
+
+import com.example.bookingtokens.KeyedTokenSequence;
+
+/**
+ * Unforgeable booking tokens without a shared lock or SecureRandom call per token:
+ * per-thread counters passed through a secret-keyed PRF (see {@link KeyedTokenSequence}).
+ * Two tokens can still clash, very rarely, and so can tokens from different instances,
+ * which is why the service retries against the unique token column.
+ */
+@Component
+public class SequenceTokenGenerator implements TokenGenerator {
+
+    private final KeyedTokenSequence tokens = new KeyedTokenSequence();
+
+    @Override
+    public String nextToken() {
+        return tokens.nextString();
+    }
+}
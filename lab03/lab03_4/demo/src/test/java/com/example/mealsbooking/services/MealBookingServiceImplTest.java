@@ -0,0 +1,84 @@
+package com.example.mealsbooking.services;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import static org.mockito.ArgumentMatchers.any;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import org.springframework.dao.DataIntegrityViolationException;
+
+import com.example.mealsbooking.entity.MealBooking;
+import com.example.mealsbooking.repository.MealBookingRepository;
+
+@ExtendWith(MockitoExtension.class)
+class MealBookingServiceImplTest {
+
+    @Mock
+    private MealBookingRepository mealBookingRepository;
+
+    @Mock
+    private TokenGenerator tokenGenerator;
+
+    @InjectMocks
+    private MealBookingServiceImpl mealBookingService;
+
+    @Test
+    void whenGeneratedTokenClashes_thenRetryWithFreshToken() {
+        // Arrange
+        MealBooking saved = new MealBooking("FRESH", "student123", "lunch");
+        when(mealBookingRepository.findByServiceShift("lunch")).thenReturn(List.of());
+        when(tokenGenerator.nextToken()).thenReturn("CLASH", "FRESH");
+        when(mealBookingRepository.save(any(MealBooking.class)))
+                .thenThrow(new DataIntegrityViolationException("meal_bookings.token"))
+                .thenReturn(saved);
+        when(mealBookingRepository.existsByToken("CLASH")).thenReturn(true);
+
+        // Act
+        MealBooking result = mealBookingService.bookMeal("student123", "lunch");
+
+        // Assert
+        assertSame(saved, result);
+        verify(mealBookingRepository, times(2)).save(any(MealBooking.class));
+    }
+
+    @Test
+    void whenEveryTokenClashes_thenGiveUpWithIllegalState() {
+        // Arrange
+        when(mealBookingRepository.findByServiceShift("lunch")).thenReturn(List.of());
+        when(tokenGenerator.nextToken()).thenReturn("T1", "T2", "T3");
+        when(mealBookingRepository.save(any(MealBooking.class)))
+                .thenThrow(new DataIntegrityViolationException("meal_bookings.token"));
+        when(mealBookingRepository.existsByToken(any())).thenReturn(true);
+
+        // Act & Assert
+        IllegalStateException e = assertThrows(IllegalStateException.class,
+                () -> mealBookingService.bookMeal("student123", "lunch"));
+        assertEquals("Could not allocate a unique booking token", e.getMessage());
+        verify(mealBookingRepository, times(3)).save(any(MealBooking.class));
+    }
+
+    @Test
+    void whenConstraintIsNotTheToken_thenRethrowWithoutRetry() {
+        // Arrange
+        DataIntegrityViolationException violation = new DataIntegrityViolationException("other constraint");
+        when(mealBookingRepository.findByServiceShift("lunch")).thenReturn(List.of());
+        when(tokenGenerator.nextToken()).thenReturn("T1");
+        when(mealBookingRepository.save(any(MealBooking.class))).thenThrow(violation);
+        when(mealBookingRepository.existsByToken("T1")).thenReturn(false);
+
+        // Act & Assert
+        assertSame(violation, assertThrows(DataIntegrityViolationException.class,
+                () -> mealBookingService.bookMeal("student123", "lunch")));
+        verify(mealBookingRepository, times(1)).save(any(MealBooking.class));
+    }
+}
@@ -1,12 +1,27 @@
 package tqsdemo.employeemngr.boundary;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 import tqsdemo.employeemngr.data.Employee;
 import tqsdemo.employeemngr.data.EmployeeDTO;
+import tqsdemo.employeemngr.service.BulkImportReport;
+import tqsdemo.employeemngr.service.EmployeeBulkImporter;
 import tqsdemo.employeemngr.service.EmployeeService;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
 /**
@@ -17,28 +32,106 @@ import java.util.List;
 @RequestMapping("/api")
 public class EmployeeRestController {
 
+    static final int MAX_PAGE_SIZE = 1000;
+    static final String TEXT_CSV_VALUE = "text/csv";
+
     private final EmployeeService employeeService;
 
+    private final EmployeeBulkImporter bulkImporter;
+
+    private final ObjectMapper objectMapper;
+
     /**
      * Using constructor Injection instead of @autowired
      * when using a constructor to set injected properties, you do not have to provide the autowire annotation
      * @param employeeService
+     * @param bulkImporter
+     * @param objectMapper
      */
-    public EmployeeRestController(EmployeeService employeeService) {
+    public EmployeeRestController(EmployeeService employeeService, EmployeeBulkImporter bulkImporter,
+                                  ObjectMapper objectMapper) {
         this.employeeService = employeeService;
+        this.bulkImporter = bulkImporter;
+        this.objectMapper = objectMapper;
     }
 
+    /**
+     * Answers 409 Conflict when the email already belongs to another employee
+     */
     @PostMapping("/employees" )
     public ResponseEntity<Employee> createEmployee(@RequestBody EmployeeDTO employee) {
         HttpStatus status = HttpStatus.CREATED;
-        Employee saved = employeeService.save( employee.toEmployeeEntity() );
+        Employee saved;
+        try {
+            saved = employeeService.save( employee.toEmployeeEntity() );
+        } catch (DataIntegrityViolationException e) {
+            return new ResponseEntity<>(HttpStatus.CONFLICT);
+        }
         return new ResponseEntity<>(saved, status);
     }
 
 
+    /**
+     * Imports many employees at once and reports, per row, what could not be imported
+     * $curl -H "Content-Type: text/csv" --data-binary @employees.csv http://localhost:8080/api/employees/bulk
+     */
+    @PostMapping(path="/employees/bulk", consumes = {TEXT_CSV_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public BulkImportReport importEmployees(@RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+                                            InputStream body) throws IOException {
+        InputStreamReader input = new InputStreamReader(body, StandardCharsets.UTF_8);
+        if (contentType.isCompatibleWith(MediaType.APPLICATION_NDJSON)) {
+            return bulkImporter.importNdjson(input);
+        }
+        return bulkImporter.importCsv(input);
+    }
+
+    /**
+     * One page of employees in id order. Pass the last id seen as "after" to get the
+     * next page; a Link header points to it while pages come back full.
+     */
     @GetMapping(path="/employees" )
-    public List<Employee> getAllEmployees() {
-        return employeeService.getAllEmployees();
+    public ResponseEntity<List<Employee>> getEmployees(
+            @RequestParam(defaultValue = "0") long after,
+            @RequestParam(defaultValue = "100") int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        List<Employee> employees = employeeService.getEmployees(after, pageSize);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (employees.size() == pageSize) {
+            String next = ServletUriComponentsBuilder.fromCurrentRequest()
+                    .replaceQueryParam("after", employees.get(employees.size() - 1).getId())
+                    .replaceQueryParam("limit", pageSize)
+                    .toUriString();
+            response.header(HttpHeaders.LINK, "<" + next + ">; rel=\"next\"");
+        }
+        return response.body(employees);
+    }
+
+    /**
+     * The whole directory as newline-delimited JSON, written row by row while it is read
+     * $curl -H "Accept: application/x-ndjson" http://localhost:8080/api/employees
+     */
+    @GetMapping(path="/employees", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportEmployees() {
+        StreamingResponseBody body = this::writeEmployees;
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+    private void writeEmployees(OutputStream out) throws IOException {
+        try (JsonGenerator json = objectMapper.getFactory().createGenerator(out)) {
+            json.setRootValueSeparator(null);
+            try {
+                employeeService.forEachEmployee(employee -> {
+                    try {
+                        json.writeObject(employee);
+                        json.writeRaw('\n');
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        }
     }
 
 }
@@ -1,18 +1,28 @@
 package tqsdemo.employeemngr.data;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
 
+import java.util.Locale;
+
 @Entity
-@Table(name = "tqs_employee")
+@Table(name = "tqs_employee", indexes = {
+        // id is carried in the index so that name lookups and presence checks never visit the table
+        @Index(name = "idx_tqs_employee_name", columnList = "name, id"),
+        @Index(name = "uk_tqs_employee_email", columnList = "email", unique = true),
+        @Index(name = "idx_tqs_employee_email_domain", columnList = "email_domain")
+})
 public class Employee {
 
     static final int MAX_NAME_SIZE = 60;
 
+    // pooled sequence: one round trip hands out 50 ids, and inserts can be batched
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "tqs_employee_seq")
+    @SequenceGenerator(name = "tqs_employee_seq", sequenceName = "tqs_employee_seq", allocationSize = 50)
     private Long id;
 
     @Size(min = 3, max = MAX_NAME_SIZE)
@@ -22,6 +32,12 @@ public class Employee {
     @Email
     private String email;
 
+    // Email domain with its labels reversed ("deti.ua.pt" -> "pt.ua.deti."), so that
+    // a domain and all its subdomains share one indexable prefix
+    @JsonIgnore
+    @Column(name = "email_domain")
+    private String emailDomain;
+
     public Employee() {
     }
 
@@ -59,4 +75,30 @@ public class Employee {
     public void setEmail(String email) {
         this.email = email;
     }
-}
\ No newline at end of file
+
+    public String getEmailDomain() {
+        return emailDomain;
+    }
+
+    @PrePersist
+    @PreUpdate
+    void updateEmailDomain() {
+        this.emailDomain = email == null ? null : reversedDomain(email);
+    }
+
+    /**
+     * Reversed, dot-terminated domain of an email address or of a bare domain name,
+     * e.g. "bob@deti.ua.pt" and "deti.ua.pt" both give "pt.ua.deti."
+     */
+    public static String reversedDomain(String emailOrDomain) {
+        String domain = emailOrDomain.substring(emailOrDomain.lastIndexOf('@') + 1).toLowerCase(Locale.ROOT);
+        String[] labels = domain.split("\\.");
+        StringBuilder reversed = new StringBuilder(domain.length() + 1);
+        for (int i = labels.length - 1; i >= 0; i--) {
+            if (!labels[i].isEmpty()) {
+                reversed.append(labels[i]).append('.');
+            }
+        }
+        return reversed.toString();
+    }
+}
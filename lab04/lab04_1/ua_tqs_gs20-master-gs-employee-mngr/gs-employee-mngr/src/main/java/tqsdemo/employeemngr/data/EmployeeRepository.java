@@ -1,12 +1,17 @@
 package tqsdemo.employeemngr.data;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * in a production application, you would likely more data access methods
@@ -15,17 +20,60 @@ import java.util.Optional;
 @Repository
 public interface EmployeeRepository extends JpaRepository<Employee, Long> {
 
-    Optional<Employee> findByName(String name);
+    /**
+     * Names are not unique: the first employee registered under the name wins
+     */
+    default Optional<Employee> findByName(String name) {
+        return findFirstByNameOrderByIdAsc(name);
+    }
+
+    /**
+     * Reads the first entry of idx_tqs_employee_name for the name, however many share it
+     */
+    Optional<Employee> findFirstByNameOrderByIdAsc(String name);
+
+    /**
+     * Presence check only: answered from idx_tqs_employee_name, no entity is loaded or mapped
+     */
+    boolean existsByName(String name);
 
 
     /**
-     * Custom query to find employees whose email ends with the given domain.
+     * Custom query to find employees whose email belongs to the given domain or one of its subdomains.
      * Example usage:
      * findEmployeesByOrganizationDomain("ua.pt")
-     * would return all employees with emails like 'someone@ua.pt'.
+     * would return all employees with emails like 'someone@ua.pt' or 'someone@deti.ua.pt'.
      */
-    @Query("SELECT e FROM Employee e WHERE e.email LIKE concat('%', :domain)")
-    List<Employee> findEmployeesByOrganizationDomain(@Param("domain") String domain);
+    default List<Employee> findEmployeesByOrganizationDomain(String domain) {
+        String reversedDomain = Employee.reversedDomain(domain);
+        if (reversedDomain.isEmpty()) {
+            return List.of();
+        }
+        // '_' and '%' in the domain are literal characters, not LIKE wildcards
+        String escaped = reversedDomain.replace("!", "!!").replace("%", "!%").replace("_", "!_");
+        return findByEmailDomainPrefix(escaped);
+    }
 
+    /**
+     * Prefix range scan over idx_tqs_employee_email_domain, see {@link Employee#reversedDomain}.
+     * The prefix must have its LIKE wildcards escaped with '!'.
+     */
+    @Query("SELECT e FROM Employee e WHERE e.emailDomain LIKE concat(:reversedDomain, '%') ESCAPE '!'")
+    List<Employee> findByEmailDomainPrefix(@Param("reversedDomain") String reversedDomain);
+
+    /**
+     * Keyset page: the employees after the last id already seen, in id order.
+     * Walks the primary key index, so every page costs the same however deep it is.
+     */
+    @Query("SELECT e FROM Employee e WHERE e.id > :afterId ORDER BY e.id")
+    List<Employee> findPageAfter(@Param("afterId") long afterId, Limit limit);
+
+    /**
+     * Every employee as a detached DTO, fetched in chunks of 500 rows.
+     * The stream must be consumed inside a transaction and closed afterwards.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT new tqsdemo.employeemngr.data.EmployeeDTO(e.name, e.email, e.id) FROM Employee e ORDER BY e.id")
+    Stream<EmployeeDTO> streamAll();
 
 }
@@ -0,0 +1,169 @@
+package tqsdemo.employeemngr.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+import tqsdemo.employeemngr.data.Employee;
+import tqsdemo.employeemngr.data.EmployeeDTO;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Read-through cache in front of {@link EmployeeServiceImpl} for the lookups by id and by
+ * name. The caches are bounded (W-TinyLFU eviction) and entries expire after a fixed time;
+ * misses are cached too, so repeated lookups of unknown ids or names stay off the database.
+ * Every save goes through this class and evicts the entries it makes stale.
+ *
+ * Employees are mutable entities, so the caches keep their own copies and every lookup
+ * hands out a fresh one: what one caller does to its result never reaches the others.
+ */
+@Service
+@Primary
+public class CachingEmployeeService implements EmployeeService {
+
+    private final EmployeeService delegate;
+
+    // Optional.empty() marks a cached miss
+    private final Cache<Long, Optional<Employee>> byId;
+    private final Cache<String, Optional<Employee>> byName;
+    private final Cache<String, Boolean> existsByName;
+
+    // Name each cached employee is filed under in byName, so a rename finds its old entry
+    private final Map<Long, String> cachedNameById = new ConcurrentHashMap<>();
+
+    @Autowired
+    public CachingEmployeeService(@Qualifier("employeeServiceImpl") EmployeeService delegate,
+                                  @Value("${employees.cache.maximum-size:10000}") long maximumSize,
+                                  @Value("${employees.cache.ttl:PT10M}") Duration ttl) {
+        this(delegate, maximumSize, ttl, Ticker.systemTicker());
+    }
+
+    public CachingEmployeeService(EmployeeService delegate, long maximumSize, Duration ttl, Ticker ticker) {
+        this.delegate = delegate;
+        this.byId = newCache(maximumSize, ttl, ticker).build();
+        // Runs inside the eviction itself, so it cannot undo the record of a later reload
+        this.byName = newCache(maximumSize, ttl, ticker)
+                .<String, Optional<Employee>>evictionListener((name, cached, cause) -> {
+                    if (cached != null) {
+                        cached.ifPresent(employee -> cachedNameById.remove(employee.getId(), name));
+                    }
+                })
+                .build();
+        this.existsByName = newCache(maximumSize, ttl, ticker).build();
+    }
+
+    private static Caffeine<Object, Object> newCache(long maximumSize, Duration ttl, Ticker ticker) {
+        return Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .ticker(ticker);
+    }
+
+    @Override
+    public Employee getEmployeeById(Long id) {
+        return byId.get(id, key -> Optional.ofNullable(delegate.getEmployeeById(key))
+                        .map(CachingEmployeeService::copyOf))
+                .map(CachingEmployeeService::copyOf)
+                .orElse(null);
+    }
+
+    @Override
+    public Optional<Employee> getEmployeeByName(String name) {
+        return byName.get(name, key -> {
+            Optional<Employee> found = delegate.getEmployeeByName(key).map(CachingEmployeeService::copyOf);
+            found.ifPresent(employee -> cachedNameById.put(employee.getId(), key));
+            return found;
+        }).map(CachingEmployeeService::copyOf);
+    }
+
+    /**
+     * Answered from the name cache when the employee was already looked up, otherwise
+     * by the delegate's presence query
+     */
+    @Override
+    public boolean exists(String name) {
+        Optional<Employee> cached = byName.getIfPresent(name);
+        if (cached != null) {
+            return cached.isPresent();
+        }
+        return existsByName.get(name, delegate::exists);
+    }
+
+    @Override
+    public Employee save(Employee employee) {
+        boolean update = employee.getId() != null;
+        Employee saved = delegate.save(employee);
+        evict(saved);
+        if (update) {
+            evictRenamed(List.of(saved.getId()));
+        }
+        return saved;
+    }
+
+    @Override
+    public List<Employee> saveAll(List<Employee> employees) {
+        boolean updates = employees.stream().anyMatch(employee -> employee.getId() != null);
+        List<Employee> saved = delegate.saveAll(employees);
+        saved.forEach(this::evict);
+        if (updates) {
+            evictRenamed(saved.stream().map(Employee::getId).toList());
+        }
+        return saved;
+    }
+
+    @Override
+    public List<Employee> getAllEmployees() {
+        return delegate.getAllEmployees();
+    }
+
+    @Override
+    public List<Employee> getEmployees(long afterId, int limit) {
+        return delegate.getEmployees(afterId, limit);
+    }
+
+    @Override
+    public void forEachEmployee(Consumer<EmployeeDTO> action) {
+        delegate.forEachEmployee(action);
+    }
+
+    @Override
+    public List<Employee> getEmployeesByDomain(String domain) {
+        return delegate.getEmployeesByDomain(domain);
+    }
+
+    private void evict(Employee saved) {
+        byId.invalidate(saved.getId());
+        byName.invalidate(saved.getName());
+        cachedNameById.remove(saved.getId(), saved.getName());
+        existsByName.invalidate(saved.getName());
+    }
+
+    /**
+     * An update may have changed the name, leaving entries under the old one: drop the
+     * name entries filed for the updated ids, and the presence answers as a whole
+     * since they do not record which employee they saw
+     */
+    private void evictRenamed(List<Long> ids) {
+        for (Long id : ids) {
+            String cachedName = cachedNameById.remove(id);
+            if (cachedName != null) {
+                byName.invalidate(cachedName);
+            }
+        }
+        existsByName.invalidateAll();
+    }
+
+    private static Employee copyOf(Employee employee) {
+        return new Employee(employee.getName(), employee.getEmail(), employee.getId());
+    }
+}
@@ -0,0 +1,182 @@
+package tqsdemo.employeemngr.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import tqsdemo.employeemngr.data.Employee;
+import tqsdemo.employeemngr.data.EmployeeDTO;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Imports employees from a CSV ("name,email", optional header line) or NDJSON upload.
+ * Each row is checked against the Bean Validation constraints of {@link Employee}; valid
+ * rows are saved in chunks, each chunk in its own transaction, so the upload is never
+ * held in memory as a whole and one bad row does not roll back the rest.
+ */
+@Service
+public class EmployeeBulkImporter {
+
+    static final int CHUNK_SIZE = 500;
+
+    private final EmployeeService employeeService;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+
+    public EmployeeBulkImporter(EmployeeService employeeService, Validator validator, ObjectMapper objectMapper) {
+        this.employeeService = employeeService;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+    }
+
+    public BulkImportReport importCsv(Reader input) throws IOException {
+        return importRows(input, this::parseCsvLine);
+    }
+
+    public BulkImportReport importNdjson(Reader input) throws IOException {
+        return importRows(input, this::parseJsonLine);
+    }
+
+    private interface RowParser {
+        /**
+         * @return the employee on the line, or null when the line holds no data (a header)
+         */
+        Employee parse(String line, int row);
+    }
+
+    private BulkImportReport importRows(Reader input, RowParser parser) throws IOException {
+        BulkImportReport report = new BulkImportReport();
+        List<Employee> chunk = new ArrayList<>(CHUNK_SIZE);
+        List<Integer> chunkRows = new ArrayList<>(CHUNK_SIZE);
+        BufferedReader lines = new BufferedReader(input);
+        int row = 0;
+        for (String line = lines.readLine(); line != null; line = lines.readLine()) {
+            row++;
+            if (line.isBlank()) {
+                continue;
+            }
+            Employee employee;
+            try {
+                employee = parser.parse(line, row);
+            } catch (IllegalArgumentException e) {
+                report.addError(row, e.getMessage());
+                continue;
+            }
+            if (employee == null) {
+                continue;
+            }
+            String violations = validate(employee);
+            if (violations != null) {
+                report.addError(row, violations);
+                continue;
+            }
+            chunk.add(employee);
+            chunkRows.add(row);
+            if (chunk.size() == CHUNK_SIZE) {
+                saveChunk(chunk, chunkRows, report);
+                chunk = new ArrayList<>(CHUNK_SIZE);
+                chunkRows = new ArrayList<>(CHUNK_SIZE);
+            }
+        }
+        saveChunk(chunk, chunkRows, report);
+        return report;
+    }
+
+    private void saveChunk(List<Employee> chunk, List<Integer> chunkRows, BulkImportReport report) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        try {
+            employeeService.saveAll(chunk);
+            report.addImported(chunk.size());
+        } catch (DataAccessException e) {
+            // The chunk was rolled back: save its rows one at a time to find the culprits
+            for (int i = 0; i < chunk.size(); i++) {
+                Employee employee = chunk.get(i);
+                employee.setId(null);
+                try {
+                    employeeService.save(employee);
+                    report.addImported(1);
+                } catch (DataAccessException rowError) {
+                    report.addError(chunkRows.get(i), "Rejected by the database: "
+                            + rowError.getMostSpecificCause().getMessage());
+                }
+            }
+        }
+    }
+
+    private String validate(Employee employee) {
+        Set<ConstraintViolation<Employee>> violations = validator.validate(employee);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining("; "));
+    }
+
+    private Employee parseJsonLine(String line, int row) {
+        try {
+            EmployeeDTO employee = objectMapper.readValue(line, EmployeeDTO.class);
+            return new Employee(employee.getName(), employee.getEmail());
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Malformed JSON: " + e.getOriginalMessage());
+        }
+    }
+
+    private Employee parseCsvLine(String line, int row) {
+        List<String> fields = splitCsv(line);
+        if (row == 1 && fields.size() == 2
+                && fields.get(0).equalsIgnoreCase("name") && fields.get(1).equalsIgnoreCase("email")) {
+            return null;
+        }
+        if (fields.size() != 2) {
+            throw new IllegalArgumentException("Expected 2 columns (name,email) but found " + fields.size());
+        }
+        return new Employee(fields.get(0), fields.get(1));
+    }
+
+    /**
+     * Splits one CSV line; fields may be quoted, with "" standing for a quote inside them
+     */
+    static List<String> splitCsv(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString().trim());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Unterminated quoted field");
+        }
+        fields.add(field.toString().trim());
+        return fields;
+    }
+}
@@ -1,9 +1,11 @@
 package tqsdemo.employeemngr.service;
 
 import tqsdemo.employeemngr.data.Employee;
+import tqsdemo.employeemngr.data.EmployeeDTO;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface EmployeeService {
 
@@ -13,7 +15,15 @@ public interface EmployeeService {
 
     public List<Employee> getAllEmployees();
 
+    public List<Employee> getEmployees(long afterId, int limit);
+
+    public void forEachEmployee(Consumer<EmployeeDTO> action);
+
+    public List<Employee> getEmployeesByDomain(String domain);
+
     public boolean exists(String email);
 
     public Employee save(Employee employee);
+
+    public List<Employee> saveAll(List<Employee> employees);
 }
@@ -1,12 +1,17 @@
 package tqsdemo.employeemngr.service;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import tqsdemo.employeemngr.data.Employee;
+import tqsdemo.employeemngr.data.EmployeeDTO;
 import tqsdemo.employeemngr.data.EmployeeRepository;
 
 
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 public class EmployeeServiceImpl implements EmployeeService {
@@ -29,9 +34,18 @@ public class EmployeeServiceImpl implements EmployeeService {
         return employeeRepository.findByName(name);
     }
 
+    /**
+     * One prefix scan over the indexed email_domain column, so every write made to the
+     * table, by this instance or any other, is seen straight away
+     */
+    @Override
+    public List<Employee> getEmployeesByDomain(String domain) {
+        return employeeRepository.findEmployeesByOrganizationDomain(domain);
+    }
+
     @Override
     public boolean exists(String employeeName) {
-        return employeeRepository.findByName(employeeName).isPresent();
+        return employeeRepository.existsByName(employeeName);
     }
 
     @Override
@@ -39,8 +53,32 @@ public class EmployeeServiceImpl implements EmployeeService {
         return employeeRepository.save(employee);
     }
 
+    /**
+     * Saves the employees in one transaction; the inserts are flushed as JDBC batches
+     */
+    @Override
+    @Transactional
+    public List<Employee> saveAll(List<Employee> employees) {
+        List<Employee> saved = employeeRepository.saveAll(employees);
+        employeeRepository.flush();
+        return saved;
+    }
+
     @Override
     public List<Employee> getAllEmployees() {
         return employeeRepository.findAll();
     }
+
+    @Override
+    public List<Employee> getEmployees(long afterId, int limit) {
+        return employeeRepository.findPageAfter(afterId, Limit.of(limit));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void forEachEmployee(Consumer<EmployeeDTO> action) {
+        try (Stream<EmployeeDTO> employees = employeeRepository.streamAll()) {
+            employees.forEach(action);
+        }
+    }
 }
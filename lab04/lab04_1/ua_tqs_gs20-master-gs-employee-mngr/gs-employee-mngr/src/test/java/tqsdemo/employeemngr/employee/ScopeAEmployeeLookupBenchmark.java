@@ -0,0 +1,106 @@
+package tqsdemo.employeemngr.employee;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import tqsdemo.employeemngr.data.Employee;
+import tqsdemo.employeemngr.data.EmployeeRepository;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Benchmark: median latency of the name lookups as the table grows from 1k to 1M rows.
+ * With idx_tqs_employee_name both queries are index seeks, so latency should stay flat.
+ * Slow (the table is filled up to a million rows), so it only runs in the benchmarks profile:
+ * mvn verify -Pbenchmarks
+ * The medians are published as report entries (target/failsafe-reports/open-test-report.xml) and repeated in
+ * the assertion message when latency does grow.
+ */
+@DataJpaTest
+class ScopeAEmployeeLookupBenchmark {
+
+    private static final int[] TABLE_SIZES = {1_000, 10_000, 100_000, 1_000_000};
+    private static final int LOOKUPS = 2_000;
+    private static final int INSERT_BATCH = 10_000;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void whenTableGrows_thenLookupLatencyStaysFlat(TestReporter reporter) {
+        Random random = new Random(42);
+        long[] findMedians = new long[TABLE_SIZES.length];
+        long[] existsMedians = new long[TABLE_SIZES.length];
+        int rows = 0;
+        for (int s = 0; s < TABLE_SIZES.length; s++) {
+            rows = fillTo(rows, TABLE_SIZES[s]);
+            int size = rows;
+
+            // warm up the statement caches before measuring
+            measure(LOOKUPS, () -> employeeRepository.findByName(name(random.nextInt(size))));
+
+            findMedians[s] = measure(LOOKUPS, () -> {
+                assertThat(employeeRepository.findByName(name(random.nextInt(size)))).isPresent();
+                entityManager.clear();
+            });
+            existsMedians[s] = measure(LOOKUPS, () ->
+                    assertThat(employeeRepository.existsByName(name(random.nextInt(size)))).isTrue());
+            reporter.publishEntry(Map.of(
+                    "rows." + size + ".findByName.medianNanos", String.valueOf(findMedians[s]),
+                    "rows." + size + ".existsByName.medianNanos", String.valueOf(existsMedians[s])));
+        }
+
+        // a full scan would be ~1000x slower at 1M rows than at 1k; allow noise, not growth
+        int last = TABLE_SIZES.length - 1;
+        assertThat(findMedians[last])
+                .as("findByName median ns for %s rows: %s", Arrays.toString(TABLE_SIZES), Arrays.toString(findMedians))
+                .isLessThan(findMedians[0] * 5);
+        assertThat(existsMedians[last])
+                .as("existsByName median ns for %s rows: %s", Arrays.toString(TABLE_SIZES), Arrays.toString(existsMedians))
+                .isLessThan(existsMedians[0] * 5);
+    }
+
+    private int fillTo(int rows, int target) {
+        while (rows < target) {
+            int batchSize = Math.min(INSERT_BATCH, target - rows);
+            List<Object[]> batch = new ArrayList<>(batchSize);
+            for (int i = 0; i < batchSize; i++, rows++) {
+                String email = name(rows) + "@deti.ua.pt";
+                batch.add(new Object[]{(long) rows + 1, name(rows), email, Employee.reversedDomain(email)});
+            }
+            jdbcTemplate.batchUpdate(
+                    "INSERT INTO tqs_employee (id, name, email, email_domain) VALUES (?, ?, ?, ?)", batch);
+        }
+        return rows;
+    }
+
+    private static String name(int row) {
+        return "employee" + row;
+    }
+
+    private static long measure(int times, Runnable lookup) {
+        long[] nanos = new long[times];
+        for (int i = 0; i < times; i++) {
+            long start = System.nanoTime();
+            lookup.run();
+            nanos[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(nanos);
+        return nanos[times / 2];
+    }
+}
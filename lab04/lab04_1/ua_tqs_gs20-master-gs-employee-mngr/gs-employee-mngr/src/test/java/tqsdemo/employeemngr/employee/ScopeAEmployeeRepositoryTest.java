@@ -1,17 +1,22 @@
 package tqsdemo.employeemngr.employee;
 
+import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Limit;
 import tqsdemo.employeemngr.data.Employee;
+import tqsdemo.employeemngr.data.EmployeeDTO;
 import tqsdemo.employeemngr.data.EmployeeRepository;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 /**
  * DataJpaTest limits the test scope to the data access context
@@ -48,6 +53,40 @@ class ScopeAEmployeeRepositoryTest {
         assertThat(fromDb).isEmpty();
     }
 
+    @Test
+    void givenSharedName_whenFindByName_thenReturnFirstRegistered() {
+        Employee first = entityManager.persistAndFlush(new Employee("alex", "alex@deti.com"));
+        entityManager.persistAndFlush(new Employee("alex", "alex@ua.pt"));
+
+        assertThat(employeeRepository.findByName("alex")).contains(first);
+    }
+
+    @Test
+    void givenTakenEmail_whenPersist_thenRejected() {
+        entityManager.persistAndFlush(new Employee("alex", "alex@deti.com"));
+
+        assertThatThrownBy(() -> entityManager.persistAndFlush(new Employee("alexander", "alex@deti.com")))
+                .isInstanceOf(ConstraintViolationException.class)
+                .hasMessageContaining("UK_TQS_EMPLOYEE_EMAIL");
+    }
+
+    @Test
+    void whenLookupByName_thenPlanUsesNameIndex() {
+        String plan = (String) entityManager.getEntityManager()
+                .createNativeQuery("EXPLAIN SELECT id FROM tqs_employee WHERE name = 'alex'")
+                .getSingleResult();
+
+        assertThat(plan).containsIgnoringCase("idx_tqs_employee_name");
+    }
+
+    @Test
+    void whenExistsByName_thenOnlyExactNameMatches() {
+        entityManager.persistAndFlush(new Employee("John", "john@deti.com"));
+
+        assertThat(employeeRepository.existsByName("John")).isTrue();
+        assertThat(employeeRepository.existsByName("Not John")).isFalse();
+    }
+
 
     @Test
     void givenSetOfEmployees_whenFindAll_thenReturnAllEmployees() {
@@ -87,4 +126,68 @@ class ScopeAEmployeeRepositoryTest {
                 );
     }
 
-}
\ No newline at end of file
+    @Test
+    void whenDomainOnlySharesASuffix_thenItIsNotMatched() {
+        entityManager.persist(new Employee("alex", "alex@aua.pt"));
+        entityManager.persist(new Employee("ron", "ron@UA.PT"));
+        entityManager.flush();
+
+        List<Employee> results = employeeRepository.findEmployeesByOrganizationDomain("ua.pt");
+
+        assertThat(results).extracting(Employee::getName).containsExactly("ron");
+        assertThat(results.get(0).getEmailDomain()).isEqualTo("pt.ua.");
+        assertThat(employeeRepository.findEmployeesByOrganizationDomain("")).isEmpty();
+    }
+
+    @Test
+    void whenDomainHasLikeWildcards_thenTheyMatchLiterally() {
+        entityManager.persist(new Employee("alex", "alex@my_corp.com"));
+        entityManager.persist(new Employee("ron", "ron@myxcorp.com"));
+        entityManager.flush();
+
+        assertThat(employeeRepository.findEmployeesByOrganizationDomain("my_corp.com"))
+                .extracting(Employee::getName).containsExactly("alex");
+        assertThat(employeeRepository.findEmployeesByOrganizationDomain("%.com")).isEmpty();
+    }
+
+    @Test
+    void whenEmailChanges_thenDomainColumnFollows() {
+        Employee alex = entityManager.persistFlushFind(new Employee("alex", "alex@deti.com"));
+
+        alex.setEmail("alex@ua.pt");
+        entityManager.flush();
+
+        assertThat(employeeRepository.findEmployeesByOrganizationDomain("ua.pt")).containsExactly(alex);
+        assertThat(employeeRepository.findEmployeesByOrganizationDomain("deti.com")).isEmpty();
+    }
+
+    @Test
+    void givenSetOfEmployees_whenWalkPages_thenVisitAllInIdOrder() {
+        entityManager.persist(new Employee("alex", "alex@deti.com"));
+        entityManager.persist(new Employee("ron", "ron@deti.com"));
+        entityManager.persist(new Employee("bob", "bob@deti.com"));
+        entityManager.flush();
+
+        List<Employee> first = employeeRepository.findPageAfter(0L, Limit.of(2));
+        List<Employee> second = employeeRepository.findPageAfter(first.get(1).getId(), Limit.of(2));
+
+        assertThat(first).extracting(Employee::getName).containsExactly("alex", "ron");
+        assertThat(second).extracting(Employee::getName).containsExactly("bob");
+    }
+
+    @Test
+    void givenSetOfEmployees_whenStreamAll_thenReturnDtosInIdOrder() {
+        entityManager.persist(new Employee("alex", "alex@deti.com"));
+        entityManager.persist(new Employee("ron", "ron@deti.com"));
+        entityManager.flush();
+
+        List<EmployeeDTO> all;
+        try (Stream<EmployeeDTO> employees = employeeRepository.streamAll()) {
+            all = employees.toList();
+        }
+
+        assertThat(all).extracting(EmployeeDTO::getName).containsExactly("alex", "ron");
+        assertThat(all).extracting(EmployeeDTO::getId).doesNotContainNull();
+    }
+
+}
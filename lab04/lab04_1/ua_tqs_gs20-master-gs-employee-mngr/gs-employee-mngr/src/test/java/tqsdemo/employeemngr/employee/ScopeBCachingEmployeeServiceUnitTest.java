@@ -0,0 +1,154 @@
+package tqsdemo.employeemngr.employee;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import tqsdemo.employeemngr.data.Employee;
+import tqsdemo.employeemngr.service.CachingEmployeeService;
+import tqsdemo.employeemngr.service.EmployeeService;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test scenario: hits, cached misses, expiry and eviction on save, mocking the service behind the cache
+ */
+@ExtendWith(MockitoExtension.class)
+class ScopeBCachingEmployeeServiceUnitTest {
+
+    private static final Duration TTL = Duration.ofMinutes(10);
+
+    @Mock
+    private EmployeeService delegate;
+
+    private final AtomicLong nanos = new AtomicLong();
+
+    private CachingEmployeeService employeeService;
+
+    @BeforeEach
+    void setUp() {
+        employeeService = new CachingEmployeeService(delegate, 100, TTL, nanos::get);
+    }
+
+    @Test
+    void whenLookupRepeated_thenDelegateCalledOnce() {
+        Employee john = employee(111L, "john");
+        Mockito.when(delegate.getEmployeeById(111L)).thenReturn(john);
+        Mockito.when(delegate.getEmployeeByName("john")).thenReturn(Optional.of(john));
+
+        assertThat(employeeService.getEmployeeById(111L)).usingRecursiveComparison().isEqualTo(john);
+        assertThat(employeeService.getEmployeeById(111L)).usingRecursiveComparison().isEqualTo(john);
+        assertThat(employeeService.getEmployeeByName("john")).get().usingRecursiveComparison().isEqualTo(john);
+        assertThat(employeeService.getEmployeeByName("john")).get().usingRecursiveComparison().isEqualTo(john);
+
+        Mockito.verify(delegate).getEmployeeById(111L);
+        Mockito.verify(delegate).getEmployeeByName("john");
+    }
+
+    @Test
+    void whenLookupMisses_thenMissIsCachedUntilExpiry() {
+        Mockito.when(delegate.getEmployeeById(-99L)).thenReturn(null);
+        Mockito.when(delegate.getEmployeeByName("wrong_name")).thenReturn(Optional.empty());
+
+        assertThat(employeeService.getEmployeeById(-99L)).isNull();
+        assertThat(employeeService.getEmployeeById(-99L)).isNull();
+        assertThat(employeeService.getEmployeeByName("wrong_name")).isEmpty();
+        assertThat(employeeService.getEmployeeByName("wrong_name")).isEmpty();
+        Mockito.verify(delegate).getEmployeeById(-99L);
+        Mockito.verify(delegate).getEmployeeByName("wrong_name");
+
+        nanos.addAndGet(TTL.plusSeconds(1).toNanos());
+
+        assertThat(employeeService.getEmployeeById(-99L)).isNull();
+        Mockito.verify(delegate, Mockito.times(2)).getEmployeeById(-99L);
+    }
+
+    @Test
+    void whenExists_thenUseNameCacheBeforePresenceQuery() {
+        Mockito.when(delegate.getEmployeeByName("john")).thenReturn(Optional.of(employee(111L, "john")));
+        Mockito.when(delegate.exists("alex")).thenReturn(true);
+
+        employeeService.getEmployeeByName("john");
+
+        assertThat(employeeService.exists("john")).isTrue();
+        assertThat(employeeService.exists("alex")).isTrue();
+        assertThat(employeeService.exists("alex")).isTrue();
+
+        Mockito.verify(delegate, Mockito.never()).exists("john");
+        Mockito.verify(delegate).exists("alex");
+    }
+
+    @Test
+    void whenSaveNewEmployee_thenCachedMissIsEvicted() {
+        Employee alex = employee(112L, "alex");
+        Mockito.when(delegate.getEmployeeByName("alex")).thenReturn(Optional.empty(), Optional.of(alex));
+        Mockito.when(delegate.exists("alex")).thenReturn(false, true);
+        Mockito.when(delegate.save(Mockito.any())).thenReturn(alex);
+
+        assertThat(employeeService.exists("alex")).isFalse();
+        assertThat(employeeService.getEmployeeByName("alex")).isEmpty();
+
+        employeeService.save(new Employee("alex", "alex@deti.com"));
+
+        assertThat(employeeService.getEmployeeByName("alex")).map(Employee::getId).contains(112L);
+        assertThat(employeeService.exists("alex")).isTrue();
+    }
+
+    @Test
+    void whenSaveRenamesEmployee_thenOldNameIsEvicted() {
+        Employee john = employee(111L, "john");
+        Employee renamed = employee(111L, "johnny");
+        Mockito.when(delegate.getEmployeeByName("john")).thenReturn(Optional.of(john), Optional.empty());
+        Mockito.when(delegate.getEmployeeById(111L)).thenReturn(john, renamed);
+        Mockito.when(delegate.saveAll(Mockito.anyList())).thenReturn(List.of(renamed));
+
+        employeeService.getEmployeeByName("john");
+        employeeService.getEmployeeById(111L);
+
+        employeeService.saveAll(List.of(employee(111L, "johnny")));
+
+        assertThat(employeeService.getEmployeeByName("john")).isEmpty();
+        assertThat(employeeService.getEmployeeById(111L).getName()).isEqualTo("johnny");
+    }
+
+    @Test
+    void whenCallerChangesResult_thenCachedEmployeeIsUntouched() {
+        Employee john = employee(111L, "john");
+        Mockito.when(delegate.getEmployeeById(111L)).thenReturn(john);
+        Mockito.when(delegate.getEmployeeByName("john")).thenReturn(Optional.of(john));
+
+        employeeService.getEmployeeById(111L).setName("mallory");
+        employeeService.getEmployeeByName("john").orElseThrow().setEmail("mallory@evil.com");
+        john.setName("changed by the delegate's caller");
+
+        assertThat(employeeService.getEmployeeById(111L).getName()).isEqualTo("john");
+        assertThat(employeeService.getEmployeeByName("john").orElseThrow().getEmail()).isEqualTo("john@deti.com");
+        assertThat(employeeService.getEmployeeById(111L)).isNotSameAs(employeeService.getEmployeeById(111L));
+    }
+
+    @Test
+    void whenRenamedEmployeeWasNeverLookedUpByName_thenOtherNamesStayCached() {
+        Employee ana = employee(7L, "ana");
+        Mockito.when(delegate.getEmployeeByName("ana")).thenReturn(Optional.of(ana));
+        Mockito.when(delegate.save(Mockito.any())).thenReturn(employee(111L, "johnny"));
+
+        employeeService.getEmployeeByName("ana");
+        employeeService.save(employee(111L, "johnny"));
+        employeeService.getEmployeeByName("ana");
+
+        Mockito.verify(delegate).getEmployeeByName("ana");
+    }
+
+    private static Employee employee(Long id, String name) {
+        Employee employee = new Employee(name, name + "@deti.com");
+        employee.setId(id);
+        return employee;
+    }
+}
@@ -0,0 +1,118 @@
+package tqsdemo.employeemngr.employee;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.Validation;
+import jakarta.validation.ValidatorFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import tqsdemo.employeemngr.data.Employee;
+import tqsdemo.employeemngr.service.BulkImportReport;
+import tqsdemo.employeemngr.service.EmployeeBulkImporter;
+import tqsdemo.employeemngr.service.EmployeeService;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+
+/**
+ * Test scenario: parse, validate and chunk bulk uploads, mocking the service that stores them
+ */
+@ExtendWith(MockitoExtension.class)
+class ScopeBEmployeeBulkImporterUnitTest {
+
+    @Mock
+    private EmployeeService employeeService;
+
+    private ValidatorFactory validatorFactory;
+
+    private EmployeeBulkImporter importer;
+
+    @BeforeEach
+    void setUp() {
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        importer = new EmployeeBulkImporter(employeeService, validatorFactory.getValidator(), new ObjectMapper());
+    }
+
+    @AfterEach
+    void tearDown() {
+        validatorFactory.close();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void whenImportCsv_thenSaveValidRowsAndReportTheRest() throws IOException {
+        String csv = "name,email\n"
+                + "alex,alex@deti.com\n"
+                + "\n"
+                + "\"smith, john\",\"john@deti.com\"\n"
+                + "bo,bob@deti.com\n"
+                + "ron,not-an-email\n"
+                + "carol\n"
+                + "\"dan,dan@deti.com\n";
+
+        BulkImportReport report = importer.importCsv(new StringReader(csv));
+
+        ArgumentCaptor<List<Employee>> saved = ArgumentCaptor.forClass(List.class);
+        Mockito.verify(employeeService).saveAll(saved.capture());
+        assertThat(saved.getValue()).extracting(Employee::getName).containsExactly("alex", "smith, john");
+        assertThat(report.getImported()).isEqualTo(2);
+        assertThat(report.getFailed()).isEqualTo(4);
+        assertThat(report.getErrors()).extracting(BulkImportReport.RowError::getRow).containsExactly(5, 6, 7, 8);
+        assertThat(report.getErrors().get(0).getMessage()).startsWith("name size must be between 3 and 60");
+        assertThat(report.getErrors().get(1).getMessage()).startsWith("email ");
+        assertThat(report.getErrors().get(2).getMessage()).isEqualTo("Expected 2 columns (name,email) but found 1");
+        assertThat(report.getErrors().get(3).getMessage()).isEqualTo("Unterminated quoted field");
+    }
+
+    @Test
+    void whenImportNdjson_thenReportMalformedLines() throws IOException {
+        String ndjson = "{\"name\":\"alex\",\"email\":\"alex@deti.com\"}\n"
+                + "{\"name\":\"john\"\n"
+                + "{\"name\":\"bob\",\"email\":null}\n";
+
+        BulkImportReport report = importer.importNdjson(new StringReader(ndjson));
+
+        assertThat(report.getImported()).isEqualTo(1);
+        assertThat(report.getErrors()).extracting(BulkImportReport.RowError::getRow).containsExactly(2, 3);
+        assertThat(report.getErrors().get(0).getMessage()).startsWith("Malformed JSON");
+        assertThat(report.getErrors().get(1).getMessage()).startsWith("email ");
+    }
+
+    @Test
+    void whenUploadExceedsOneChunk_thenCommitChunkByChunk() throws IOException {
+        StringBuilder csv = new StringBuilder();
+        for (int i = 0; i < 1201; i++) {
+            csv.append("employee").append(i).append(",employee").append(i).append("@deti.com\n");
+        }
+
+        BulkImportReport report = importer.importCsv(new StringReader(csv.toString()));
+
+        assertThat(report.getImported()).isEqualTo(1201);
+        Mockito.verify(employeeService, Mockito.times(3)).saveAll(anyList());
+    }
+
+    @Test
+    void whenChunkIsRejected_thenRetryRowByRow() throws IOException {
+        Mockito.when(employeeService.saveAll(anyList()))
+                .thenThrow(new DataIntegrityViolationException("chunk"));
+        Mockito.when(employeeService.save(Mockito.any()))
+                .thenAnswer(invocation -> invocation.getArgument(0))
+                .thenThrow(new DataIntegrityViolationException("duplicate email"));
+
+        BulkImportReport report = importer.importCsv(new StringReader("alex,alex@deti.com\nalex,alex@deti.com\n"));
+
+        assertThat(report.getImported()).isEqualTo(1);
+        assertThat(report.getErrors()).extracting(BulkImportReport.RowError::getRow).containsExactly(2);
+        assertThat(report.getErrors().get(0).getMessage()).isEqualTo("Rejected by the database: duplicate email");
+    }
+}
@@ -10,13 +10,17 @@ import org.mockito.internal.verification.VerificationModeFactory;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
+import org.springframework.data.domain.Limit;
 import tqsdemo.employeemngr.data.Employee;
+import tqsdemo.employeemngr.data.EmployeeDTO;
 import tqsdemo.employeemngr.data.EmployeeRepository;
 import tqsdemo.employeemngr.service.EmployeeServiceImpl;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -53,6 +57,7 @@ class ScopeBEmployeeServiceUnitTest {
         Mockito.when(employeeRepository.findByName(john.getName())).thenReturn( Optional.of(john));
         Mockito.when(employeeRepository.findByName(alex.getName())).thenReturn( Optional.of(alex));
         Mockito.when(employeeRepository.findByName("wrong_name")).thenReturn(Optional.empty());
+        Mockito.when(employeeRepository.existsByName(john.getName())).thenReturn(true);
         Mockito.when(employeeRepository.findById(john.getId())).thenReturn(Optional.of(john));
         Mockito.when(employeeRepository.findAll()).thenReturn(allEmployees);
         Mockito.when(employeeRepository.findById(-99L)).thenReturn(Optional.empty());
@@ -79,14 +84,14 @@ class ScopeBEmployeeServiceUnitTest {
         boolean doesEmployeeExist = employeeService.exists("john");
         assertThat(doesEmployeeExist).isTrue();
 
-        verifyFindByNameIsCalledOnce("john");
+        verifyExistsByNameIsCalledOnce("john");
     }
 
     @Test
      void whenNonExistingName_thenEmployeeShouldNotExist() {
         boolean doesEmployeeExist = employeeService.exists("some_name");
         assertThat(doesEmployeeExist).isFalse();
-        verifyFindByNameIsCalledOnce("some_name");
+        verifyExistsByNameIsCalledOnce("some_name");
     }
 
     @Test
@@ -115,10 +120,53 @@ class ScopeBEmployeeServiceUnitTest {
         assertThat(allEmployees).hasSize(3).extracting(Employee::getName).contains(alex.getName(), john.getName(), bob.getName());
     }
 
+    @Test
+     void whenGetPage_thenQueryAfterCursor() {
+        Employee john = new Employee("john", "john@deti.com", 112L);
+        Mockito.when(employeeRepository.findPageAfter(111L, Limit.of(10))).thenReturn(List.of(john));
+
+        List<Employee> page = employeeService.getEmployees(111L, 10);
+
+        assertThat(page).containsExactly(john);
+    }
+
+    @Test
+     void whenForEachEmployee_thenVisitAllAndCloseStream() {
+        boolean[] closed = {false};
+        Mockito.when(employeeRepository.streamAll()).thenReturn(Stream.of(
+                new EmployeeDTO("john", "john@deti.com", 1L),
+                new EmployeeDTO("bob", "bob@deti.com", 2L)).onClose(() -> closed[0] = true));
+
+        List<String> names = new ArrayList<>();
+        employeeService.forEachEmployee(employee -> names.add(employee.getName()));
+
+        assertThat(names).containsExactly("john", "bob");
+        assertThat(closed[0]).isTrue();
+    }
+
+    @Test
+     void whenSearchByDomain_thenQueryTheDomainColumn() {
+        Employee ron = new Employee("ron", "ron@deti.ua.pt", 2L);
+        Employee bob = new Employee("bob", "bob@ua.pt", 3L);
+        Mockito.when(employeeRepository.findEmployeesByOrganizationDomain("ua.pt")).thenReturn(List.of(ron, bob));
+
+        List<Employee> found = employeeService.getEmployeesByDomain("ua.pt");
+        List<Employee> none = employeeService.getEmployeesByDomain("example.org");
+
+        assertThat(found).containsExactly(ron, bob);
+        assertThat(none).isEmpty();
+        Mockito.verify(employeeRepository, Mockito.never()).streamAll();
+    }
+
     private void verifyFindByNameIsCalledOnce(String name) {
         Mockito.verify(employeeRepository, VerificationModeFactory.times(1)).findByName(name);
     }
 
+    private void verifyExistsByNameIsCalledOnce(String name) {
+        Mockito.verify(employeeRepository, VerificationModeFactory.times(1)).existsByName(name);
+        Mockito.verify(employeeRepository, Mockito.never()).findByName(name);
+    }
+
     private void verifyFindByIdIsCalledOnce() {
         Mockito.verify(employeeRepository, VerificationModeFactory.times(1)).findById(Mockito.anyLong());
     }
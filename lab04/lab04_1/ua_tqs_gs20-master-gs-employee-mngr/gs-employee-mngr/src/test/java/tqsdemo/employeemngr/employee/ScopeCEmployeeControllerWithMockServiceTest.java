@@ -3,22 +3,32 @@ import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import tqsdemo.employeemngr.boundary.EmployeeRestController;
 import tqsdemo.employeemngr.data.Employee;
+import tqsdemo.employeemngr.data.EmployeeDTO;
+import tqsdemo.employeemngr.service.BulkImportReport;
+import tqsdemo.employeemngr.service.EmployeeBulkImporter;
 import tqsdemo.employeemngr.service.EmployeeService;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.function.Consumer;
 
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.Matchers.hasSize;
 import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 /**
@@ -38,6 +48,9 @@ class ScopeCEmployeeControllerWithMockServiceTest {
     @MockitoBean
     private EmployeeService service;
 
+    @MockitoBean
+    private EmployeeBulkImporter bulkImporter;
+
 
     @Test
     void whenPostEmployee_thenCreateEmployee( ) throws Exception {
@@ -54,6 +67,17 @@ class ScopeCEmployeeControllerWithMockServiceTest {
 
     }
 
+    @Test
+    void givenTakenEmail_whenPostEmployee_thenConflict() throws Exception {
+        Employee alex = new Employee("alex", "alex@deti.com");
+
+        when( service.save(Mockito.any()) ).thenThrow(new DataIntegrityViolationException("uk_tqs_employee_email"));
+
+        mvc.perform(
+                post("/api/employees").contentType(MediaType.APPLICATION_JSON).content(JsonUtils.toJson(alex)))
+                .andExpect(status().isConflict());
+    }
+
     @Test
     void givenManyEmployees_whenGetEmployees_thenReturnJsonArray() throws Exception {
         Employee alex = new Employee("alex", "alex@deti.com");
@@ -62,16 +86,94 @@ class ScopeCEmployeeControllerWithMockServiceTest {
 
         List<Employee> allEmployees = Arrays.asList(alex, john, bob);
 
-        when( service.getAllEmployees()).thenReturn(allEmployees);
+        when( service.getEmployees(0L, 100)).thenReturn(allEmployees);
 
         mvc.perform(
                 get("/api/employees").contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("Link"))
                 .andExpect(jsonPath("$", hasSize(3)))
                 .andExpect(jsonPath("$[0].name", is(alex.getName())))
                 .andExpect(jsonPath("$[1].name", is(john.getName())))
                 .andExpect(jsonPath("$[2].name", is(bob.getName())));
 
-        verify(service, times(1)).getAllEmployees();
+        verify(service, times(1)).getEmployees(0L, 100);
+        verify(service, never()).getAllEmployees();
+    }
+
+    @Test
+    void givenFullPage_whenGetEmployees_thenLinkToNextPage() throws Exception {
+        Employee alex = new Employee("alex", "alex@deti.com", 41L);
+        Employee john = new Employee("john", "john@deti.com", 42L);
+
+        when( service.getEmployees(40L, 2)).thenReturn(Arrays.asList(alex, john));
+
+        mvc.perform(
+                get("/api/employees").param("after", "40").param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Link", "<http://localhost/api/employees?after=42&limit=2>; rel=\"next\""))
+                .andExpect(jsonPath("$", hasSize(2)));
+    }
+
+    @Test
+    void givenHugeLimit_whenGetEmployees_thenClampPageSize() throws Exception {
+        when( service.getEmployees(0L, 1000)).thenReturn(List.of());
+
+        mvc.perform(
+                get("/api/employees").param("limit", "1000000"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(0)));
+
+        verify(service, times(1)).getEmployees(0L, 1000);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void whenExportEmployeesAsNdjson_thenWriteOneObjectPerLine() throws Exception {
+        doAnswer(invocation -> {
+            Consumer<EmployeeDTO> action = invocation.getArgument(0);
+            action.accept(new EmployeeDTO("alex", "alex@deti.com", 1L));
+            action.accept(new EmployeeDTO("john", "john@deti.com", 2L));
+            return null;
+        }).when(service).forEachEmployee(Mockito.any(Consumer.class));
+
+        MvcResult result = mvc.perform(
+                get("/api/employees").accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string(
+                        "{\"id\":1,\"name\":\"alex\",\"email\":\"alex@deti.com\"}\n"
+                        + "{\"id\":2,\"name\":\"john\",\"email\":\"john@deti.com\"}\n"));
+    }
+
+    @Test
+    void whenPostCsv_thenImportAndReturnReport() throws Exception {
+        when( bulkImporter.importCsv(Mockito.any())).thenReturn(new BulkImportReport());
+
+        mvc.perform(
+                post("/api/employees/bulk").contentType("text/csv").content("alex,alex@deti.com\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported", is(0)))
+                .andExpect(jsonPath("$.errors", hasSize(0)));
+
+        verify(bulkImporter, times(1)).importCsv(Mockito.any());
+        verify(bulkImporter, never()).importNdjson(Mockito.any());
+    }
+
+    @Test
+    void whenPostNdjson_thenImportAsJsonLines() throws Exception {
+        when( bulkImporter.importNdjson(Mockito.any())).thenReturn(new BulkImportReport());
+
+        mvc.perform(
+                post("/api/employees/bulk").contentType(MediaType.APPLICATION_NDJSON)
+                        .content("{\"name\":\"alex\",\"email\":\"alex@deti.com\"}\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.failed", is(0)));
+
+        verify(bulkImporter, times(1)).importNdjson(Mockito.any());
     }
-}
\ No newline at end of file
+}
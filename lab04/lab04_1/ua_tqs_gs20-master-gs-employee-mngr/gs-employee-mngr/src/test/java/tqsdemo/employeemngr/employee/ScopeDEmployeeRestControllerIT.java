@@ -9,6 +9,7 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import tqsdemo.employeemngr.EmployeeMngrApplication;
 import tqsdemo.employeemngr.data.Employee;
 import tqsdemo.employeemngr.data.EmployeeRepository;
@@ -19,6 +20,7 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.Matchers.greaterThanOrEqualTo;
 import static org.hamcrest.Matchers.hasSize;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
@@ -71,6 +73,39 @@ class ScopeDEmployeeRestControllerIT {
                 .andExpect(jsonPath("$[1].name", is("alex")));
     }
 
+    @Test
+     void givenEmployees_whenExportNdjson_thenStreamEveryRow() throws Exception {
+        createTestEmployee("bob", "bob@deti.com");
+        createTestEmployee("alex", "alex@deti.com");
+
+        MvcResult result = mvc.perform(get("/api/employees").accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String body = mvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        assertThat(body.lines()).hasSize(2);
+        assertThat(body).contains("\"name\":\"bob\"").contains("\"name\":\"alex\"");
+    }
+
+    @Test
+     void whenBulkImportCsv_thenStoreValidRowsAndReportInvalidOnes() throws Exception {
+        StringBuilder csv = new StringBuilder("name,email\n");
+        for (int i = 0; i < 120; i++) {
+            csv.append("employee").append(i).append(",employee").append(i).append("@deti.com\n");
+        }
+        csv.append("x,broken\n");
+
+        mvc.perform(post("/api/employees/bulk").contentType("text/csv").content(csv.toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported", is(120)))
+                .andExpect(jsonPath("$.errors[0].row", is(122)));
+
+        assertThat(repository.count()).isEqualTo(120);
+        assertThat(repository.findEmployeesByOrganizationDomain("deti.com")).hasSize(120);
+    }
+
     private void createTestEmployee(String name, String email) {
         Employee emp = new Employee(name, email);
         repository.saveAndFlush(emp);
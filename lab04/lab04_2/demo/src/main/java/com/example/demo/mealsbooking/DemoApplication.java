@@ -2,7 +2,9 @@ package com.example.demo.mealsbooking;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.cache.annotation.EnableCaching;
 
+@EnableCaching
 @SpringBootApplication(scanBasePackages = "com.example.demo.mealsbooking")
 public class DemoApplication {
     public static void main(String[] args) {
@@ -1,10 +1,18 @@
 package com.example.demo.mealsbooking.boundary;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PatchMapping;
@@ -13,16 +21,30 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 import com.example.demo.mealsbooking.entity.MealBooking;
+import com.example.demo.mealsbooking.services.BookingRequest;
+import com.example.demo.mealsbooking.services.BookingResult;
 import com.example.demo.mealsbooking.services.MealBookingServiceImpl;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 
 @RestController
 @RequestMapping("/bookings")
 public class MealBookingRestController {
+
+    static final int MAX_PAGE_SIZE = 500;
+    static final int MAX_BATCH_SIZE = 1_000;
     
     @Autowired
     private MealBookingServiceImpl mealBookingService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
     
     @PostMapping
     public ResponseEntity<?> bookMeal(
@@ -38,6 +60,39 @@ public class MealBookingRestController {
         }
     }
     
+    // A JSON array of booking requests
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> bookMeals(InputStream body) throws IOException {
+        return bookBatch(body);
+    }
+    
+    // One JSON booking request per line
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<?> bookMealsFromLines(InputStream body) throws IOException {
+        return bookBatch(body);
+    }
+    
+    // Reads the requests one at a time and stops as soon as the batch is over the limit,
+    // so an oversized body is never held in memory
+    private ResponseEntity<?> bookBatch(InputStream body) throws IOException {
+        List<BookingRequest> requests = new ArrayList<>();
+        try (MappingIterator<BookingRequest> items = objectMapper.readerFor(BookingRequest.class).readValues(body)) {
+            while (items.hasNextValue()) {
+                if (requests.size() == MAX_BATCH_SIZE) {
+                    Map<String, String> error = new HashMap<>();
+                    error.put("error", "A batch can hold at most " + MAX_BATCH_SIZE + " booking requests");
+                    return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).body(error);
+                }
+                requests.add(items.nextValue());
+            }
+        } catch (JsonProcessingException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", "Malformed booking request: " + e.getOriginalMessage());
+            return ResponseEntity.badRequest().body(error);
+        }
+        return ResponseEntity.ok(mealBookingService.bookMeals(requests));
+    }
+    
     @GetMapping("/{token}")
     public ResponseEntity<?> getBooking(@PathVariable String token) {
         var booking = mealBookingService.getReservation(token);
@@ -73,9 +128,49 @@ public class MealBookingRestController {
         return ResponseEntity.badRequest().body(error);
     }
     
+    // Keyset pagination: pass the last id seen as "after"; a Link header points to the
+    // next page while pages come back full
     @GetMapping("/student/{studentId}")
-    public ResponseEntity<?> getStudentBookings(@PathVariable String studentId) {
-        var bookings = mealBookingService.getStudentBookings(studentId);
-        return ResponseEntity.ok(bookings);
+    public ResponseEntity<List<MealBooking>> getStudentBookings(
+            @PathVariable String studentId,
+            @RequestParam(defaultValue = "0") long after,
+            @RequestParam(defaultValue = "100") int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        List<MealBooking> bookings = mealBookingService.getStudentBookings(studentId, after, pageSize);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (bookings.size() == pageSize) {
+            long lastId = bookings.get(bookings.size() - 1).getId();
+            String next = ServletUriComponentsBuilder.fromCurrentRequest()
+                    .replaceQueryParam("after", lastId)
+                    .replaceQueryParam("limit", pageSize)
+                    .toUriString();
+            response.header(HttpHeaders.LINK, "<" + next + ">; rel=\"next\"");
+        }
+        return response.body(bookings);
+    }
+    
+    // Whole history as one JSON array, written while the rows are read
+    @GetMapping(value = "/student/{studentId}", params = "stream=true")
+    public ResponseEntity<StreamingResponseBody> streamStudentBookings(@PathVariable String studentId) {
+        StreamingResponseBody body = out -> writeStudentBookings(studentId, out);
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+    
+    private void writeStudentBookings(String studentId, OutputStream out) throws IOException {
+        try (JsonGenerator json = objectMapper.getFactory().createGenerator(out)) {
+            json.writeStartArray();
+            try {
+                mealBookingService.forEachStudentBooking(studentId, booking -> {
+                    try {
+                        json.writeObject(booking);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            json.writeEndArray();
+        }
     }
-}
\ No newline at end of file
+}
@@ -2,25 +2,42 @@ package com.example.demo.mealsbooking.entity;
 
 import java.time.LocalDateTime;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
 @Entity
-@Table(name = "meal_bookings")
+@Table(name = "meal_bookings", indexes = {
+    @Index(name = "idx_meal_bookings_shift_cancelled", columnList = "serviceShift, cancelled"),
+    @Index(name = "idx_meal_bookings_student_id", columnList = "studentId, id")
+}, uniqueConstraints = {
+    @UniqueConstraint(name = "uk_meal_bookings_active_student_shift",
+            columnNames = {"studentId", "serviceShift", "activeMarker"})
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class MealBooking {
     
+    public static final String ID_SEQUENCE = "meal_bookings_seq";
+    public static final int ID_ALLOCATION_SIZE = 50;
+    
+    // A pooled sequence instead of IDENTITY lets Hibernate batch the inserts.
+    // Databases created before the switch are upgraded by MealBookingIdSequence.
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = ID_SEQUENCE)
+    @SequenceGenerator(name = ID_SEQUENCE, sequenceName = ID_SEQUENCE, allocationSize = ID_ALLOCATION_SIZE)
     private Long id;
     
     @Column(unique = true, nullable = false)
@@ -40,6 +57,11 @@ public class MealBooking {
     
     @Column(nullable = false)
     private boolean cancelled = false;
+
+    // TRUE while the booking is active, NULL once cancelled: NULLs never clash in
+    // the unique constraint, so a student holds at most one active booking per shift
+    @JsonIgnore
+    private Boolean activeMarker = Boolean.TRUE;
     
     public MealBooking(String token, String studentId, String serviceShift) {
         this.token = token;
@@ -48,6 +70,7 @@ public class MealBooking {
         this.reservationTime = LocalDateTime.now();
         this.used = false;
         this.cancelled = false;
+        this.activeMarker = Boolean.TRUE;
     }
     
     public void markAsUsed() {
@@ -56,5 +79,6 @@ public class MealBooking {
     
     public void cancel() {
         this.cancelled = true;
+        this.activeMarker = null;
     }
 }
\ No newline at end of file
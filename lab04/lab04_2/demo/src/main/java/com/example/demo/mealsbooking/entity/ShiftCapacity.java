@@ -0,0 +1,31 @@
+package com.example.demo.mealsbooking.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Entity
+@Table(name = "shift_capacity")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ShiftCapacity {
+
+    @Id
+    @Column(name = "service_shift")
+    private String serviceShift;
+
+    @Column(nullable = false)
+    private int capacity;
+
+    @Column(nullable = false)
+    private int used;
+
+    public int getAvailableSpots() {
+        return Math.max(0, capacity - used);
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.demo.mealsbooking.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import com.example.demo.mealsbooking.entity.MealBooking;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Booking ids used to come from an IDENTITY column. The pooled sequence that replaced
+ * it is created by ddl-auto=update starting at 1, so on a database that already holds
+ * bookings it would hand out ids that are taken. Once the schema is up to date, and
+ * before any request is served, the sequence is moved past the highest existing id.
+ *
+ * Only PostgreSQL databases can predate the sequence; the H2 test databases are
+ * created from scratch and are left alone.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+public class MealBookingIdSequence {
+
+    // The pooled optimizer hands out the block that ends at the value it reads, so the
+    // next value must be a whole block above the highest id. The sequence only moves up.
+    static final String ALIGN_SQL =
+            "SELECT setval('" + MealBooking.ID_SEQUENCE + "', ids.max_id + " + MealBooking.ID_ALLOCATION_SIZE + ", false)"
+            + " FROM (SELECT MAX(id) AS max_id FROM meal_bookings) ids, " + MealBooking.ID_SEQUENCE + " seq"
+            + " WHERE ids.max_id + " + MealBooking.ID_ALLOCATION_SIZE + " > seq.last_value";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @PostConstruct
+    void alignWithExistingIds() {
+        String database = jdbcTemplate.execute(
+                (ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+        if ("PostgreSQL".equals(database)) {
+            jdbcTemplate.queryForList(ALIGN_SQL);
+        }
+    }
+}
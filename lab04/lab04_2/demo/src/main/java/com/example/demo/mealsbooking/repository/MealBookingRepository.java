@@ -1,24 +1,66 @@
 package com.example.demo.mealsbooking.repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
+import org.hibernate.jpa.HibernateHints;
+
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import jakarta.persistence.QueryHint;
 
 import com.example.demo.mealsbooking.entity.MealBooking;
 
 @Repository
 public interface MealBookingRepository extends JpaRepository<MealBooking, Long> {
-    
+
+    // Cached lookups go through BookingLookup
     Optional<MealBooking> findByToken(String token);
+
+    boolean existsByToken(String token);
     
     List<MealBooking> findByStudentId(String studentId);
     
     List<MealBooking> findByServiceShift(String serviceShift);
 
+    // Keyset page over idx_meal_bookings_student_id: everything after the last id seen
+    @Query("SELECT m FROM MealBooking m WHERE m.studentId = :studentId AND m.id > :afterId ORDER BY m.id")
+    List<MealBooking> findPageByStudentId(@Param("studentId") String studentId,
+            @Param("afterId") long afterId, Limit limit);
+
+    // Must be consumed inside a transaction and closed afterwards
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "100"))
+    @Query("SELECT m FROM MealBooking m WHERE m.studentId = :studentId ORDER BY m.id")
+    Stream<MealBooking> streamByStudentId(@Param("studentId") String studentId);
+
+    @Query("SELECT COUNT(m) FROM MealBooking m WHERE m.serviceShift = :serviceShift AND m.cancelled = false")
+    long countActiveBookingsByShift(@Param("serviceShift") String serviceShift);
+
     @Query("SELECT m FROM MealBooking m WHERE m.studentId = :studentId AND m.cancelled = false")
     List<MealBooking> findActiveBookingsByStudent(@Param("studentId") String studentId);
-}
\ No newline at end of file
+
+    @Query("SELECT m.studentId FROM MealBooking m WHERE m.serviceShift = :serviceShift AND m.cancelled = false AND m.studentId IN :studentIds")
+    List<String> findActiveStudentIdsByShift(@Param("serviceShift") String serviceShift,
+            @Param("studentIds") Collection<String> studentIds);
+
+    // Both transitions only apply to an active booking; 0 rows means it was not
+    @Transactional
+    @Modifying
+    @Query("UPDATE MealBooking m SET m.used = true WHERE m.token = :token AND m.used = false AND m.cancelled = false")
+    int markAsUsedByToken(@Param("token") String token);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE MealBooking m SET m.cancelled = true, m.activeMarker = null "
+            + "WHERE m.token = :token AND m.used = false AND m.cancelled = false")
+    int cancelByToken(@Param("token") String token);
+}
@@ -0,0 +1,48 @@
+package com.example.demo.mealsbooking.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.demo.mealsbooking.entity.ShiftCapacity;
+
+@Repository
+public interface ShiftCapacityRepository extends JpaRepository<ShiftCapacity, String> {
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE ShiftCapacity s SET s.used = s.used + 1 WHERE s.serviceShift = :serviceShift AND s.used < s.capacity")
+    int reserveSeat(@Param("serviceShift") String serviceShift);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE ShiftCapacity s SET s.used = s.used - 1 WHERE s.serviceShift = :serviceShift AND s.used > 0")
+    int releaseSeat(@Param("serviceShift") String serviceShift);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE ShiftCapacity s SET s.used = s.used + :seats WHERE s.serviceShift = :serviceShift AND s.used + :seats <= s.capacity")
+    int reserveSeats(@Param("serviceShift") String serviceShift, @Param("seats") int seats);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE ShiftCapacity s SET s.used = s.used - :seats WHERE s.serviceShift = :serviceShift AND s.used >= :seats")
+    int releaseSeats(@Param("serviceShift") String serviceShift, @Param("seats") int seats);
+
+    // Read straight from the database, never from the persistence context
+    @Query("SELECT s.capacity - s.used FROM ShiftCapacity s WHERE s.serviceShift = :serviceShift")
+    Integer findAvailableSeats(@Param("serviceShift") String serviceShift);
+
+    // Seeds the counter from the bookings already stored for the shift
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO shift_capacity (service_shift, capacity, used) "
+            + "SELECT :serviceShift, :capacity, "
+            + "(SELECT COUNT(*) FROM meal_bookings b WHERE b.service_shift = :serviceShift AND b.cancelled = false) "
+            + "WHERE NOT EXISTS (SELECT 1 FROM shift_capacity s WHERE s.service_shift = :serviceShift)",
+            nativeQuery = true)
+    int createIfAbsent(@Param("serviceShift") String serviceShift, @Param("capacity") int capacity);
+}
@@ -0,0 +1,69 @@
+package com.example.demo.mealsbooking.services;
+
+import java.util.Optional;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.example.demo.mealsbooking.repository.MealBookingRepository;
+
+/**
+ * Token lookups served from the bookingsByToken cache.
+ *
+ * A miss only fills the cache if nothing is there yet, while a state transition
+ * overwrites the entry with the committed row once its transaction is done. A lookup
+ * that read the row before the transition committed can therefore never put the old
+ * state back over the new one. Unknown tokens are not cached.
+ */
+@Component
+public class BookingLookup {
+
+    public static final String BOOKINGS_BY_TOKEN = "bookingsByToken";
+
+    @Autowired
+    private MealBookingRepository mealBookingRepository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    public Optional<BookingView> find(String token) {
+        BookingView cached = cache().get(token, BookingView.class);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        Optional<BookingView> found = mealBookingRepository.findByToken(token).map(BookingView::of);
+        found.ifPresent(view -> cache().putIfAbsent(token, view));
+        return found;
+    }
+
+    // Called after the booking changed; runs once the surrounding transaction commits
+    public void refreshAfterCommit(String token) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            refresh(token);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                refresh(token);
+            }
+        });
+    }
+
+    private void refresh(String token) {
+        Optional<BookingView> current = mealBookingRepository.findByToken(token).map(BookingView::of);
+        if (current.isPresent()) {
+            cache().put(token, current.get());
+        } else {
+            cache().evict(token);
+        }
+    }
+
+    private Cache cache() {
+        return cacheManager.getCache(BOOKINGS_BY_TOKEN);
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.demo.mealsbooking.services;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookingRequest {
+
+    private String studentId;
+
+    private String serviceShift;
+}
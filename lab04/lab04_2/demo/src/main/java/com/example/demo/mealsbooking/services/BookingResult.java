@@ -0,0 +1,32 @@
+package com.example.demo.mealsbooking.services;
+
+import com.example.demo.mealsbooking.entity.MealBooking;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Outcome of one item of a batch: either the stored booking or the reason it was refused
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookingResult {
+
+    private String studentId;
+
+    private String serviceShift;
+
+    private MealBooking booking;
+
+    private String error;
+
+    public static BookingResult booked(MealBooking booking) {
+        return new BookingResult(booking.getStudentId(), booking.getServiceShift(), booking, null);
+    }
+
+    public static BookingResult failed(BookingRequest request, String error) {
+        return request == null
+                ? new BookingResult(null, null, null, error)
+                : new BookingResult(request.getStudentId(), request.getServiceShift(), null, error);
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.demo.mealsbooking.services;
+
+import java.time.LocalDateTime;
+
+import com.example.demo.mealsbooking.entity.MealBooking;
+
+import lombok.Value;
+
+// Read-only copy of a booking: safe to cache and to share between requests
+@Value
+public class BookingView {
+
+    Long id;
+
+    String token;
+
+    String studentId;
+
+    String serviceShift;
+
+    LocalDateTime reservationTime;
+
+    boolean used;
+
+    boolean cancelled;
+
+    public static BookingView of(MealBooking booking) {
+        return new BookingView(booking.getId(), booking.getToken(), booking.getStudentId(),
+                booking.getServiceShift(), booking.getReservationTime(), booking.isUsed(), booking.isCancelled());
+    }
+}
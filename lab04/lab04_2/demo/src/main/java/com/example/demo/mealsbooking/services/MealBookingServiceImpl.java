@@ -1,89 +1,123 @@
 package com.example.demo.mealsbooking.services;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.UUID;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.example.demo.mealsbooking.entity.MealBooking;
+import com.example.demo.mealsbooking.entity.ShiftCapacity;
 import com.example.demo.mealsbooking.repository.MealBookingRepository;
+import com.example.demo.mealsbooking.repository.ShiftCapacityRepository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 
 @Service
 public class MealBookingServiceImpl {
     
     @Autowired
     private MealBookingRepository mealBookingRepository;
+
+    @Autowired
+    private ShiftCapacityRepository shiftCapacityRepository;
+
+    @Autowired
+    private TokenGenerator tokenGenerator;
+
+    @Autowired
+    private BookingLookup bookingLookup;
+
+    @PersistenceContext
+    private EntityManager entityManager;
     
     private static final int DEFAULT_CAPACITY = 100;
+    private static final int MAX_TOKEN_ATTEMPTS = 3;
     
     public MealBooking bookMeal(String studentId, String serviceShift) {
         validateBookingRequest(studentId, serviceShift);
         
-        String shiftKey = serviceShift;
-        
-        long currentBookings = mealBookingRepository.findByServiceShift(shiftKey)
-            .stream()
-            .filter(m -> !m.isCancelled())
-            .count();
-        
-        if (currentBookings >= DEFAULT_CAPACITY) {
+        if (!reserveSeat(serviceShift)) {
             throw new IllegalStateException("No available spots for this shift");
         }
         
-        String token = UUID.randomUUID().toString().substring(0, 8);
-        
-        MealBooking booking = new MealBooking(token, studentId, serviceShift);
-        return mealBookingRepository.save(booking);
+        try {
+            return saveWithUniqueToken(studentId, serviceShift);
+        } catch (RuntimeException e) {
+            shiftCapacityRepository.releaseSeat(serviceShift);
+            if (e instanceof DataIntegrityViolationException) {
+                throw new IllegalStateException("Student already has a reservation for this shift");
+            }
+            throw e;
+        }
+    }
+    
+    // Books a whole list at once: one duplicate lookup, one seat reservation and one
+    // batched insert per shift. Results come back in request order.
+    public List<BookingResult> bookMeals(List<BookingRequest> requests) {
+        BookingResult[] results = new BookingResult[requests.size()];
+        Map<String, List<Integer>> pendingByShift = new LinkedHashMap<>();
+        for (int i = 0; i < requests.size(); i++) {
+            BookingRequest request = requests.get(i);
+            String error = validateBatchItem(request);
+            if (error != null) {
+                results[i] = BookingResult.failed(request, error);
+            } else {
+                pendingByShift.computeIfAbsent(request.getServiceShift(), shift -> new ArrayList<>()).add(i);
+            }
+        }
+        pendingByShift.forEach((serviceShift, indexes) -> bookShift(serviceShift, indexes, requests, results));
+        return Arrays.asList(results);
     }
     
-    public Optional<MealBooking> getReservation(String token) {
-        return mealBookingRepository.findByToken(token);
+    public Optional<BookingView> getReservation(String token) {
+        return bookingLookup.find(token);
     }
     
     public boolean verifyReservation(String token) {
-        Optional<MealBooking> reservation = mealBookingRepository.findByToken(token);
+        Optional<BookingView> reservation = bookingLookup.find(token);
         return reservation.isPresent() && 
                !reservation.get().isUsed() && 
                !reservation.get().isCancelled();
     }
     
     public boolean checkIn(String token) {
-        Optional<MealBooking> reservation = mealBookingRepository.findByToken(token);
-        
-        if (reservation.isEmpty() || 
-            reservation.get().isUsed() || 
-            reservation.get().isCancelled()) {
+        if (mealBookingRepository.markAsUsedByToken(token) == 0) {
             return false;
         }
-        
-        MealBooking booking = reservation.get();
-        booking.markAsUsed();
-        mealBookingRepository.save(booking);
+        bookingLookup.refreshAfterCommit(token);
         return true;
     }
     
     public boolean cancelReservation(String token) {
-        Optional<MealBooking> reservation = mealBookingRepository.findByToken(token);
-        
-        if (reservation.isEmpty() || 
-            reservation.get().isUsed() || 
-            reservation.get().isCancelled()) {
+        if (mealBookingRepository.cancelByToken(token) == 0) {
             return false;
         }
-        
-        MealBooking booking = reservation.get();
-        booking.cancel();
-        mealBookingRepository.save(booking);
+        // Only the shift is needed here, so a cached copy of the booking is fine
+        bookingLookup.find(token)
+                .ifPresent(booking -> shiftCapacityRepository.releaseSeat(booking.getServiceShift()));
+        bookingLookup.refreshAfterCommit(token);
         return true;
     }
     
     public int getAvailableSpots(String shift) {
-        long current = mealBookingRepository.findByServiceShift(shift)
-            .stream()
-            .filter(m -> !m.isCancelled())
-            .count();
+        Optional<ShiftCapacity> shiftCapacity = shiftCapacityRepository.findById(shift);
+        if (shiftCapacity.isPresent()) {
+            return shiftCapacity.get().getAvailableSpots();
+        }
+        long current = mealBookingRepository.countActiveBookingsByShift(shift);
         int capacity = DEFAULT_CAPACITY;
         return (int) Math.max(0, capacity - current);
     }
@@ -92,6 +126,146 @@ public class MealBookingServiceImpl {
         return mealBookingRepository.findByStudentId(studentId);
     }
     
+    public List<MealBooking> getStudentBookings(String studentId, long afterId, int limit) {
+        return mealBookingRepository.findPageByStudentId(studentId, afterId, Limit.of(limit));
+    }
+    
+    // Hands the student's bookings over one at a time, detaching each so the
+    // persistence context does not grow with the length of the history
+    @Transactional(readOnly = true)
+    public void forEachStudentBooking(String studentId, Consumer<MealBooking> action) {
+        try (Stream<MealBooking> bookings = mealBookingRepository.streamByStudentId(studentId)) {
+            bookings.forEach(booking -> {
+                action.accept(booking);
+                entityManager.detach(booking);
+            });
+        }
+    }
+    
+    private void bookShift(String serviceShift, List<Integer> indexes,
+            List<BookingRequest> requests, BookingResult[] results) {
+        Set<String> studentIds = new HashSet<>();
+        indexes.forEach(i -> studentIds.add(requests.get(i).getStudentId()));
+        Set<String> booked = new HashSet<>(
+                mealBookingRepository.findActiveStudentIdsByShift(serviceShift, studentIds));
+        
+        List<Integer> accepted = new ArrayList<>();
+        for (int i : indexes) {
+            if (booked.add(requests.get(i).getStudentId())) {
+                accepted.add(i);
+            } else {
+                results[i] = BookingResult.failed(requests.get(i), "Student already has a reservation for this shift");
+            }
+        }
+        
+        int seats = reserveSeats(serviceShift, accepted.size());
+        for (int i : accepted.subList(seats, accepted.size())) {
+            results[i] = BookingResult.failed(requests.get(i), "No available spots for this shift");
+        }
+        if (seats == 0) {
+            return;
+        }
+        
+        List<Integer> seated = accepted.subList(0, seats);
+        try {
+            List<MealBooking> bookings = new ArrayList<>(seats);
+            seated.forEach(i -> bookings.add(
+                    new MealBooking(tokenGenerator.nextToken(), requests.get(i).getStudentId(), serviceShift)));
+            List<MealBooking> saved = mealBookingRepository.saveAll(bookings);
+            for (int k = 0; k < seats; k++) {
+                results[seated.get(k)] = BookingResult.booked(saved.get(k));
+            }
+        } catch (RuntimeException e) {
+            // Nothing was saved, so the seats go back whatever the failure was
+            shiftCapacityRepository.releaseSeats(serviceShift, seats);
+            if (!(e instanceof DataIntegrityViolationException)) {
+                throw e;
+            }
+            // A concurrent booking or a token clash rolled the batch back: book one by one
+            for (int i : seated) {
+                results[i] = bookOne(requests.get(i));
+            }
+        }
+    }
+    
+    private BookingResult bookOne(BookingRequest request) {
+        try {
+            return BookingResult.booked(bookMeal(request.getStudentId(), request.getServiceShift()));
+        } catch (RuntimeException e) {
+            return BookingResult.failed(request, e.getMessage());
+        }
+    }
+    
+    // Takes as many of the wanted seats as the shift still has, in one conditional update
+    private int reserveSeats(String serviceShift, int wanted) {
+        if (wanted == 0) {
+            return 0;
+        }
+        Integer available = shiftCapacityRepository.findAvailableSeats(serviceShift);
+        if (available == null) {
+            try {
+                shiftCapacityRepository.createIfAbsent(serviceShift, DEFAULT_CAPACITY);
+            } catch (DataIntegrityViolationException e) {
+                // Another request created the counter concurrently
+            }
+            available = shiftCapacityRepository.findAvailableSeats(serviceShift);
+        }
+        while (available != null && available > 0) {
+            int seats = Math.min(wanted, available);
+            if (shiftCapacityRepository.reserveSeats(serviceShift, seats) == 1) {
+                return seats;
+            }
+            // Lost a race with another booking: re-read and try again
+            available = shiftCapacityRepository.findAvailableSeats(serviceShift);
+        }
+        return 0;
+    }
+    
+    private String validateBatchItem(BookingRequest request) {
+        if (request == null) {
+            return "Booking request is required";
+        }
+        if (request.getStudentId() == null || request.getStudentId().trim().isEmpty()) {
+            return "Student ID is required";
+        }
+        if (request.getServiceShift() == null || request.getServiceShift().trim().isEmpty()) {
+            return "Service shift is required";
+        }
+        return null;
+    }
+    
+    private MealBooking saveWithUniqueToken(String studentId, String serviceShift) {
+        for (int attempt = 1; ; attempt++) {
+            String token = tokenGenerator.nextToken();
+            try {
+                return mealBookingRepository.save(new MealBooking(token, studentId, serviceShift));
+            } catch (DataIntegrityViolationException e) {
+                // Only a clash on the unique token column is worth retrying
+                if (!mealBookingRepository.existsByToken(token)) {
+                    throw e;
+                }
+                if (attempt == MAX_TOKEN_ATTEMPTS) {
+                    throw new IllegalStateException("Could not allocate a unique booking token");
+                }
+            }
+        }
+    }
+    
+    private boolean reserveSeat(String serviceShift) {
+        if (shiftCapacityRepository.reserveSeat(serviceShift) == 1) {
+            return true;
+        }
+        // First booking for this shift: create its counter, then retry once
+        try {
+            if (shiftCapacityRepository.createIfAbsent(serviceShift, DEFAULT_CAPACITY) == 0) {
+                return false;
+            }
+        } catch (DataIntegrityViolationException e) {
+            // Another request created the counter concurrently
+        }
+        return shiftCapacityRepository.reserveSeat(serviceShift) == 1;
+    }
+    
     private void validateBookingRequest(String studentId, String serviceShift) {
         if (studentId == null || studentId.trim().isEmpty()) {
             throw new IllegalArgumentException("Student ID is required");
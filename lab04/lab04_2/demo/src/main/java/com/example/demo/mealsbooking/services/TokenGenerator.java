@@ -0,0 +1,6 @@
+package com.example.demo.mealsbooking.services;
+
+public interface TokenGenerator {
+
+    String nextToken();
+}
@@ -1,6 +1,9 @@
 package com.example.demo.mealsbooking.boundary;
 
 import com.example.demo.mealsbooking.entity.MealBooking;
+import com.example.demo.mealsbooking.services.BookingRequest;
+import com.example.demo.mealsbooking.services.BookingResult;
+import com.example.demo.mealsbooking.services.BookingView;
 import com.example.demo.mealsbooking.services.MealBookingServiceImpl;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
@@ -9,13 +12,20 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -68,6 +78,81 @@ class MealBookingRestControllerTest {
                 .andExpect(jsonPath("$.error").value("No available spots"));
     }
 
+    @Test
+    void whenBookMealsFromJsonArray_thenReturnResultPerItem() throws Exception {
+        // Arrange
+        MealBooking booking = new MealBooking("TOKEN123", "student123", "lunch");
+        List<BookingRequest> requests = Arrays.asList(
+                new BookingRequest("student123", "lunch"),
+                new BookingRequest("student456", "lunch"));
+
+        when(mealBookingService.bookMeals(requests))
+                .thenReturn(Arrays.asList(
+                        BookingResult.booked(booking),
+                        BookingResult.failed(requests.get(1), "No available spots for this shift")));
+
+        // Act & Assert
+        mockMvc.perform(post("/bookings/batch")
+                .content(objectMapper.writeValueAsString(requests))
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].booking.token").value("TOKEN123"))
+                .andExpect(jsonPath("$[1].studentId").value("student456"))
+                .andExpect(jsonPath("$[1].error").value("No available spots for this shift"));
+    }
+
+    @Test
+    void whenBookMealsFromNdjson_thenParseOneRequestPerLine() throws Exception {
+        // Arrange
+        List<BookingRequest> requests = Arrays.asList(
+                new BookingRequest("student123", "lunch"),
+                new BookingRequest("student456", "dinner"));
+
+        when(mealBookingService.bookMeals(requests))
+                .thenReturn(Arrays.asList(
+                        BookingResult.booked(new MealBooking("TOKEN1", "student123", "lunch")),
+                        BookingResult.booked(new MealBooking("TOKEN2", "student456", "dinner"))));
+
+        // Act & Assert
+        mockMvc.perform(post("/bookings/batch")
+                .content("{\"studentId\":\"student123\",\"serviceShift\":\"lunch\"}\n"
+                        + "{\"studentId\":\"student456\",\"serviceShift\":\"dinner\"}\n")
+                .contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].booking.token").value("TOKEN1"))
+                .andExpect(jsonPath("$[1].booking.token").value("TOKEN2"));
+    }
+
+    @Test
+    void whenBookMealsFromMalformedNdjson_thenReturnBadRequest() throws Exception {
+        // Act & Assert
+        mockMvc.perform(post("/bookings/batch")
+                .content("{\"studentId\":\"student123\",\"serviceShift\":\"lunch\"}\n{oops\n")
+                .contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").exists());
+
+        verify(mealBookingService, never()).bookMeals(anyList());
+    }
+
+    @Test
+    void whenBatchIsOverTheLimit_thenReturnPayloadTooLarge() throws Exception {
+        // Arrange
+        StringBuilder lines = new StringBuilder();
+        for (int i = 0; i <= MealBookingRestController.MAX_BATCH_SIZE; i++) {
+            lines.append("{\"studentId\":\"student").append(i).append("\",\"serviceShift\":\"lunch\"}\n");
+        }
+
+        // Act & Assert
+        mockMvc.perform(post("/bookings/batch")
+                .content(lines.toString())
+                .contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(status().isPayloadTooLarge())
+                .andExpect(jsonPath("$.error").value("A batch can hold at most 1000 booking requests"));
+
+        verify(mealBookingService, never()).bookMeals(anyList());
+    }
+
     @Test
     void whenGetBookingByValidToken_thenReturnBooking() throws Exception {
         // Arrange
@@ -75,7 +160,7 @@ class MealBookingRestControllerTest {
         booking.setId(1L);
 
         when(mealBookingService.getReservation("TOKEN123"))
-                .thenReturn(Optional.of(booking));
+                .thenReturn(Optional.of(BookingView.of(booking)));
 
         // Act & Assert
         mockMvc.perform(get("/bookings/TOKEN123")
@@ -147,20 +232,80 @@ class MealBookingRestControllerTest {
     }
 
     @Test
-    void whenGetStudentBookings_thenReturnList() throws Exception {
+    void whenGetStudentBookings_thenReturnFirstPage() throws Exception {
         // Arrange
         MealBooking booking1 = new MealBooking("TOKEN1", "student123", "lunch");
         MealBooking booking2 = new MealBooking("TOKEN2", "student123", "dinner");
         List<MealBooking> bookings = Arrays.asList(booking1, booking2);
 
-        when(mealBookingService.getStudentBookings("student123"))
+        when(mealBookingService.getStudentBookings("student123", 0L, 100))
                 .thenReturn(bookings);
 
         // Act & Assert
         mockMvc.perform(get("/bookings/student/student123")
                 .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("Link"))
+                .andExpect(jsonPath("$[0].token").value("TOKEN1"))
+                .andExpect(jsonPath("$[1].token").value("TOKEN2"));
+    }
+
+    @Test
+    void whenStudentBookingsPageIsFull_thenLinkToNextPage() throws Exception {
+        // Arrange
+        MealBooking booking1 = new MealBooking("TOKEN1", "student123", "lunch");
+        booking1.setId(7L);
+        MealBooking booking2 = new MealBooking("TOKEN2", "student123", "dinner");
+        booking2.setId(9L);
+
+        when(mealBookingService.getStudentBookings("student123", 5L, 2))
+                .thenReturn(Arrays.asList(booking1, booking2));
+
+        // Act & Assert
+        mockMvc.perform(get("/bookings/student/student123")
+                .param("after", "5")
+                .param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Link",
+                        "<http://localhost/bookings/student/student123?after=9&limit=2>; rel=\"next\""))
+                .andExpect(jsonPath("$.length()").value(2));
+    }
+
+    @Test
+    void whenStudentBookingsPageTooLarge_thenClampLimit() throws Exception {
+        // Arrange
+        when(mealBookingService.getStudentBookings("student123", 0L, 500))
+                .thenReturn(Arrays.asList());
+
+        // Act & Assert
+        mockMvc.perform(get("/bookings/student/student123")
+                .param("limit", "100000"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(0));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void whenStreamStudentBookings_thenWriteJsonArray() throws Exception {
+        // Arrange
+        doAnswer(invocation -> {
+            Consumer<MealBooking> action = invocation.getArgument(1);
+            action.accept(new MealBooking("TOKEN1", "student123", "lunch"));
+            action.accept(new MealBooking("TOKEN2", "student123", "dinner"));
+            return null;
+        }).when(mealBookingService).forEachStudentBooking(eq("student123"), any(Consumer.class));
+
+        // Act
+        MvcResult result = mockMvc.perform(get("/bookings/student/student123")
+                .param("stream", "true"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Assert
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
                 .andExpect(jsonPath("$[0].token").value("TOKEN1"))
                 .andExpect(jsonPath("$[1].token").value("TOKEN2"));
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,99 @@
+package com.example.demo.mealsbooking.integration;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.IntFunction;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.TestPropertySource;
+
+import com.example.demo.mealsbooking.repository.MealBookingRepository;
+import com.example.demo.mealsbooking.repository.ShiftCapacityRepository;
+import com.example.demo.mealsbooking.services.MealBookingServiceImpl;
+
+@SpringBootTest
+@TestPropertySource(locations = "classpath:application-integrationtest.properties",
+        properties = "spring.jpa.show-sql=false")
+class MealBookingConcurrencyTest {
+
+    private static final int CAPACITY = 100;
+    private static final int THREADS = 32;
+
+    @Autowired
+    private MealBookingServiceImpl mealBookingService;
+
+    @Autowired
+    private MealBookingRepository mealBookingRepository;
+
+    @Autowired
+    private ShiftCapacityRepository shiftCapacityRepository;
+
+    @AfterEach
+    void cleanup() {
+        mealBookingRepository.deleteAll();
+        shiftCapacityRepository.deleteAll();
+    }
+
+    @Test
+    void whenManyStudentsBookConcurrently_thenExactlyCapacitySucceed() throws Exception {
+        // Act
+        int succeeded = runConcurrently(10_000, i -> "concurrent-student-" + i, "concurrent-lunch");
+
+        // Assert
+        assertThat(succeeded).isEqualTo(CAPACITY);
+        assertThat(mealBookingRepository.countActiveBookingsByShift("concurrent-lunch")).isEqualTo(CAPACITY);
+        assertThat(shiftCapacityRepository.findById("concurrent-lunch").orElseThrow().getUsed())
+                .isEqualTo(CAPACITY);
+        assertThat(mealBookingService.getAvailableSpots("concurrent-lunch")).isZero();
+    }
+
+    @Test
+    void whenSameStudentBooksConcurrently_thenOnlyOneSucceeds() throws Exception {
+        // Act
+        int succeeded = runConcurrently(500, i -> "eager-student", "concurrent-dinner");
+
+        // Assert
+        assertThat(succeeded).isEqualTo(1);
+        assertThat(mealBookingRepository.findActiveBookingsByStudent("eager-student")).hasSize(1);
+        assertThat(mealBookingService.getAvailableSpots("concurrent-dinner")).isEqualTo(CAPACITY - 1);
+    }
+
+    private int runConcurrently(int attempts, IntFunction<String> studentId,
+            String serviceShift) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int i = 0; i < attempts; i++) {
+                String student = studentId.apply(i);
+                results.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        mealBookingService.bookMeal(student, serviceShift);
+                        return true;
+                    } catch (IllegalStateException e) {
+                        return false;
+                    }
+                }));
+            }
+            start.countDown();
+            int succeeded = 0;
+            for (Future<Boolean> result : results) {
+                if (result.get()) {
+                    succeeded++;
+                }
+            }
+            return succeeded;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
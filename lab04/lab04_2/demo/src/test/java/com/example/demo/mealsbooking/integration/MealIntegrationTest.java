@@ -1,5 +1,7 @@
 package com.example.demo.mealsbooking.integration;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -7,6 +9,7 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.cache.CacheManager;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -14,6 +17,12 @@ import org.springframework.test.context.TestPropertySource;
 
 import com.example.demo.mealsbooking.entity.MealBooking;
 import com.example.demo.mealsbooking.repository.MealBookingRepository;
+import com.example.demo.mealsbooking.services.BookingLookup;
+import com.example.demo.mealsbooking.services.BookingRequest;
+import com.example.demo.mealsbooking.services.BookingResult;
+import com.example.demo.mealsbooking.services.BookingView;
+
+import io.micrometer.core.instrument.MeterRegistry;
 
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
 @TestPropertySource(locations = "classpath:application-integrationtest.properties")
@@ -25,6 +34,12 @@ class MealIntegrationTest {
     @Autowired
     private MealBookingRepository mealBookingRepository;
 
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
     @Test
     void whenBookMeal_thenPersistAndReturnBooking() {
         // Arrange
@@ -146,4 +161,76 @@ class MealIntegrationTest {
         assertThat(response.getBody()[0].getStudentId()).isEqualTo("multi-student");
         assertThat(response.getBody()[1].getStudentId()).isEqualTo("multi-student");
     }
-}
\ No newline at end of file
+
+    @Test
+    void whenBookWholeClassInBatch_thenFillShiftAndReportRest() {
+        // Arrange
+        List<BookingRequest> requests = new ArrayList<>();
+        for (int i = 0; i < 150; i++) {
+            requests.add(new BookingRequest("class-student-" + i, "class-trip"));
+        }
+        requests.add(new BookingRequest("class-student-0", "class-trip"));
+
+        // Act
+        ResponseEntity<BookingResult[]> response = restTemplate.postForEntity(
+                "/bookings/batch", requests, BookingResult[].class);
+
+        // Assert
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).hasSize(151);
+        assertThat(response.getBody()).filteredOn(result -> result.getBooking() != null).hasSize(100);
+        assertThat(response.getBody()[0].getBooking().getToken()).isNotBlank();
+        assertThat(response.getBody()[149].getError()).isEqualTo("No available spots for this shift");
+        assertThat(response.getBody()[150].getError()).isEqualTo("Student already has a reservation for this shift");
+        assertThat(mealBookingRepository.countActiveBookingsByShift("class-trip")).isEqualTo(100);
+    }
+
+    @Test
+    void whenTokenLookedUpRepeatedly_thenServeFromCacheAndRefreshOnCheckIn() {
+        // Arrange
+        MealBooking saved = mealBookingRepository.save(new MealBooking("CACHETOKEN", "cache-student", "lunch"));
+        double hitsBefore = cacheGets("hit");
+
+        // Act
+        restTemplate.getForEntity("/bookings/{token}", MealBooking.class, saved.getToken());
+        restTemplate.getForEntity("/bookings/{token}", MealBooking.class, saved.getToken());
+        restTemplate.exchange("/bookings/{token}/checkin", HttpMethod.PATCH, null, Map.class, saved.getToken());
+        ResponseEntity<MealBooking> afterCheckIn = restTemplate.getForEntity(
+                "/bookings/{token}", MealBooking.class, saved.getToken());
+
+        // Assert - the check-in replaces the cached copy, so the last lookup is a hit too
+        assertThat(cacheGets("hit") - hitsBefore).isEqualTo(2);
+        assertThat(afterCheckIn.getBody().isUsed()).isTrue();
+        assertThat(cacheManager.getCache(BookingLookup.BOOKINGS_BY_TOKEN)
+                .get(saved.getToken(), BookingView.class).isUsed()).isTrue();
+    }
+
+    private double cacheGets(String result) {
+        return meterRegistry.get("cache.gets")
+                .tag("cache", BookingLookup.BOOKINGS_BY_TOKEN)
+                .tag("result", result)
+                .functionCounter()
+                .count();
+    }
+
+    @Test
+    void whenStreamStudentBookings_thenReturnWholeHistory() {
+        // Arrange
+        for (int i = 0; i < 30; i++) {
+            mealBookingRepository.save(new MealBooking("STREAM" + i, "stream-student", "shift" + i));
+        }
+
+        // Act
+        ResponseEntity<MealBooking[]> response = restTemplate.getForEntity(
+                "/bookings/student/{studentId}?stream=true", MealBooking[].class, "stream-student");
+        ResponseEntity<MealBooking[]> page = restTemplate.getForEntity(
+                "/bookings/student/{studentId}?limit=10", MealBooking[].class, "stream-student");
+
+        // Assert
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).hasSize(30);
+        assertThat(response.getBody()[29].getToken()).isEqualTo("STREAM29");
+        assertThat(page.getBody()).hasSize(10);
+        assertThat(page.getHeaders().getFirst("Link")).contains("after=" + page.getBody()[9].getId());
+    }
+}
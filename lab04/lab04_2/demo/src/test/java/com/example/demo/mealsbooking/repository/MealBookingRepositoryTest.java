@@ -2,12 +2,16 @@ package com.example.demo.mealsbooking.repository;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 
 import com.example.demo.mealsbooking.entity.MealBooking;
 
@@ -94,6 +98,33 @@ class MealBookingRepositoryTest {
     }
 
 
+    @Test
+    void whenCountActiveBookingsByShift_thenIgnoreCancelledAndOtherShifts() {
+        // Arrange
+        MealBooking booking1 = new MealBooking("TOKEN1", "student1", "lunch");
+        MealBooking booking2 = new MealBooking("TOKEN2", "student2", "lunch");
+        MealBooking cancelledBooking = new MealBooking("TOKEN3", "student3", "lunch");
+        cancelledBooking.cancel();
+        MealBooking dinnerBooking = new MealBooking("TOKEN4", "student4", "dinner");
+
+        entityManager.persist(booking1);
+        entityManager.persist(booking2);
+        entityManager.persist(cancelledBooking);
+        entityManager.persist(dinnerBooking);
+        entityManager.flush();
+
+        // Act
+        long lunchCount = mealBookingRepository.countActiveBookingsByShift("lunch");
+        long dinnerCount = mealBookingRepository.countActiveBookingsByShift("dinner");
+        long breakfastCount = mealBookingRepository.countActiveBookingsByShift("breakfast");
+
+        // Assert
+        assertThat(lunchCount).isEqualTo(2);
+        assertThat(dinnerCount).isEqualTo(1);
+        assertThat(breakfastCount).isZero();
+    }
+
+
     @Test
     void whenFindActiveBookingsByStudent_thenReturnOnlyNonCancelled() {
     // Arrange
@@ -155,4 +186,144 @@ class MealBookingRepositoryTest {
         assertThat(found).isPresent();
         assertThat(found.get().isUsed()).isTrue();
     }
-}
\ No newline at end of file
+
+    @Test
+    void whenSaveSecondActiveBookingForSameShift_thenRejected() {
+        // Arrange
+        mealBookingRepository.saveAndFlush(new MealBooking("TOKEN1", "student123", "lunch"));
+
+        // Act & Assert
+        assertThatThrownBy(() -> mealBookingRepository.saveAndFlush(
+                new MealBooking("TOKEN2", "student123", "lunch")))
+                .isInstanceOf(DataIntegrityViolationException.class);
+    }
+
+    @Test
+    void whenPreviousBookingCancelled_thenAllowNewActiveBooking() {
+        // Arrange
+        MealBooking cancelledBooking = new MealBooking("TOKEN1", "student123", "lunch");
+        cancelledBooking.cancel();
+        mealBookingRepository.saveAndFlush(cancelledBooking);
+        MealBooking otherCancelled = new MealBooking("TOKEN2", "student123", "lunch");
+        otherCancelled.cancel();
+        mealBookingRepository.saveAndFlush(otherCancelled);
+
+        // Act
+        MealBooking rebooked = mealBookingRepository.saveAndFlush(
+                new MealBooking("TOKEN3", "student123", "lunch"));
+
+        // Assert
+        assertThat(rebooked.getId()).isNotNull();
+        assertThat(mealBookingRepository.findActiveBookingsByStudent("student123"))
+                .extracting(MealBooking::getToken)
+                .containsExactly("TOKEN3");
+    }
+
+    @Test
+    void whenFindActiveStudentIdsByShift_thenOnlyReturnRequestedActiveStudents() {
+        // Arrange
+        MealBooking cancelledBooking = new MealBooking("TOKEN3", "student3", "lunch");
+        cancelledBooking.cancel();
+        mealBookingRepository.save(new MealBooking("TOKEN1", "student1", "lunch"));
+        mealBookingRepository.save(new MealBooking("TOKEN2", "student2", "dinner"));
+        mealBookingRepository.save(cancelledBooking);
+        mealBookingRepository.save(new MealBooking("TOKEN4", "student4", "lunch"));
+        mealBookingRepository.flush();
+
+        // Act
+        List<String> active = mealBookingRepository.findActiveStudentIdsByShift(
+                "lunch", List.of("student1", "student2", "student3"));
+
+        // Assert
+        assertThat(active).containsExactly("student1");
+    }
+
+    @Test
+    void whenMarkAsUsedByToken_thenOnlyUpdateActiveBookingOnce() {
+        // Arrange
+        mealBookingRepository.saveAndFlush(new MealBooking("TOKEN1", "student1", "lunch"));
+        MealBooking cancelledBooking = new MealBooking("TOKEN2", "student2", "lunch");
+        cancelledBooking.cancel();
+        mealBookingRepository.saveAndFlush(cancelledBooking);
+
+        // Act
+        int first = mealBookingRepository.markAsUsedByToken("TOKEN1");
+        int second = mealBookingRepository.markAsUsedByToken("TOKEN1");
+        int cancelled = mealBookingRepository.markAsUsedByToken("TOKEN2");
+        int unknown = mealBookingRepository.markAsUsedByToken("UNKNOWN");
+        entityManager.clear();
+
+        // Assert
+        assertThat(first).isEqualTo(1);
+        assertThat(second).isZero();
+        assertThat(cancelled).isZero();
+        assertThat(unknown).isZero();
+        assertThat(mealBookingRepository.findByToken("TOKEN1").orElseThrow().isUsed()).isTrue();
+        assertThat(mealBookingRepository.findByToken("TOKEN2").orElseThrow().isUsed()).isFalse();
+    }
+
+    @Test
+    void whenCancelByToken_thenFreeStudentForNewBooking() {
+        // Arrange
+        mealBookingRepository.saveAndFlush(new MealBooking("TOKEN1", "student1", "lunch"));
+        MealBooking usedBooking = new MealBooking("TOKEN2", "student2", "lunch");
+        usedBooking.markAsUsed();
+        mealBookingRepository.saveAndFlush(usedBooking);
+
+        // Act
+        int first = mealBookingRepository.cancelByToken("TOKEN1");
+        int second = mealBookingRepository.cancelByToken("TOKEN1");
+        int used = mealBookingRepository.cancelByToken("TOKEN2");
+        entityManager.clear();
+
+        // Assert
+        assertThat(first).isEqualTo(1);
+        assertThat(second).isZero();
+        assertThat(used).isZero();
+        MealBooking cancelled = mealBookingRepository.findByToken("TOKEN1").orElseThrow();
+        assertThat(cancelled.isCancelled()).isTrue();
+        assertThat(cancelled.getActiveMarker()).isNull();
+        assertThat(mealBookingRepository.saveAndFlush(new MealBooking("TOKEN3", "student1", "lunch")).getId()).isNotNull();
+    }
+
+    @Test
+    void whenFindPageByStudentId_thenWalkHistoryInIdOrder() {
+        // Arrange
+        for (int i = 0; i < 5; i++) {
+            MealBooking booking = new MealBooking("TOKEN" + i, "student123", "shift" + i);
+            mealBookingRepository.save(booking);
+        }
+        mealBookingRepository.save(new MealBooking("OTHER", "student456", "lunch"));
+        mealBookingRepository.flush();
+
+        // Act
+        List<MealBooking> first = mealBookingRepository.findPageByStudentId("student123", 0L, Limit.of(2));
+        List<MealBooking> second = mealBookingRepository.findPageByStudentId(
+                "student123", first.get(1).getId(), Limit.of(2));
+        List<MealBooking> last = mealBookingRepository.findPageByStudentId(
+                "student123", second.get(1).getId(), Limit.of(2));
+
+        // Assert
+        assertThat(first).extracting(MealBooking::getToken).containsExactly("TOKEN0", "TOKEN1");
+        assertThat(second).extracting(MealBooking::getToken).containsExactly("TOKEN2", "TOKEN3");
+        assertThat(last).extracting(MealBooking::getToken).containsExactly("TOKEN4");
+    }
+
+    @Test
+    void whenStreamByStudentId_thenReturnBookingsInIdOrder() {
+        // Arrange
+        mealBookingRepository.save(new MealBooking("TOKEN1", "student123", "lunch"));
+        mealBookingRepository.save(new MealBooking("OTHER", "student456", "lunch"));
+        mealBookingRepository.save(new MealBooking("TOKEN2", "student123", "dinner"));
+        mealBookingRepository.flush();
+
+        // Act
+        List<String> tokens;
+        try (Stream<MealBooking> bookings = mealBookingRepository.streamByStudentId("student123")) {
+            tokens = bookings.map(MealBooking::getToken).toList();
+        }
+
+        // Assert
+        assertThat(tokens).containsExactly("TOKEN1", "TOKEN2");
+    }
+}
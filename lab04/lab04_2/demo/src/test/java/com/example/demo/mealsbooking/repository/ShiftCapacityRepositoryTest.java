@@ -0,0 +1,104 @@
+package com.example.demo.mealsbooking.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import com.example.demo.mealsbooking.entity.MealBooking;
+import com.example.demo.mealsbooking.entity.ShiftCapacity;
+
+@DataJpaTest
+class ShiftCapacityRepositoryTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private ShiftCapacityRepository shiftCapacityRepository;
+
+    @Test
+    void whenReserveSeat_thenStopAtCapacity() {
+        // Arrange
+        entityManager.persist(new ShiftCapacity("lunch", 2, 0));
+        entityManager.flush();
+
+        // Act
+        int first = shiftCapacityRepository.reserveSeat("lunch");
+        int second = shiftCapacityRepository.reserveSeat("lunch");
+        int third = shiftCapacityRepository.reserveSeat("lunch");
+        entityManager.clear();
+
+        // Assert
+        assertThat(first).isEqualTo(1);
+        assertThat(second).isEqualTo(1);
+        assertThat(third).isZero();
+        assertThat(shiftCapacityRepository.findById("lunch").orElseThrow().getUsed()).isEqualTo(2);
+    }
+
+    @Test
+    void whenReleaseSeat_thenNeverGoBelowZero() {
+        // Arrange
+        entityManager.persist(new ShiftCapacity("lunch", 2, 1));
+        entityManager.flush();
+
+        // Act
+        int first = shiftCapacityRepository.releaseSeat("lunch");
+        int second = shiftCapacityRepository.releaseSeat("lunch");
+        entityManager.clear();
+
+        // Assert
+        assertThat(first).isEqualTo(1);
+        assertThat(second).isZero();
+        assertThat(shiftCapacityRepository.findById("lunch").orElseThrow().getUsed()).isZero();
+    }
+
+    @Test
+    void whenCreateIfAbsent_thenSeedFromActiveBookings() {
+        // Arrange
+        MealBooking cancelledBooking = new MealBooking("TOKEN3", "student3", "dinner");
+        cancelledBooking.cancel();
+        entityManager.persist(new MealBooking("TOKEN1", "student1", "dinner"));
+        entityManager.persist(new MealBooking("TOKEN2", "student2", "dinner"));
+        entityManager.persist(cancelledBooking);
+        entityManager.flush();
+
+        // Act
+        int created = shiftCapacityRepository.createIfAbsent("dinner", 100);
+        int createdAgain = shiftCapacityRepository.createIfAbsent("dinner", 100);
+        entityManager.clear();
+
+        // Assert
+        assertThat(created).isEqualTo(1);
+        assertThat(createdAgain).isZero();
+        ShiftCapacity capacity = shiftCapacityRepository.findById("dinner").orElseThrow();
+        assertThat(capacity.getCapacity()).isEqualTo(100);
+        assertThat(capacity.getUsed()).isEqualTo(2);
+        assertThat(capacity.getAvailableSpots()).isEqualTo(98);
+    }
+
+    @Test
+    void whenReserveSeats_thenTakeAllOrNothing() {
+        // Arrange
+        entityManager.persist(new ShiftCapacity("lunch", 10, 4));
+        entityManager.flush();
+
+        // Act
+        int tooMany = shiftCapacityRepository.reserveSeats("lunch", 7);
+        int exact = shiftCapacityRepository.reserveSeats("lunch", 6);
+        Integer available = shiftCapacityRepository.findAvailableSeats("lunch");
+        int released = shiftCapacityRepository.releaseSeats("lunch", 3);
+        int overRelease = shiftCapacityRepository.releaseSeats("lunch", 20);
+        entityManager.clear();
+
+        // Assert
+        assertThat(tooMany).isZero();
+        assertThat(exact).isEqualTo(1);
+        assertThat(available).isZero();
+        assertThat(released).isEqualTo(1);
+        assertThat(overRelease).isZero();
+        assertThat(shiftCapacityRepository.findAvailableSeats("lunch")).isEqualTo(3);
+        assertThat(shiftCapacityRepository.findAvailableSeats("brunch")).isNull();
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.demo.mealsbooking.services;
+
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import com.example.demo.mealsbooking.entity.MealBooking;
+import com.example.demo.mealsbooking.repository.MealBookingRepository;
+
+@ExtendWith(MockitoExtension.class)
+class BookingLookupTest {
+
+    @Mock
+    private MealBookingRepository mealBookingRepository;
+
+    @Spy
+    private CacheManager cacheManager = new ConcurrentMapCacheManager(BookingLookup.BOOKINGS_BY_TOKEN);
+
+    @InjectMocks
+    private BookingLookup bookingLookup;
+
+    @Test
+    void whenLookedUpTwice_thenReadDatabaseOnce() {
+        // Arrange
+        when(mealBookingRepository.findByToken("TOKEN1"))
+                .thenReturn(Optional.of(new MealBooking("TOKEN1", "student1", "lunch")));
+
+        // Act
+        bookingLookup.find("TOKEN1");
+        Optional<BookingView> second = bookingLookup.find("TOKEN1");
+
+        // Assert
+        assertThat(second).map(BookingView::getStudentId).contains("student1");
+        verify(mealBookingRepository, times(1)).findByToken("TOKEN1");
+    }
+
+    @Test
+    void whenUnknownToken_thenNothingIsCached() {
+        // Arrange
+        when(mealBookingRepository.findByToken("UNKNOWN")).thenReturn(Optional.empty());
+
+        // Act
+        bookingLookup.find("UNKNOWN");
+        bookingLookup.find("UNKNOWN");
+
+        // Assert
+        verify(mealBookingRepository, times(2)).findByToken("UNKNOWN");
+    }
+
+    @Test
+    void whenCheckInCommitsWhileLookupIsReading_thenStaleRowDoesNotWin() {
+        // Arrange - the lookup reads the active row, then the check-in commits and
+        // refreshes the cache before the lookup gets to store what it read
+        MealBooking active = new MealBooking("TOKEN1", "student1", "lunch");
+        MealBooking used = new MealBooking("TOKEN1", "student1", "lunch");
+        used.markAsUsed();
+        AtomicInteger reads = new AtomicInteger();
+        when(mealBookingRepository.findByToken("TOKEN1")).thenAnswer(invocation -> {
+            if (reads.getAndIncrement() == 0) {
+                bookingLookup.refreshAfterCommit("TOKEN1");
+                return Optional.of(active);
+            }
+            return Optional.of(used);
+        });
+
+        // Act
+        Optional<BookingView> racing = bookingLookup.find("TOKEN1");
+        Optional<BookingView> next = bookingLookup.find("TOKEN1");
+
+        // Assert
+        assertThat(racing.get().isUsed()).isFalse();
+        assertThat(next.get().isUsed()).isTrue();
+        verify(mealBookingRepository, times(2)).findByToken("TOKEN1");
+    }
+
+    @Test
+    void whenCachedViewIsShared_thenItCannotBeChanged() {
+        // Arrange
+        MealBooking booking = new MealBooking("TOKEN1", "student1", "lunch");
+        when(mealBookingRepository.findByToken("TOKEN1")).thenReturn(Optional.of(booking));
+
+        // Act - changing the entity afterwards does not reach the cached copy
+        BookingView view = bookingLookup.find("TOKEN1").orElseThrow();
+        booking.markAsUsed();
+
+        // Assert
+        assertThat(view.isUsed()).isFalse();
+        assertThat(bookingLookup.find("TOKEN1").orElseThrow().isUsed()).isFalse();
+    }
+}
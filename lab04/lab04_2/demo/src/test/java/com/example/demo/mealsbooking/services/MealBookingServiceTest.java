@@ -1,10 +1,14 @@
 package com.example.demo.mealsbooking.services;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -12,16 +16,28 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
+import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+
 import com.example.demo.mealsbooking.entity.MealBooking;
+import com.example.demo.mealsbooking.entity.ShiftCapacity;
 import com.example.demo.mealsbooking.repository.MealBookingRepository;
+import com.example.demo.mealsbooking.repository.ShiftCapacityRepository;
+
+import jakarta.persistence.EntityManager;
 
 @ExtendWith(MockitoExtension.class)
 class MealBookingServiceTest {
@@ -29,6 +45,18 @@ class MealBookingServiceTest {
     @Mock
     private MealBookingRepository mealBookingRepository;
 
+    @Mock
+    private ShiftCapacityRepository shiftCapacityRepository;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Spy
+    private TokenGenerator tokenGenerator = new SequenceTokenGenerator();
+
+    @Mock
+    private BookingLookup bookingLookup;
+
     @InjectMocks
     private MealBookingServiceImpl mealBookingService;
 
@@ -43,8 +71,8 @@ class MealBookingServiceTest {
 
         when(mealBookingRepository.findByStudentId(studentId))
                 .thenReturn(Arrays.asList()); // No existing bookings
-        when(mealBookingRepository.findByServiceShift(serviceShift))
-                .thenReturn(Arrays.asList()); // No bookings for this shift
+        when(shiftCapacityRepository.reserveSeat(serviceShift))
+                .thenReturn(1); // Seat available for this shift
         when(mealBookingRepository.save(any(MealBooking.class)))
                 .thenReturn(savedBooking);
 
@@ -84,16 +112,12 @@ class MealBookingServiceTest {
         String studentId = "student123";
         String serviceShift = "lunch";
         
-        // Create 100 bookings for the same shift
-        MealBooking[] manyBookings = new MealBooking[100];
-        for (int i = 0; i < 100; i++) {
-            manyBookings[i] = new MealBooking("TOKEN" + i, "student" + i, serviceShift);
-        }
-
         when(mealBookingRepository.findByStudentId(studentId))
                 .thenReturn(Arrays.asList()); // No existing bookings for this student
-        when(mealBookingRepository.findByServiceShift(serviceShift))
-                .thenReturn(Arrays.asList(manyBookings)); // Shift is full
+        when(shiftCapacityRepository.reserveSeat(serviceShift))
+                .thenReturn(0); // Shift is full
+        when(shiftCapacityRepository.createIfAbsent(serviceShift, 100))
+                .thenReturn(0); // Counter already exists
 
         // Act & Assert
         assertThrows(IllegalStateException.class, () -> {
@@ -103,22 +127,252 @@ class MealBookingServiceTest {
         verify(mealBookingRepository, never()).save(any(MealBooking.class));
     }
 
+    @Test
+    void whenBookMealForNewShift_thenCreateCounterAndReserve() {
+        // Arrange
+        String studentId = "student123";
+        String serviceShift = "brunch";
+        MealBooking savedBooking = new MealBooking("TOKEN123", studentId, serviceShift);
+
+        when(mealBookingRepository.findByStudentId(studentId))
+                .thenReturn(Arrays.asList());
+        when(shiftCapacityRepository.reserveSeat(serviceShift))
+                .thenReturn(0, 1); // No counter yet, then a seat after creating it
+        when(shiftCapacityRepository.createIfAbsent(serviceShift, 100))
+                .thenReturn(1);
+        when(mealBookingRepository.save(any(MealBooking.class)))
+                .thenReturn(savedBooking);
+
+        // Act
+        MealBooking result = mealBookingService.bookMeal(studentId, serviceShift);
+
+        // Assert
+        assertEquals("TOKEN123", result.getToken());
+        verify(shiftCapacityRepository, times(2)).reserveSeat(serviceShift);
+    }
+
+    @Test
+    void whenConcurrentDuplicateBookingIsRejectedByDatabase_thenReleaseSeat() {
+        // Arrange
+        String studentId = "student123";
+        String serviceShift = "lunch";
+
+        when(mealBookingRepository.findByStudentId(studentId))
+                .thenReturn(Arrays.asList());
+        when(shiftCapacityRepository.reserveSeat(serviceShift))
+                .thenReturn(1);
+        when(mealBookingRepository.save(any(MealBooking.class)))
+                .thenThrow(new DataIntegrityViolationException("uk_meal_bookings_active_student_shift"));
+
+        // Act & Assert
+        assertThrows(IllegalStateException.class, () -> {
+            mealBookingService.bookMeal(studentId, serviceShift);
+        });
+
+        verify(shiftCapacityRepository, times(1)).releaseSeat(serviceShift);
+    }
+
+    @Test
+    void whenGeneratedTokenClashes_thenRetryWithFreshToken() {
+        // Arrange
+        String studentId = "student123";
+        String serviceShift = "lunch";
+        MealBooking savedBooking = new MealBooking("FRESH", studentId, serviceShift);
+
+        doReturn("CLASH", "FRESH").when(tokenGenerator).nextToken();
+        when(mealBookingRepository.findByStudentId(studentId))
+                .thenReturn(Arrays.asList());
+        when(shiftCapacityRepository.reserveSeat(serviceShift))
+                .thenReturn(1);
+        when(mealBookingRepository.save(any(MealBooking.class)))
+                .thenThrow(new DataIntegrityViolationException("meal_bookings.token"))
+                .thenReturn(savedBooking);
+        when(mealBookingRepository.existsByToken("CLASH"))
+                .thenReturn(true);
+
+        // Act
+        MealBooking result = mealBookingService.bookMeal(studentId, serviceShift);
+
+        // Assert
+        assertEquals("FRESH", result.getToken());
+        verify(mealBookingRepository, times(2)).save(any(MealBooking.class));
+        verify(shiftCapacityRepository, never()).releaseSeat(serviceShift);
+    }
+
+    @Test
+    void whenEveryGeneratedTokenClashes_thenGiveUpAndReleaseSeat() {
+        // Arrange
+        String studentId = "student123";
+        String serviceShift = "lunch";
+
+        doReturn("CLASH").when(tokenGenerator).nextToken();
+        when(mealBookingRepository.findByStudentId(studentId))
+                .thenReturn(Arrays.asList());
+        when(shiftCapacityRepository.reserveSeat(serviceShift))
+                .thenReturn(1);
+        when(mealBookingRepository.save(any(MealBooking.class)))
+                .thenThrow(new DataIntegrityViolationException("meal_bookings.token"));
+        when(mealBookingRepository.existsByToken("CLASH"))
+                .thenReturn(true);
+
+        // Act & Assert
+        IllegalStateException error = assertThrows(IllegalStateException.class, () -> {
+            mealBookingService.bookMeal(studentId, serviceShift);
+        });
+
+        assertEquals("Could not allocate a unique booking token", error.getMessage());
+        verify(mealBookingRepository, times(3)).save(any(MealBooking.class));
+        verify(shiftCapacityRepository, times(1)).releaseSeat(serviceShift);
+    }
+
+    @Test
+    void whenBookMealsInBatch_thenReserveSeatsOncePerShift() {
+        // Arrange
+        List<BookingRequest> requests = Arrays.asList(
+                new BookingRequest("student1", "lunch"),
+                new BookingRequest("student2", "dinner"),
+                new BookingRequest("student2", "lunch"),
+                new BookingRequest("student1", "lunch"),    // repeated in the batch
+                new BookingRequest("student3", "lunch"),    // already booked
+                new BookingRequest("student4", "lunch"),    // beyond capacity
+                new BookingRequest(" ", "lunch"),
+                null);
+
+        when(mealBookingRepository.findActiveStudentIdsByShift(eq("lunch"), anyCollection()))
+                .thenReturn(Arrays.asList("student3"));
+        when(mealBookingRepository.findActiveStudentIdsByShift(eq("dinner"), anyCollection()))
+                .thenReturn(Arrays.asList());
+        when(shiftCapacityRepository.findAvailableSeats("lunch")).thenReturn(2);
+        when(shiftCapacityRepository.findAvailableSeats("dinner")).thenReturn(null, 100);
+        when(shiftCapacityRepository.reserveSeats("lunch", 2)).thenReturn(1);
+        when(shiftCapacityRepository.reserveSeats("dinner", 1)).thenReturn(1);
+        when(mealBookingRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        List<BookingResult> results = mealBookingService.bookMeals(requests);
+
+        // Assert
+        assertEquals(8, results.size());
+        assertNotNull(results.get(0).getBooking());
+        assertEquals("dinner", results.get(1).getBooking().getServiceShift());
+        assertNotNull(results.get(2).getBooking());
+        assertEquals("Student already has a reservation for this shift", results.get(3).getError());
+        assertEquals("Student already has a reservation for this shift", results.get(4).getError());
+        assertEquals("No available spots for this shift", results.get(5).getError());
+        assertEquals("Student ID is required", results.get(6).getError());
+        assertEquals("Booking request is required", results.get(7).getError());
+        assertNull(results.get(0).getError());
+        verify(shiftCapacityRepository, times(1)).createIfAbsent("dinner", 100);
+        verify(mealBookingRepository, times(2)).saveAll(anyList());
+        verify(mealBookingRepository, never()).save(any(MealBooking.class));
+    }
+
+    @Test
+    void whenBatchSeatReservationLosesRace_thenRetryWithFreshCount() {
+        // Arrange
+        List<BookingRequest> requests = Arrays.asList(
+                new BookingRequest("student1", "lunch"),
+                new BookingRequest("student2", "lunch"));
+
+        when(mealBookingRepository.findActiveStudentIdsByShift(eq("lunch"), anyCollection()))
+                .thenReturn(Arrays.asList());
+        when(shiftCapacityRepository.findAvailableSeats("lunch")).thenReturn(2, 1);
+        when(shiftCapacityRepository.reserveSeats("lunch", 2)).thenReturn(0);
+        when(shiftCapacityRepository.reserveSeats("lunch", 1)).thenReturn(1);
+        when(mealBookingRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        List<BookingResult> results = mealBookingService.bookMeals(requests);
+
+        // Assert
+        assertNotNull(results.get(0).getBooking());
+        assertEquals("No available spots for this shift", results.get(1).getError());
+    }
+
+    @Test
+    void whenBatchShiftIsFull_thenNothingIsSaved() {
+        // Arrange
+        when(mealBookingRepository.findActiveStudentIdsByShift(eq("lunch"), anyCollection()))
+                .thenReturn(Arrays.asList());
+        when(shiftCapacityRepository.findAvailableSeats("lunch")).thenReturn(0);
+
+        // Act
+        List<BookingResult> results = mealBookingService.bookMeals(
+                Arrays.asList(new BookingRequest("student1", "lunch")));
+
+        // Assert
+        assertEquals("No available spots for this shift", results.get(0).getError());
+        verify(mealBookingRepository, never()).saveAll(anyList());
+    }
+
+    @Test
+    void whenBatchInsertFailsForAnotherReason_thenReleaseSeatsAndRethrow() {
+        // Arrange
+        List<BookingRequest> requests = Arrays.asList(
+                new BookingRequest("student1", "lunch"),
+                new BookingRequest("student2", "lunch"));
+        IllegalStateException failure = new IllegalStateException("Connection lost");
+
+        when(mealBookingRepository.findActiveStudentIdsByShift(eq("lunch"), anyCollection()))
+                .thenReturn(Arrays.asList());
+        when(shiftCapacityRepository.findAvailableSeats("lunch")).thenReturn(100);
+        when(shiftCapacityRepository.reserveSeats("lunch", 2)).thenReturn(1);
+        when(mealBookingRepository.saveAll(anyList())).thenThrow(failure);
+
+        // Act & Assert
+        assertEquals(failure, assertThrows(IllegalStateException.class, () -> {
+            mealBookingService.bookMeals(requests);
+        }));
+        verify(shiftCapacityRepository, times(1)).releaseSeats("lunch", 2);
+        verify(mealBookingRepository, never()).save(any(MealBooking.class));
+    }
+
+    @Test
+    void whenBatchInsertIsRejected_thenFallBackToSingleBookings() {
+        // Arrange
+        List<BookingRequest> requests = Arrays.asList(
+                new BookingRequest("student1", "lunch"),
+                new BookingRequest("student2", "lunch"));
+        MealBooking savedBooking = new MealBooking("TOKEN1", "student1", "lunch");
+
+        when(mealBookingRepository.findActiveStudentIdsByShift(eq("lunch"), anyCollection()))
+                .thenReturn(Arrays.asList());
+        when(shiftCapacityRepository.findAvailableSeats("lunch")).thenReturn(100);
+        when(shiftCapacityRepository.reserveSeats("lunch", 2)).thenReturn(1);
+        when(mealBookingRepository.saveAll(anyList()))
+                .thenThrow(new DataIntegrityViolationException("uk_meal_bookings_active_student_shift"));
+        when(mealBookingRepository.findByStudentId("student1")).thenReturn(Arrays.asList());
+        when(mealBookingRepository.findByStudentId("student2"))
+                .thenReturn(Arrays.asList(new MealBooking("OTHER", "student2", "lunch")));
+        when(shiftCapacityRepository.reserveSeat("lunch")).thenReturn(1);
+        when(mealBookingRepository.save(any(MealBooking.class))).thenReturn(savedBooking);
+
+        // Act
+        List<BookingResult> results = mealBookingService.bookMeals(requests);
+
+        // Assert
+        assertEquals("TOKEN1", results.get(0).getBooking().getToken());
+        assertEquals("Student already has a reservation for this shift", results.get(1).getError());
+        assertEquals("student2", results.get(1).getStudentId());
+        verify(shiftCapacityRepository, times(1)).releaseSeats("lunch", 2);
+    }
+
     @Test
     void whenGetReservationWithValidToken_thenReturnBooking() {
         // Arrange
         String token = "TOKEN123";
-        MealBooking booking = new MealBooking(token, "student123", "lunch");
+        BookingView booking = BookingView.of(new MealBooking(token, "student123", "lunch"));
         
-        when(mealBookingRepository.findByToken(token))
+        when(bookingLookup.find(token))
                 .thenReturn(Optional.of(booking));
 
         // Act
-        Optional<MealBooking> result = mealBookingService.getReservation(token);
+        Optional<BookingView> result = mealBookingService.getReservation(token);
 
         // Assert
         assertTrue(result.isPresent());
         assertEquals(token, result.get().getToken());
-        verify(mealBookingRepository, times(1)).findByToken(token);
+        verify(bookingLookup, times(1)).find(token);
     }
 
     @Test
@@ -126,46 +380,42 @@ class MealBookingServiceTest {
         // Arrange
         String token = "INVALID";
         
-        when(mealBookingRepository.findByToken(token))
+        when(bookingLookup.find(token))
                 .thenReturn(Optional.empty());
 
         // Act
-        Optional<MealBooking> result = mealBookingService.getReservation(token);
+        Optional<BookingView> result = mealBookingService.getReservation(token);
 
         // Assert
         assertFalse(result.isPresent());
-        verify(mealBookingRepository, times(1)).findByToken(token);
+        verify(bookingLookup, times(1)).find(token);
     }
 
     @Test
-    void whenCheckInValidBooking_thenReturnTrueAndMarkAsUsed() {
+    void whenCheckInActiveBooking_thenReturnTrue() {
         // Arrange
         String token = "TOKEN123";
-        MealBooking booking = new MealBooking(token, "student123", "lunch");
         
-        when(mealBookingRepository.findByToken(token))
-                .thenReturn(Optional.of(booking));
-        when(mealBookingRepository.save(any(MealBooking.class)))
-                .thenReturn(booking);
+        when(mealBookingRepository.markAsUsedByToken(token))
+                .thenReturn(1);
 
         // Act
         boolean result = mealBookingService.checkIn(token);
 
         // Assert
         assertTrue(result);
-        assertTrue(booking.isUsed());
-        verify(mealBookingRepository, times(1)).save(booking);
+        verify(mealBookingRepository, never()).findByToken(token);
+        verify(mealBookingRepository, never()).save(any(MealBooking.class));
+        verify(bookingLookup, times(1)).refreshAfterCommit(token);
     }
 
     @Test
-    void whenCheckInAlreadyUsedBooking_thenReturnFalse() {
+    void whenCheckInUsedCancelledOrUnknownBooking_thenReturnFalse() {
         // Arrange
         String token = "TOKEN123";
-        MealBooking booking = new MealBooking(token, "student123", "lunch");
-        booking.markAsUsed(); // Already used
         
-        when(mealBookingRepository.findByToken(token))
-                .thenReturn(Optional.of(booking));
+        when(mealBookingRepository.markAsUsedByToken(token))
+                .thenReturn(0); // No active booking matched
 
         // Act
         boolean result = mealBookingService.checkIn(token);
@@ -173,59 +423,53 @@ class MealBookingServiceTest {
         // Assert
         assertFalse(result);
         verify(mealBookingRepository, never()).save(any(MealBooking.class));
+        verify(bookingLookup, never()).refreshAfterCommit(token);
     }
 
     @Test
-    void whenCheckInCancelledBooking_thenReturnFalse() {
+    void whenCancelActiveBooking_thenReturnTrueAndReleaseSeat() {
         // Arrange
         String token = "TOKEN123";
-        MealBooking booking = new MealBooking(token, "student123", "lunch");
-        booking.cancel(); // Cancelled
+        BookingView booking = BookingView.of(new MealBooking(token, "student123", "lunch"));
         
-        when(mealBookingRepository.findByToken(token))
+        when(mealBookingRepository.cancelByToken(token))
+                .thenReturn(1);
+        when(bookingLookup.find(token))
                 .thenReturn(Optional.of(booking));
 
         // Act
-        boolean result = mealBookingService.checkIn(token);
+        boolean result = mealBookingService.cancelReservation(token);
 
         // Assert
-        assertFalse(result);
+        assertTrue(result);
         verify(mealBookingRepository, never()).save(any(MealBooking.class));
+        verify(shiftCapacityRepository, times(1)).releaseSeat("lunch");
+        verify(bookingLookup, times(1)).refreshAfterCommit(token);
     }
 
     @Test
-    void whenCancelValidBooking_thenReturnTrueAndMarkAsCancelled() {
+    void whenCancelUsedCancelledOrUnknownBooking_thenReturnFalse() {
         // Arrange
         String token = "TOKEN123";
-        MealBooking booking = new MealBooking(token, "student123", "lunch");
         
-        when(mealBookingRepository.findByToken(token))
-                .thenReturn(Optional.of(booking));
-        when(mealBookingRepository.save(any(MealBooking.class)))
-                .thenReturn(booking);
+        when(mealBookingRepository.cancelByToken(token))
+                .thenReturn(0);
 
         // Act
         boolean result = mealBookingService.cancelReservation(token);
 
         // Assert
-        assertTrue(result);
-        assertTrue(booking.isCancelled());
-        verify(mealBookingRepository, times(1)).save(booking);
+        assertFalse(result);
+        verify(shiftCapacityRepository, never()).releaseSeat(any(String.class));
     }
 
     @Test
     void whenGetAvailableSpots_thenReturnCorrectCount() {
         // Arrange
         String shift = "lunch";
-        MealBooking booking1 = new MealBooking("TOKEN1", "student1", shift);
-        MealBooking booking2 = new MealBooking("TOKEN2", "student2", shift);
-        MealBooking cancelledBooking = new MealBooking("TOKEN3", "student3", shift);
-        cancelledBooking.cancel();
-        
-        List<MealBooking> bookings = Arrays.asList(booking1, booking2, cancelledBooking);
 
-        when(mealBookingRepository.findByServiceShift(shift))
-                .thenReturn(bookings);
+        when(mealBookingRepository.countActiveBookingsByShift(shift))
+                .thenReturn(2L);
 
         // Act
         int availableSpots = mealBookingService.getAvailableSpots(shift);
@@ -234,6 +478,20 @@ class MealBookingServiceTest {
         assertEquals(98, availableSpots); // 100 capacity - 2 active bookings
     }
 
+    @Test
+    void whenGetAvailableSpotsWithCounter_thenUseCounter() {
+        // Arrange
+        when(shiftCapacityRepository.findById("lunch"))
+                .thenReturn(Optional.of(new ShiftCapacity("lunch", 100, 40)));
+
+        // Act
+        int availableSpots = mealBookingService.getAvailableSpots("lunch");
+
+        // Assert
+        assertEquals(60, availableSpots);
+        verify(mealBookingRepository, never()).countActiveBookingsByShift("lunch");
+    }
+
     @Test
     void whenGetStudentBookings_thenReturnAllBookings() {
         // Arrange
@@ -254,4 +512,41 @@ class MealBookingServiceTest {
         assertEquals(studentId, result.get(1).getStudentId());
         verify(mealBookingRepository, times(1)).findByStudentId(studentId);
     }
-}
\ No newline at end of file
+
+    @Test
+    void whenGetStudentBookingsPage_thenQueryAfterCursor() {
+        // Arrange
+        MealBooking booking = new MealBooking("TOKEN1", "student123", "lunch");
+
+        when(mealBookingRepository.findPageByStudentId("student123", 40L, Limit.of(20)))
+                .thenReturn(Arrays.asList(booking));
+
+        // Act
+        List<MealBooking> result = mealBookingService.getStudentBookings("student123", 40L, 20);
+
+        // Assert
+        assertEquals(Arrays.asList(booking), result);
+    }
+
+    @Test
+    void whenForEachStudentBooking_thenVisitAndDetachEachBooking() {
+        // Arrange
+        MealBooking booking1 = new MealBooking("TOKEN1", "student123", "lunch");
+        MealBooking booking2 = new MealBooking("TOKEN2", "student123", "dinner");
+        boolean[] closed = {false};
+
+        when(mealBookingRepository.streamByStudentId("student123"))
+                .thenReturn(Stream.of(booking1, booking2).onClose(() -> closed[0] = true));
+
+        // Act
+        List<String> tokens = new ArrayList<>();
+        Consumer<MealBooking> collect = booking -> tokens.add(booking.getToken());
+        mealBookingService.forEachStudentBooking("student123", collect);
+
+        // Assert
+        assertEquals(Arrays.asList("TOKEN1", "TOKEN2"), tokens);
+        assertTrue(closed[0]);
+        verify(entityManager, times(1)).detach(booking1);
+        verify(entityManager, times(1)).detach(booking2);
+    }
+}
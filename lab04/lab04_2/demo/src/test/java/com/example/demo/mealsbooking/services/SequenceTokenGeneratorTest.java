@@ -0,0 +1,45 @@
+package com.example.demo.mealsbooking.services;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.jupiter.api.Test;
+
+class SequenceTokenGeneratorTest {
+
+    private final SequenceTokenGenerator tokenGenerator = new SequenceTokenGenerator();
+
+    @Test
+    void whenGenerateToken_thenThirteenBase32Characters() {
+        // Act
+        String token = tokenGenerator.nextToken();
+
+        // Assert
+        assertThat(token).matches("[0-9a-hjkmnp-tv-z]{13}");
+    }
+
+    @Test
+    void whenGenerateFromManyThreads_thenNoDuplicates() throws Exception {
+        // Arrange
+        Set<String> tokens = ConcurrentHashMap.newKeySet();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        // Act
+        for (int t = 0; t < 8; t++) {
+            executor.submit(() -> {
+                for (int i = 0; i < 25_000; i++) {
+                    tokens.add(tokenGenerator.nextToken());
+                }
+            });
+        }
+        executor.shutdown();
+
+        // Assert
+        assertThat(executor.awaitTermination(30, TimeUnit.SECONDS)).isTrue();
+        assertThat(tokens).hasSize(200_000);
+    }
+}
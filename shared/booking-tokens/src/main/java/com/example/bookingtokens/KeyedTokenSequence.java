@@ -0,0 +1,152 @@
+package com.example.bookingtokens;
+
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Booking tokens for the meal booking apps, shown to students as 13 base32 characters.
+ *
+ * A token is the only credential for looking up, checking in or cancelling a booking,
+ * so it must not be derivable from other tokens. Each thread draws a unique prefix once
+ * and counts locally, and every (prefix, counter) value is passed through SipHash-2-4
+ * under a 128-bit key from {@link SecureRandom}. SipHash is a keyed PRF: without the
+ * key, seeing any number of tokens says nothing about the next one.
+ *
+ * A PRF is not a bijection, so two tokens can collide, with a probability of about
+ * n^2 / 2^65 after n tokens. Stores must keep rejecting duplicate tokens and draw again.
+ */
+public final class KeyedTokenSequence {
+    public static final int TOKEN_LENGTH = 13;
+
+    private static final int DEFAULT_COUNTER_BITS = 40;
+    private static final char[] ALPHABET = "0123456789abcdefghjkmnpqrstvwxyz".toCharArray();
+    private static final byte[] DIGITS = new byte[128];
+
+    static {
+        Arrays.fill(DIGITS, (byte) -1);
+        for (int i = 0; i < ALPHABET.length; i++) {
+            DIGITS[ALPHABET[i]] = (byte) i;
+        }
+    }
+
+    private final long k0;
+    private final long k1;
+    private final int counterBits;
+    private final AtomicLong prefixes = new AtomicLong();
+    private final ThreadLocal<Sequence> sequence = ThreadLocal.withInitial(this::newSequence);
+
+    public KeyedTokenSequence() {
+        this(new SecureRandom(), DEFAULT_COUNTER_BITS);
+    }
+
+    private KeyedTokenSequence(SecureRandom random, int counterBits) {
+        this(random.nextLong(), random.nextLong(), counterBits);
+    }
+
+    // A fixed key is only meant for tests
+    public KeyedTokenSequence(long k0, long k1, int counterBits) {
+        this.k0 = k0;
+        this.k1 = k1;
+        this.counterBits = counterBits;
+    }
+
+    // Never returns 0
+    public long next() {
+        while (true) {
+            Sequence current = sequence.get();
+            if (current.counter == current.limit) {
+                // This thread used up its prefix, so draw a fresh one
+                current = newSequence();
+                sequence.set(current);
+            }
+            long token = sipHash24(k0, k1, current.prefix | current.counter++);
+            if (token != 0) {
+                return token;
+            }
+        }
+    }
+
+    public String nextString() {
+        return format(next());
+    }
+
+    public static String format(long token) {
+        char[] chars = new char[TOKEN_LENGTH];
+        for (int i = TOKEN_LENGTH - 1; i >= 0; i--) {
+            chars[i] = ALPHABET[(int) (token & 31)];
+            token >>>= 5;
+        }
+        return new String(chars);
+    }
+
+    // Returns 0 for anything format() could not have produced
+    public static long parse(String token) {
+        if (token == null || token.length() != TOKEN_LENGTH) {
+            return 0;
+        }
+        long value = 0;
+        for (int i = 0; i < TOKEN_LENGTH; i++) {
+            char c = token.charAt(i);
+            int digit = c < DIGITS.length ? DIGITS[c] : -1;
+            // The leading character only carries the top 4 bits
+            if (digit < 0 || (i == 0 && digit > 15)) {
+                return 0;
+            }
+            value = (value << 5) | digit;
+        }
+        return value;
+    }
+
+    // SipHash-2-4 of one 8-byte block, with the message and key words in little-endian order
+    public static long sipHash24(long k0, long k1, long message) {
+        long[] v = {
+            k0 ^ 0x736f6d6570736575L,
+            k1 ^ 0x646f72616e646f6dL,
+            k0 ^ 0x6c7967656e657261L,
+            k1 ^ 0x7465646279746573L,
+        };
+        v[3] ^= message;
+        sipRounds(v, 2);
+        v[0] ^= message;
+
+        long lengthBlock = 8L << 56;
+        v[3] ^= lengthBlock;
+        sipRounds(v, 2);
+        v[0] ^= lengthBlock;
+
+        v[2] ^= 0xff;
+        sipRounds(v, 4);
+        return v[0] ^ v[1] ^ v[2] ^ v[3];
+    }
+
+    private static void sipRounds(long[] v, int rounds) {
+        for (int i = 0; i < rounds; i++) {
+            v[0] += v[1];
+            v[1] = Long.rotateLeft(v[1], 13) ^ v[0];
+            v[0] = Long.rotateLeft(v[0], 32);
+            v[2] += v[3];
+            v[3] = Long.rotateLeft(v[3], 16) ^ v[2];
+            v[0] += v[3];
+            v[3] = Long.rotateLeft(v[3], 21) ^ v[0];
+            v[2] += v[1];
+            v[1] = Long.rotateLeft(v[1], 17) ^ v[2];
+            v[2] = Long.rotateLeft(v[2], 32);
+        }
+    }
+
+    private Sequence newSequence() {
+        return new Sequence(prefixes.getAndIncrement() << counterBits, 1L << counterBits);
+    }
+
+    private static final class Sequence {
+        private final long prefix;
+        private final long limit;
+        private long counter;
+
+        private Sequence(long prefix, long limit) {
+            this.prefix = prefix;
+            this.limit = limit;
+        }
+    }
+}